@@ -0,0 +1,62 @@
+package com.petstore.backend.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+
+/**
+ * Datos sintéticos compartidos por los benchmarks
+ */
+final class BenchmarkData {
+
+    static final int CATEGORIES = 20;
+
+    private BenchmarkData() {
+    }
+
+    static List<Category> categories() {
+        List<Category> categories = new ArrayList<>(CATEGORIES);
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = new Category("Categoría " + i, "Descripción " + i);
+            category.setCategoryId(i + 1);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    static List<Product> products(int size) {
+        List<Category> categories = categories();
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = new Product("Producto " + i, 10.0 + (i % 500), i + 1, categories.get(i % CATEGORIES));
+            product.setProductId(i + 1);
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Promociones activas repartidas en tres tercios: vencidas, vigentes y programadas
+     */
+    static List<Promotion> promotions(int size) {
+        List<Category> categories = categories();
+        Status active = new Status("ACTIVE");
+        active.setStatusId(1);
+        LocalDate today = LocalDate.now();
+        List<Promotion> promotions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate start = today.plusDays((i % 3 - 1) * 10L);
+            Promotion promotion = new Promotion("Promo " + i, "Descripción " + i, start, start.plusDays(5),
+                    5.0 + (i % 40), active);
+            promotion.setPromotionId(i + 1);
+            promotion.setCategory(categories.get(i % CATEGORIES));
+            promotions.add(promotion);
+        }
+        return promotions;
+    }
+}
@@ -0,0 +1,179 @@
+package com.petstore.backend.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga HTTP para comparar hilos virtuales y de plataforma.
+ *
+ * Lanza {@code load.concurrency} clientes concurrentes contra {@code /api/products}
+ * y {@code /graphql} durante {@code load.duration} segundos (tras un calentamiento
+ * de {@code load.warmup} segundos) e imprime throughput, p50 y p99 por endpoint.
+ * Se ejecuta contra una aplicación ya levantada, una vez con
+ * {@code VIRTUAL_THREADS_ENABLED=true} y otra con {@code false}:
+ *
+ * <pre>
+ * java -cp target/test-classes -Dload.url=http://localhost:8080 -Dload.label=virtual \
+ *      com.petstore.backend.benchmark.HttpLoadTest
+ * </pre>
+ *
+ * Con {@code load.steps} (p. ej. {@code 250,1000,4000}) mide la capacidad de conexiones
+ * concurrentes: repite la prueba con cada nivel de concurrencia y, si la aplicación expone
+ * {@code /actuator/metrics}, muestra los hilos vivos y el heap usado del servidor tras cada
+ * nivel. Levantando la aplicación con un {@code -Xmx} fijo se compara cuántas conexiones
+ * atiende cada modo con el mismo presupuesto de memoria. La prueba se corta en el primer
+ * nivel con más de un 1% de errores.
+ */
+public final class HttpLoadTest {
+
+    private static final String GRAPHQL_QUERY = "{\"query\":\"{ products { productId productName basePrice } }\"}";
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"statistic\"\\s*:\\s*\"VALUE\"\\s*,\\s*\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.url", "http://localhost:8080");
+        String label = System.getProperty("load.label", "run");
+        int concurrency = Integer.getInteger("load.concurrency", 200);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup", 5));
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        HttpRequest products = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpRequest graphql = HttpRequest.newBuilder(URI.create(baseUrl + "/graphql"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(GRAPHQL_QUERY))
+                .build();
+
+        String steps = System.getProperty("load.steps");
+        if (steps != null) {
+            capacity(client, baseUrl, label, List.of(products, graphql), steps, warmup, duration);
+            return;
+        }
+
+        System.out.printf("%-10s %-14s %8s %10s %10s %10s %8s%n",
+                "label", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "errors");
+        for (HttpRequest request : List.of(products, graphql)) {
+            run(client, request, concurrency, warmup);
+            Result result = run(client, request, concurrency, duration);
+            System.out.printf("%-10s %-14s %8d %10.1f %10.2f %10.2f %8d%n",
+                    label, request.uri().getPath(), result.requests(),
+                    result.requests() / (double) duration.toSeconds(),
+                    result.percentile(50), result.percentile(99), result.errors());
+        }
+    }
+
+    private static void capacity(HttpClient client, String baseUrl, String label, List<HttpRequest> requests,
+                                 String steps, Duration warmup, Duration duration) throws Exception {
+        System.out.printf("%-10s %-14s %11s %8s %10s %10s %10s %8s %8s %9s%n",
+                "label", "endpoint", "concurrency", "requests", "req/s", "p50 ms", "p99 ms", "errors",
+                "threads", "heap MB");
+        for (HttpRequest request : requests) {
+            for (String step : steps.split(",")) {
+                int concurrency = Integer.parseInt(step.trim());
+                run(client, request, concurrency, warmup);
+                Result result = run(client, request, concurrency, duration);
+                double threads = serverMetric(client, baseUrl, "jvm.threads.live", null);
+                double heap = serverMetric(client, baseUrl, "jvm.memory.used", "area:heap") / (1024 * 1024);
+                System.out.printf("%-10s %-14s %11d %8d %10.1f %10.2f %10.2f %8d %8.0f %9.0f%n",
+                        label, request.uri().getPath(), concurrency, result.requests(),
+                        result.requests() / (double) duration.toSeconds(),
+                        result.percentile(50), result.percentile(99), result.errors(), threads, heap);
+                if (result.errors() > MAX_ERROR_RATE * Math.max(1, result.requests())) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Valor de una métrica de Actuator del servidor, o NaN si no está expuesta
+     */
+    private static double serverMetric(HttpClient client, String baseUrl, String name, String tag) {
+        String uri = baseUrl + "/actuator/metrics/" + name + (tag != null ? "?tag=" + tag : "");
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = METRIC_VALUE.matcher(response.body());
+            return response.statusCode() == 200 && matcher.find() ? Double.parseDouble(matcher.group(1)) : Double.NaN;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> workers = new ArrayList<>(concurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        List<long[]> perWorker = new ArrayList<>(concurrency);
+        for (Future<long[]> worker : workers) {
+            perWorker.add(worker.get());
+        }
+        long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private record Result(long[] sortedLatencies, long errors) {
+
+        long requests() {
+            return sortedLatencies.length;
+        }
+
+        double percentile(int percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0.0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, rank)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.petstore.backend.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.petstore.backend.controller.ProductController;
+import com.petstore.backend.controller.ProductViewCache;
+import com.petstore.backend.dto.ProductDTO;
+import com.petstore.backend.dto.PromotionDTO;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.mapper.ProductMapper;
+import com.petstore.backend.mapper.PromotionMapper;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.service.ActivePromotionIndex;
+import com.petstore.backend.service.CatalogVersionStore;
+import com.petstore.backend.service.CatalogVersionStore.StoredVersion;
+import com.petstore.backend.service.CatalogVersions;
+import com.petstore.backend.service.PricingService;
+import com.petstore.backend.service.ProductService;
+import com.petstore.backend.service.PromotionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Conversión entidad → DTO: métodos convertToDTO escritos a mano frente a MapStruct.
+ *
+ * Los métodos a mano se miden a través de su API pública con repositorios simulados,
+ * por lo que incluyen el coste (constante) de la llamada al mock. En productos, el
+ * camino del controlador incluye además el cálculo de effectivePrice sin promociones.
+ *
+ * {@code productViewSerialized} y {@code productViewCached} no comparan mapeos: miden
+ * la vista JSON de {@code ProductViewCache}, convirtiendo y serializando en cada llamada
+ * (la versión del catálogo cambia cada vez) o sirviendo la vista ya serializada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int size;
+
+    private List<Product> products;
+    private List<Promotion> promotions;
+
+    private ProductMapper productMapper;
+    private PromotionMapper promotionMapper;
+    private ProductController productController;
+    private CatalogVersions catalogVersions;
+    private WebRequest request;
+    private PromotionService promotionService;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(size);
+        promotions = BenchmarkData.promotions(size);
+
+        productMapper = Mappers.getMapper(ProductMapper.class);
+        promotionMapper = Mappers.getMapper(PromotionMapper.class);
+
+        ProductService productService = mock(ProductService.class);
+        when(productService.findByPriceBetween(any(), any())).thenReturn(products);
+        when(productService.findByCategoryId(0)).thenReturn(products);
+        ActivePromotionIndex index = mock(ActivePromotionIndex.class);
+        when(index.getActivePromotionsByCategory(any())).thenReturn(List.of());
+        catalogVersions = new CatalogVersions(new LocalVersionStore());
+        productController = new ProductController(productService, new PricingService(index), catalogVersions,
+                new ProductViewCache(new ObjectMapper().findAndRegisterModules(), Long.MAX_VALUE, new SimpleMeterRegistry()));
+        // Sin cabeceras condicionales: siempre se recorre el camino completo de conversión
+        request = new ServletWebRequest(new MockHttpServletRequest());
+
+        PromotionRepository promotionRepository = mock(PromotionRepository.class);
+        when(promotionRepository.findAll()).thenReturn(promotions);
+        promotionService = new PromotionService(promotionRepository, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<ProductDTO> productHandWritten() {
+        // Endpoint sin caché de vistas: solo la conversión a DTO
+        return productController.getProductsByPriceRange(0.0, Double.MAX_VALUE, request).getBody();
+    }
+
+    @Benchmark
+    public byte[] productViewSerialized() {
+        catalogVersions.bump(CatalogVersions.Table.PRODUCTS);
+        return productController.getProductsByCategory(0, request).getBody();
+    }
+
+    @Benchmark
+    public byte[] productViewCached() {
+        return productController.getProductsByCategory(0, request).getBody();
+    }
+
+    @Benchmark
+    public List<ProductDTO> productMapStruct() {
+        return productMapper.toDTOList(products);
+    }
+
+    @Benchmark
+    public List<PromotionDTO> promotionHandWritten() {
+        return promotionService.getAllPromotions();
+    }
+
+    @Benchmark
+    public List<PromotionDTO> promotionMapStruct() {
+        return promotionMapper.toDTOList(promotions);
+    }
+
+    /**
+     * Almacén de versiones en memoria: cada incremento se confirma al momento
+     */
+    private static final class LocalVersionStore extends CatalogVersionStore {
+        private long version;
+
+        LocalVersionStore() {
+            super(null, null, null);
+        }
+
+        @Override
+        public void increment(CatalogVersions.Table table, Consumer<Map<CatalogVersions.Table, StoredVersion>> committed) {
+            committed.accept(Map.of(table, new StoredVersion(++version, Instant.EPOCH)));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.petstore.backend.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.petstore.backend.PetstoreFeature5BackendApplication;
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+import com.petstore.backend.service.ProductExportService;
+import com.petstore.backend.service.ProductImportService;
+import com.petstore.backend.service.ProductService;
+
+/**
+ * Carga de {@code rows} productos nuevos: un {@code ProductService.save} por fila
+ * (el camino del endpoint REST) frente a la importación masiva con lotes JDBC.
+ *
+ * Levanta la aplicación con el perfil {@code test} (H2 en memoria); cada operación
+ * es una carga completa, así que las filas por segundo son {@code rows / tiempo}.
+ * Contra Postgres se puede apuntar {@code spring.datasource.url} a otra base con
+ * {@code -Djmh.args="-jvmArgs -Dspring.datasource.url=..."}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProductImportBenchmark {
+
+    @Param({"1000", "2000", "10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductImportService productImportService;
+    private ProductRepository productRepository;
+    private Category category;
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        SpringApplication application = new SpringApplication(PetstoreFeature5BackendApplication.class);
+        context = application.run("--spring.profiles.active=test", "--server.port=0", "--logging.level.root=WARN");
+        productService = context.getBean(ProductService.class);
+        productImportService = context.getBean(ProductImportService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        category = context.getBean(CategoryRepository.class).save(new Category("Benchmark", null));
+        csv = IntStream.range(0, rows)
+                .mapToObj(i -> (100_000 + i) + ",Producto " + i + "," + (1.0 + i) + "," + category.getCategoryId())
+                .collect(Collectors.joining("\n", "sku,productName,basePrice,categoryId\n", "\n"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearProducts() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long perRowSave() {
+        for (int i = 0; i < rows; i++) {
+            productService.save(new Product("Producto " + i, 1.0 + i, 100_000 + i, category));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public long bulkImport() throws Exception {
+        return productImportService.importProducts(ProductExportService.Format.CSV, new ByteArrayInputStream(csv)).imported();
+    }
+}
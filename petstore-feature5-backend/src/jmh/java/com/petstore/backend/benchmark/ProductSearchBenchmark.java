@@ -0,0 +1,100 @@
+package com.petstore.backend.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.service.ProductSearchIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Latencia del índice de búsqueda de productos con {@code size} productos.
+ *
+ * En modo SampleTime JMH informa percentiles (p0.99 incluido) por tipo de consulta:
+ * término exacto, prefijo de autocompletado, término con errores y varios términos
+ * con filtros de categoría y precio. Mide solo el índice; cargar los productos por
+ * ID es una consulta por clave primaria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ProductSearchBenchmark {
+
+    private static final String[] KINDS = {
+            "collar", "correa", "cama", "comedero", "bebedero", "juguete", "pelota", "rascador",
+            "transportadora", "arnés", "alimento", "snack", "champú", "cepillo", "jaula", "pecera"
+    };
+    private static final String[] TRAITS = {
+            "ajustable", "reflectivo", "ortopédica", "antideslizante", "grande", "mediano", "pequeño",
+            "premium", "natural", "hipoalergénico", "interactivo", "plegable", "acolchado", "resistente"
+    };
+    private static final String[] ANIMALS = {"perro", "gato", "cachorro", "gatito", "ave", "pez", "hámster", "conejo"};
+
+    @Param({"1000000"})
+    public int size;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new ProductSearchIndex(null, null, null, new SimpleMeterRegistry());
+        List<Category> categories = BenchmarkData.categories();
+        List<Product> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < size; i++) {
+            String name = KINDS[i % KINDS.length] + " " + TRAITS[(i / KINDS.length) % TRAITS.length] + " para "
+                    + ANIMALS[(i / 7) % ANIMALS.length] + " modelo " + i;
+            Product product = new Product(name, 5.0 + (i % 300), i + 1, categories.get(i % BenchmarkData.CATEGORIES));
+            product.setProductId(i + 1);
+            batch.add(product);
+            if (batch.size() == 10_000) {
+                index.updateAll(batch);
+                batch.clear();
+            }
+        }
+        index.updateAll(batch);
+    }
+
+    @TearDown
+    public void tearDown() {
+        index.close();
+    }
+
+    @Benchmark
+    public List<Integer> exactTerm() {
+        return index.search(new ProductSearchIndex.Criteria("rascador", null, null, null, ProductSearchIndex.DEFAULT_LIMIT));
+    }
+
+    @Benchmark
+    public List<Integer> prefix() {
+        return index.search(new ProductSearchIndex.Criteria("transp", null, null, null, ProductSearchIndex.DEFAULT_LIMIT));
+    }
+
+    @Benchmark
+    public List<Integer> fuzzy() {
+        return index.search(new ProductSearchIndex.Criteria("comedreo", null, null, null, ProductSearchIndex.DEFAULT_LIMIT));
+    }
+
+    @Benchmark
+    public List<Integer> termsWithFilters() {
+        return index.search(new ProductSearchIndex.Criteria("cama ortopedica perro", 3, 20.0, 120.0, ProductSearchIndex.DEFAULT_LIMIT));
+    }
+}
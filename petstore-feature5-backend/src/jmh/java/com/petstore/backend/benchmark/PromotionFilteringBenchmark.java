@@ -0,0 +1,76 @@
+package com.petstore.backend.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.service.ActivePromotionIndex;
+import com.petstore.backend.service.PromotionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Filtrado por fecha de las promociones activas.
+ *
+ * {@code rebuildIndex} mide el agrupado que hace el índice en memoria al
+ * reconstruirse (el filtrado por fecha ya lo resuelve la consulta, aquí simulada);
+ * {@code readActive*} mide las lecturas de PromotionService servidas desde el
+ * índice ya construido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromotionFilteringBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int size;
+
+    private ActivePromotionIndex index;
+    private PromotionService promotionService;
+
+    @Setup
+    public void setUp() {
+        PromotionRepository promotionRepository = mock(PromotionRepository.class);
+        when(promotionRepository.findActivePromotionsWithRelations(any(LocalDate.class))).thenReturn(BenchmarkData.promotions(size));
+        index = new ActivePromotionIndex(promotionRepository, new SimpleMeterRegistry());
+        index.refresh();
+        promotionService = new PromotionService(promotionRepository, null, null, null, index, null);
+    }
+
+    @Benchmark
+    public int rebuildIndex() {
+        index.refresh();
+        return index.size();
+    }
+
+    @Benchmark
+    public List<Promotion> readActiveEntities() {
+        return promotionService.getAllActivePromotionsEntities();
+    }
+
+    @Benchmark
+    public int readActiveDTOs() {
+        return promotionService.getAllActivePromotions().size();
+    }
+}
@@ -0,0 +1,19 @@
+package com.petstore.backend.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Habilita la caché de Spring (@Cacheable). El proveedor es Caffeine y los
+ * tamaños/TTL se definen en spring.cache.* de application.properties; las
+ * métricas (cache.gets, cache.evictions, cache.size) se publican en /actuator/metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * email → autoridades del usuario autenticado, usada por JwtAuthenticationFilter
+     */
+    public static final String USER_PRINCIPALS = "userPrincipals";
+}
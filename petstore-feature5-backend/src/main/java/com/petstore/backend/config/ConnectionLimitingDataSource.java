@@ -0,0 +1,142 @@
+package com.petstore.backend.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+
+/**
+ * DataSource que limita las conexiones en uso con un semáforo justo del mismo
+ * tamaño que el pool.
+ *
+ * Con hilos virtuales puede haber miles de peticiones concurrentes frente a un
+ * pool de pocas conexiones: el semáforo las encola en orden de llegada antes de
+ * tocar el pool y corta la espera con el timeout de conexión de Hikari. Ese
+ * timeout cubre la espera completa: a Hikari solo se le da el tiempo que queda
+ * tras el semáforo, y no su {@code connectionTimeout} entero otra vez. El
+ * permiso se libera al cerrar la conexión (devolverla al pool).
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxConnections;
+    private final long acquireTimeoutMillis;
+
+    public ConnectionLimitingDataSource(DataSource target, int maxConnections, long acquireTimeoutMillis) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxConnections = maxConnections;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        acquire();
+        try {
+            return releasingOnClose(connectBefore(deadline));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Número máximo de conexiones en uso a la vez
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Permisos libres en este momento
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Hilos esperando un permiso (estimación)
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "No hay conexiones disponibles tras " + acquireTimeoutMillis + " ms (máximo " + maxConnections + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando una conexión", e);
+        }
+    }
+
+    /**
+     * Pide la conexión al pool con el tiempo que queda hasta {@code deadline}.
+     * Sin pool de Hikari (o antes de que arranque) se usa el timeout del propio DataSource.
+     */
+    private Connection connectBefore(long deadline) throws SQLException {
+        if (obtainTargetDataSource() instanceof HikariDataSource hikari
+                && hikari.getHikariPoolMXBean() instanceof HikariPool pool) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            return pool.getConnection(Math.max(remainingMillis, 0));
+        }
+        return super.getConnection();
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            yield invoke(connection, method, args);
+                        } finally {
+                            // close() puede llamarse más de una vez: el permiso se devuelve solo una
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                    }
+                    default -> invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.petstore.backend.config;
 
 import com.petstore.backend.service.AuthService;
 import com.petstore.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,15 +41,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             token = authHeader.substring(7);
-            if (jwtUtil.validateToken(token)) {
-                email = jwtUtil.extractEmail(token);
-            }
+            // Una sola verificación de firma (o ninguna si el token ya está en caché)
+            email = jwtUtil.parseClaims(token).map(Claims::getSubject).orElse(null);
         }
 
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                // Usar el método loadUserByUsername que ya existe en AuthService
-                var userDetails = authService.loadUserByUsername(email);
+                // Principal cacheado por email: sin consulta a la base de datos en cada petición
+                var userDetails = authService.loadPrincipal(email);
                 var authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,42 @@
+package com.petstore.backend.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.service.ActivePromotionIndex;
+
+/**
+ * Endpoint de Actuator para inspeccionar y forzar la reconstrucción del índice de promociones activas
+ * GET  /actuator/promotionindex - Estado del índice
+ * POST /actuator/promotionindex - Reconstrucción forzada
+ */
+@Component
+@Endpoint(id = "promotionindex")
+public class PromotionIndexEndpoint {
+
+    private final ActivePromotionIndex activePromotionIndex;
+
+    public PromotionIndexEndpoint(ActivePromotionIndex activePromotionIndex) {
+        this.activePromotionIndex = activePromotionIndex;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("size", activePromotionIndex.size());
+        status.put("builtAt", activePromotionIndex.builtAt());
+        status.put("stalenessSeconds", activePromotionIndex.staleness().toSeconds());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> refresh() {
+        activePromotionIndex.refresh();
+        return status();
+    }
+}
@@ -0,0 +1,73 @@
+package com.petstore.backend.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Envía las transacciones de solo lectura a réplicas de la base de datos cuando
+ * se configuran sus URLs en replica.datasource.urls (ver {@link ReplicaDataSources}).
+ * Sin réplicas no se registra nada y todo sigue yendo al primario.
+ */
+@Configuration
+@ConditionalOnExpression("!'${replica.datasource.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean
+    ReplicaDataSources replicaDataSources(@Value("${replica.datasource.urls}") List<String> urls,
+                                          @Value("${replica.datasource.username:}") String username,
+                                          @Value("${replica.datasource.password:}") String password,
+                                          @Value("${replica.datasource.max-lag:5s}") Duration maxLag,
+                                          @Value("${replica.datasource.lag-query:}") String lagQuery) {
+        return new ReplicaDataSources(urls, username, password, maxLag, lagQuery);
+    }
+
+    /**
+     * Sustituye el DataSource de Hikari (ya limitado por VirtualThreadConfig, si aplica)
+     * por el que reparte las conexiones entre primario y réplicas
+     */
+    @Bean
+    static BeanPostProcessor readWriteRoutingPostProcessor(ObjectProvider<ReplicaDataSources> replicaDataSources) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ReplicaDataSources) {
+                    return bean;
+                }
+                try {
+                    if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                        return bean;
+                    }
+                    return replicaDataSources.getObject().routing(dataSource);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("No se pudieron crear los pools de las réplicas", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Hibernate devuelve la conexión al terminar cada transacción en lugar de al cerrar
+     * la sesión. Con open-in-view la sesión dura toda la petición, y sin esto una
+     * escritura posterior a una lectura reutilizaría la conexión de la réplica.
+     */
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
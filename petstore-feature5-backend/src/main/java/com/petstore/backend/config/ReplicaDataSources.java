@@ -0,0 +1,286 @@
+package com.petstore.backend.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.petstore.backend.service.CatalogVersions;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Réplicas de lectura de la base de datos, cada una con su propio pool de Hikari
+ * (mismos ajustes que el primario, solo lectura, nombres replica-1, replica-2...).
+ *
+ * {@link #routing(DataSource)} envuelve el DataSource primario: las transacciones
+ * {@code readOnly} obtienen su conexión de una réplica por turnos y el resto (las
+ * escrituras, Flyway, las lecturas fuera de transacción) del primario.
+ *
+ * Una réplica solo recibe lecturas si su retraso medido con {@code lag-query} no
+ * supera {@code max-lag} y si ya ha aplicado las versiones del catálogo que publica
+ * esta instancia ({@link CatalogVersions}), también las escritas por otras
+ * instancias: así un ETag nuevo nunca acompaña a datos anteriores a él, ni en la
+ * respuesta ni en la caché de vistas. Hasta la siguiente medición que lo confirme,
+ * las lecturas van al primario. Además, durante {@code max-lag} tras confirmar una
+ * escritura en esta instancia todas las lecturas van al primario.
+ */
+public class ReplicaDataSources implements MeterBinder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSources.class);
+
+    /**
+     * Segundos de retraso de una réplica de PostgreSQL; 0 si ya aplicó todo lo recibido
+     */
+    static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    /**
+     * Versiones del catálogo que ya ha aplicado una réplica (ver CatalogVersionStore)
+     */
+    static final String APPLIED_VERSIONS_QUERY = "SELECT table_name, version FROM public.catalog_versions";
+
+    private static final class Replica {
+        final String name;
+        final HikariDataSource pool;
+        final DataSource dataSource;
+        volatile double lagSeconds = Double.NaN;
+        volatile Map<String, Long> appliedVersions = Map.of();
+        // Sin disponibilidad hasta la primera medición del retraso
+        volatile boolean available;
+
+        Replica(String name, HikariDataSource pool, DataSource dataSource) {
+            this.name = name;
+            this.pool = pool;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final List<String> urls;
+    private final String username;
+    private final String password;
+    private final long maxLagNanos;
+    private final String lagQuery;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong recentWriteFallbacks = new AtomicLong();
+    private final AtomicLong unavailableFallbacks = new AtomicLong();
+    private final AtomicLong catalogVersionFallbacks = new AtomicLong();
+    // Versiones del catálogo publicadas por esta instancia, por tabla
+    private final Map<String, Long> requiredVersions = new ConcurrentHashMap<>();
+    private volatile long lastWriteNanos;
+
+    public ReplicaDataSources(List<String> urls, String username, String password, Duration maxLag, String lagQuery) {
+        this.urls = List.copyOf(urls);
+        this.username = username;
+        this.password = password;
+        this.maxLagNanos = maxLag.toNanos();
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? POSTGRES_LAG_QUERY : lagQuery;
+        this.lastWriteNanos = System.nanoTime() - maxLagNanos;
+    }
+
+    /**
+     * Crea los pools de las réplicas a partir del primario y devuelve el DataSource
+     * que reparte las conexiones entre ambos. Se llama una sola vez, al crear el
+     * DataSource de la aplicación.
+     */
+    DataSource routing(DataSource primary) throws SQLException {
+        HikariDataSource primaryPool = primary.unwrap(HikariDataSource.class);
+        boolean limited = primary.isWrapperFor(ConnectionLimitingDataSource.class);
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            primaryPool.copyStateTo(config);
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.trim());
+            if (username != null && !username.isBlank()) {
+                config.setUsername(username);
+                config.setPassword(password);
+            }
+            config.setReadOnly(true);
+            // Una réplica caída no impide arrancar: queda sin disponibilidad hasta que responda
+            config.setInitializationFailTimeout(-1);
+            HikariDataSource pool = new HikariDataSource(config);
+            DataSource dataSource = limited
+                    ? new ConnectionLimitingDataSource(pool, pool.getMaximumPoolSize(), pool.getConnectionTimeout())
+                    : pool;
+            replicas.add(new Replica(config.getPoolName(), pool, dataSource));
+        }
+        // El proxy perezoso retrasa la conexión física hasta la primera sentencia, cuando
+        // ya se sabe si la transacción es de solo lectura
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary));
+    }
+
+    /**
+     * Mide el retraso de cada réplica y decide cuáles pueden recibir lecturas
+     */
+    @Scheduled(fixedDelayString = "${replica.datasource.lag-check-interval:5s}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.available;
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(lagQuery)) {
+                double lag = result.next() ? result.getDouble(1) : Double.NaN;
+                replica.appliedVersions = appliedVersions(statement);
+                replica.lagSeconds = lag;
+                replica.available = lag * 1_000_000_000L <= maxLagNanos;
+                if (wasAvailable && !replica.available) {
+                    log.warn("Réplica {} retrasada {} s: las lecturas van al primario", replica.name, lag);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                replica.available = false;
+                if (wasAvailable) {
+                    log.warn("Réplica {} no disponible: {}", replica.name, e.getMessage());
+                }
+            }
+            if (!wasAvailable && replica.available) {
+                log.info("Réplica {} disponible (retraso {} s)", replica.name, replica.lagSeconds);
+            }
+        }
+    }
+
+    private static Map<String, Long> appliedVersions(Statement statement) throws SQLException {
+        Map<String, Long> versions = new HashMap<>();
+        try (ResultSet result = statement.executeQuery(APPLIED_VERSIONS_QUERY)) {
+            while (result.next()) {
+                versions.put(result.getString(1), result.getLong(2));
+            }
+        }
+        return Map.copyOf(versions);
+    }
+
+    /**
+     * Las versiones nuevas del catálogo se exigen a las réplicas antes de publicarse,
+     * así que ninguna lectura con el ETag nuevo llega a una réplica que no las tenga
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogAdvanced(CatalogVersions.Advanced advanced) {
+        advanced.versions().forEach((table, version) -> requiredVersions.merge(table.name(), version, Math::max));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            replica.pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            Gauge.builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Retraso de la réplica respecto al primario en la última medición")
+                    .baseUnit("seconds")
+                    .tag("pool", replica.name)
+                    .register(registry);
+            Gauge.builder("db.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("1 si la réplica recibe lecturas, 0 si está retrasada o caída")
+                    .tag("pool", replica.name)
+                    .register(registry);
+        }
+        FunctionCounter.builder("db.replica.fallbacks", recentWriteFallbacks, AtomicLong::get)
+                .description("Transacciones de solo lectura enviadas al primario")
+                .tag("reason", "recent-write")
+                .register(registry);
+        FunctionCounter.builder("db.replica.fallbacks", unavailableFallbacks, AtomicLong::get)
+                .description("Transacciones de solo lectura enviadas al primario")
+                .tag("reason", "unavailable")
+                .register(registry);
+        FunctionCounter.builder("db.replica.fallbacks", catalogVersionFallbacks, AtomicLong::get)
+                .description("Transacciones de solo lectura enviadas al primario")
+                .tag("reason", "catalog-version")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /**
+     * Réplica para la siguiente lectura, o {@code null} si debe ir al primario
+     */
+    private DataSource readReplica() {
+        if (System.nanoTime() - lastWriteNanos < maxLagNanos) {
+            recentWriteFallbacks.incrementAndGet();
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        boolean anyAvailable = false;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                if (hasApplied(replica)) {
+                    return replica.dataSource;
+                }
+                anyAvailable = true;
+            }
+        }
+        (anyAvailable ? catalogVersionFallbacks : unavailableFallbacks).incrementAndGet();
+        return null;
+    }
+
+    private boolean hasApplied(Replica replica) {
+        Map<String, Long> applied = replica.appliedVersions;
+        for (Map.Entry<String, Long> required : requiredVersions.entrySet()) {
+            if (applied.getOrDefault(required.getKey(), 0L) < required.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Elige el destino de cada conexión física según la transacción en curso. Delega
+     * en el primario todo lo demás (metadatos, unwrap para las métricas del pool).
+     */
+    private final class ReadWriteRoutingDataSource extends DelegatingDataSource {
+
+        ReadWriteRoutingDataSource(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                DataSource replica = readReplica();
+                if (replica != null) {
+                    return replica.getConnection();
+                }
+            } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lastWriteNanos = System.nanoTime();
+                    }
+                });
+            }
+            return super.getConnection();
+        }
+    }
+}
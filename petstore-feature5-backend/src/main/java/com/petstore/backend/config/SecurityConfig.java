@@ -6,13 +6,18 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.writers.CacheControlHeadersWriter;
+import org.springframework.security.web.header.writers.DelegatingRequestMatcherHeaderWriter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 @Configuration(proxyBeanMethods = false)
@@ -55,6 +60,11 @@ public class SecurityConfig {
                     .httpStrictTransportSecurity(hstsConfig -> hstsConfig
                         .maxAgeInSeconds(31536000)
                         .includeSubDomains(true))
+                    // GET /graphql (persisted queries) define su propio Cache-Control
+                    .cacheControl(cacheControl -> cacheControl.disable())
+                    .addHeaderWriter(new DelegatingRequestMatcherHeaderWriter(
+                        new NegatedRequestMatcher(PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.GET, "/graphql")),
+                        new CacheControlHeadersWriter()))
                 )
                 
                 // Configurar gestión de sesiones (stateless para API)
@@ -120,11 +130,11 @@ public class SecurityConfig {
                     }
                     
                     // Promociones siempre requieren autenticación (excepto algunas lecturas públicas)
-                    authz.requestMatchers("GET", "/api/promotions", "/api/promotions/status").permitAll(); // Lectura pública
+                    authz.requestMatchers("GET", "/api/promotions", "/api/promotions/summary", "/api/promotions/status").permitAll(); // Lectura pública
                     authz.requestMatchers("/api/promotions/**").authenticated(); // El resto requiere auth
                     
                     // Categorías: permitir lectura, auth para modificaciones
-                    authz.requestMatchers("GET", "/api/categories", "/api/categories/*", "/api/categories/info").permitAll();
+                    authz.requestMatchers("GET", "/api/categories", "/api/categories/*", "/api/categories/info", "/api/categories/*/stats").permitAll();
                     authz.requestMatchers("/api/categories/**").authenticated();
                     
                     // Perfil de usuario siempre requiere autenticación
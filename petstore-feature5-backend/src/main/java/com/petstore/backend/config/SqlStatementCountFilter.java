@@ -0,0 +1,80 @@
+package com.petstore.backend.config;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Registra cuántas sentencias SQL ejecuta cada petición HTTP en la métrica
+ * {@code http.server.sql.statements}, con las mismas etiquetas {@code method} y
+ * {@code uri} (patrón de la ruta, no la URL) que {@code http.server.requests}.
+ *
+ * Va antes que la seguridad para incluir la carga del usuario del token. Las
+ * respuestas asíncronas (GraphQL, exportación) se registran al terminar el último
+ * despacho; el contador llega a los hilos del ejecutor de la aplicación, donde se
+ * escribe la exportación, por {@link TaskExecutionConfig}. Publica un histograma
+ * para que los percentiles se agreguen entre instancias en Prometheus.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "http.server.sql.statements";
+
+    private static final String COUNT_ATTRIBUTE = SqlStatementCountFilter.class.getName() + ".COUNT";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementCountFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AtomicInteger statements = (AtomicInteger) request.getAttribute(COUNT_ATTRIBUTE);
+        if (statements == null) {
+            statements = new AtomicInteger();
+            request.setAttribute(COUNT_ATTRIBUTE, statements);
+        }
+        AtomicInteger previous = SqlStatementCounter.bind(statements);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.restore(previous);
+            if (!isAsyncStarted(request)) {
+                record(request, statements.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRIC)
+                .description("Sentencias SQL ejecutadas por petición HTTP")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : UNKNOWN_URI)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statements);
+    }
+}
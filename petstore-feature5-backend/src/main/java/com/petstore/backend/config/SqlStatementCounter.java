@@ -0,0 +1,53 @@
+package com.petstore.backend.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import io.micrometer.context.ContextRegistry;
+
+/**
+ * StatementInspector de Hibernate que cuenta las sentencias SQL preparadas durante
+ * la petición HTTP en curso ({@link SqlStatementCountFilter}).
+ *
+ * El contador vive en un ThreadLocal registrado en {@link ContextRegistry}, así que
+ * Spring GraphQL lo propaga a los data fetchers y DataLoaders que se ejecutan en
+ * otros hilos. Fuera de una petición (tareas programadas, arranque) no cuenta nada.
+ * Se configura en {@code hibernate.session_factory.statement_inspector}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    static final String CONTEXT_KEY = "petstore.sql.statements";
+
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(CONTEXT_KEY, CURRENT);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger statements = CURRENT.get();
+        if (statements != null) {
+            statements.incrementAndGet();
+        }
+        return sql;
+    }
+
+    /**
+     * Asocia el contador al hilo actual y devuelve el que había, para restaurarlo después
+     */
+    static AtomicInteger bind(AtomicInteger statements) {
+        AtomicInteger previous = CURRENT.get();
+        CURRENT.set(statements);
+        return previous;
+    }
+
+    static void restore(AtomicInteger previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.petstore.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+
+/**
+ * Propaga a las tareas del ejecutor de la aplicación ({@code applicationTaskExecutor})
+ * los ThreadLocal registrados en {@code ContextRegistry}, como el contador de
+ * {@link SqlStatementCounter}. Spring MVC escribe en ese ejecutor las respuestas
+ * {@code StreamingResponseBody} (exportación del catálogo), y la importación masiva
+ * escribe en él sus lotes; así sus sentencias cuentan en la petición que las originó.
+ */
+@Configuration
+public class TaskExecutionConfig {
+
+    // Spring Boot aplica el TaskDecorator único del contexto al ejecutor de la aplicación
+    @Bean
+    TaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+}
@@ -0,0 +1,52 @@
+package com.petstore.backend.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de User y Role: invalida la caché de principales cuando cambia
+ * un usuario o un rol. Se vacía la caché completa porque un cambio de rol afecta
+ * a todos sus usuarios y un cambio de email deja huérfana la clave anterior.
+ *
+ * Si hay una transacción activa, la invalidación se hace tras el commit para que
+ * ninguna petición concurrente vuelva a cachear los datos anteriores.
+ */
+@Component
+public class UserPrincipalCacheListener {
+
+    private final CacheManager cacheManager;
+
+    public UserPrincipalCacheListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAll();
+                }
+            });
+        } else {
+            evictAll();
+        }
+    }
+
+    private void evictAll() {
+        Cache cache = cacheManager.getCache(CacheConfig.USER_PRINCIPALS);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
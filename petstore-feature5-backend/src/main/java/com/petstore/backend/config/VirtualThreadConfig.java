@@ -0,0 +1,81 @@
+package com.petstore.backend.config;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Ajustes para el modo de hilos virtuales (spring.threads.virtual.enabled=true).
+ *
+ * Tomcat, GraphQL y las tareas programadas pasan a hilos virtuales por la
+ * autoconfiguración de Spring Boot; aquí se limita el acceso al pool de Hikari
+ * con {@link ConnectionLimitingDataSource} y se publican sus métricas.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    // Valor por defecto de maximumPoolSize en HikariCP cuando no se configura
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    // El tipo concreto permite a Spring ver que es Ordered antes de crearlo
+    @Bean
+    static ConnectionLimitingPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new ConnectionLimitingPostProcessor();
+    }
+
+    @Bean
+    MeterBinder connectionPermitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limited;
+            try {
+                // Con réplicas (ReadReplicaConfig) el DataSource del primario va envuelto
+                if (!dataSource.isWrapperFor(ConnectionLimitingDataSource.class)) {
+                    return;
+                }
+                limited = dataSource.unwrap(ConnectionLimitingDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("jdbc.connections.permits.available", limited, ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Permisos libres para obtener una conexión del pool")
+                    .register(registry);
+            Gauge.builder("jdbc.connections.permits.waiting", limited, ConnectionLimitingDataSource::getQueueLength)
+                    .description("Hilos esperando un permiso para obtener una conexión")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Se ordena antes que el resto de post-procesadores para que el que añade las
+     * réplicas de lectura envuelva el DataSource ya limitado
+     */
+    static final class ConnectionLimitingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                int poolSize = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+                return new ConnectionLimitingDataSource(hikari, poolSize, hikari.getConnectionTimeout());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
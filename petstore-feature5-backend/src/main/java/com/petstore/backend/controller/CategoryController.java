@@ -1,12 +1,16 @@
 package com.petstore.backend.controller;
 
 import com.petstore.backend.dto.CategoryDTO;
+import com.petstore.backend.dto.CategoryStatsDTO;
 import com.petstore.backend.entity.Category;
+import com.petstore.backend.service.CatalogVersions;
 import com.petstore.backend.service.CategoryService;
+import com.petstore.backend.service.CategoryStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +21,7 @@ import java.util.stream.Collectors;
  * Endpoints disponibles:
  * - GET /api/categories - Obtener todas las categorías
  * - GET /api/categories/{id} - Obtener categoría por ID
+ * - GET /api/categories/{id}/stats - Estadísticas de la categoría
  * - POST /api/categories - Crear nueva categoría
  * - PUT /api/categories/{id} - Actualizar categoría
  * - DELETE /api/categories/{id} - Eliminar categoría
@@ -29,19 +34,29 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     /**
      * GET /api/categories
      * Obtiene todas las categorías disponibles
      */
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest request) {
+        CatalogVersions.Snapshot version = catalogVersions.snapshot(CatalogVersions.Table.CATEGORIES);
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
             List<Category> categories = categoryService.findAll();
             List<CategoryDTO> categoryDTOs = categories.stream()
                     .map(this::convertToDTO)
                     .collect(Collectors.toList());
             
-            return ResponseEntity.ok(categoryDTOs);
+            return ConditionalGet.ok(version).body(categoryDTOs);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -52,13 +67,17 @@ public class CategoryController {
      * Obtiene una categoría específica por ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Integer id) {
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Integer id, WebRequest request) {
+        CatalogVersions.Snapshot version = catalogVersions.snapshot(CatalogVersions.Table.CATEGORIES);
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
             Optional<Category> categoryOpt = categoryService.findById(id);
             
             if (categoryOpt.isPresent()) {
                 CategoryDTO categoryDTO = convertToDTO(categoryOpt.get());
-                return ResponseEntity.ok(categoryDTO);
+                return ConditionalGet.ok(version).body(categoryDTO);
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -67,6 +86,27 @@ public class CategoryController {
         }
     }
 
+    /**
+     * GET /api/categories/{id}/stats
+     * Número de productos, precios mínimo, máximo y medio y promociones activas,
+     * precalculados (no recorre los productos de la categoría)
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<CategoryStatsDTO> getCategoryStats(@PathVariable Integer id, WebRequest request) {
+        CatalogVersions.Snapshot version = catalogVersions.snapshot(
+                CatalogVersions.Table.CATEGORIES, CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.PROMOTIONS);
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
+        try {
+            return categoryStatsService.getStats(id)
+                    .map(stats -> ConditionalGet.ok(version).body(stats))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * POST /api/categories
      * Crea una nueva categoría
@@ -141,6 +181,7 @@ public class CategoryController {
                 Endpoints disponibles para Categories:
                 - GET /api/categories - Todas las categorías
                 - GET /api/categories/{id} - Categoría por ID
+                - GET /api/categories/{id}/stats - Estadísticas de la categoría
                 - POST /api/categories - Crear categoría
                 - PUT /api/categories/{id} - Actualizar categoría
                 - DELETE /api/categories/{id} - Eliminar categoría
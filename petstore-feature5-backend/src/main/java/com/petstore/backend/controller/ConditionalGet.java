@@ -0,0 +1,50 @@
+package com.petstore.backend.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.petstore.backend.service.CatalogVersions;
+
+/**
+ * Utilidades para los GET condicionales de los endpoints del catálogo.
+ * El ETag sale de {@link CatalogVersions}, así que {@code If-None-Match} se
+ * resuelve con un 304 antes de llamar a cualquier repositorio. Las respuestas se
+ * pueden guardar en CDNs y navegadores, pero siempre se revalidan.
+ */
+final class ConditionalGet {
+
+    static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Evalúa If-None-Match / If-Modified-Since contra la versión actual
+     */
+    static boolean isNotModified(WebRequest request, CatalogVersions.Snapshot snapshot) {
+        return request.checkNotModified(snapshot.etag(), snapshot.lastModified().toEpochMilli());
+    }
+
+    /**
+     * Respuesta 304 con las cabeceras de validación
+     */
+    static <T> ResponseEntity<T> notModified(CatalogVersions.Snapshot snapshot) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(snapshot.etag())
+                .lastModified(snapshot.lastModified())
+                .cacheControl(CACHE_CONTROL)
+                .build();
+    }
+
+    /**
+     * Respuesta 200 con ETag, Last-Modified y Cache-Control
+     */
+    static ResponseEntity.BodyBuilder ok(CatalogVersions.Snapshot snapshot) {
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .lastModified(snapshot.lastModified())
+                .cacheControl(CACHE_CONTROL);
+    }
+}
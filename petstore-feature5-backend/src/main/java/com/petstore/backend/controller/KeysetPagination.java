@@ -0,0 +1,55 @@
+package com.petstore.backend.controller;
+
+import java.util.Map;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Utilidades para la paginación por cursor (keyset) de los endpoints REST.
+ * El cursor {@code after} es el último ID devuelto en la página anterior,
+ * de modo que cada página se resuelve con un {@code WHERE id > :after ... LIMIT n}.
+ */
+final class KeysetPagination {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Normaliza el tamaño de página solicitado al rango [1, MAX_LIMIT]
+     */
+    static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Construye la posición keyset a partir del último ID visto
+     */
+    static ScrollPosition positionAfter(String idProperty, Integer after) {
+        if (after == null) {
+            return ScrollPosition.keyset();
+        }
+        return ScrollPosition.forward(Map.of(idProperty, after));
+    }
+
+    /**
+     * Cabecera Link (RFC 8288) con la URL de la página siguiente
+     */
+    static HttpHeaders nextLink(int limit, Integer lastId) {
+        HttpHeaders headers = new HttpHeaders();
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("limit", limit)
+                .replaceQueryParam("after", lastId)
+                .build()
+                .toUriString();
+        headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        return headers;
+    }
+}
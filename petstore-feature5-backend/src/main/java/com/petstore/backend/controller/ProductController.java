@@ -3,14 +3,20 @@ package com.petstore.backend.controller;
 import com.petstore.backend.dto.CategoryDTO;
 import com.petstore.backend.dto.ProductDTO;
 import com.petstore.backend.entity.Product;
+import com.petstore.backend.service.CatalogVersions;
+import com.petstore.backend.service.PricingService;
+import com.petstore.backend.service.ProductSearchIndex;
 import com.petstore.backend.service.ProductService;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
@@ -18,23 +24,42 @@ import java.util.Optional;
 public class ProductController {
 
     private final ProductService productService;
+    private final PricingService pricingService;
+    private final CatalogVersions catalogVersions;
+    private final ProductViewCache productViewCache;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, PricingService pricingService,
+                             CatalogVersions catalogVersions, ProductViewCache productViewCache) {
         this.productService = productService;
+        this.pricingService = pricingService;
+        this.catalogVersions = catalogVersions;
+        this.productViewCache = productViewCache;
     }
 
     /**
-     * GET /api/products
-     * Lista todos los productos disponibles usando MapStruct
+     * GET /api/products?limit=&after=
+     * Lista los productos paginados por cursor (keyset sobre product_id).
+     * La URL de la página siguiente se devuelve en la cabecera Link.
      */
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
+    public ResponseEntity<List<ProductDTO>> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer after,
+            WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
-            List<Product> products = productService.findAll();
-            List<ProductDTO> productDTOs = products.stream()
-                    .map(this::convertToDTO)
-                    .toList();
-            return ResponseEntity.ok(productDTOs);
+            int pageSize = KeysetPagination.clampLimit(limit);
+            Window<Product> page = productService.findPage(
+                    KeysetPagination.positionAfter("productId", after), pageSize);
+            List<ProductDTO> productDTOs = convertToDTOs(page.getContent());
+            if (page.hasNext() && !page.isEmpty()) {
+                Integer lastId = page.getContent().get(page.size() - 1).getProductId();
+                return ConditionalGet.ok(version).headers(KeysetPagination.nextLink(pageSize, lastId)).body(productDTOs);
+            }
+            return ConditionalGet.ok(version).body(productDTOs);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -42,16 +67,19 @@ public class ProductController {
 
     /**
      * GET /api/products/category/{categoryId}
-     * Lista todos los productos de una categoría específica usando MapStruct
+     * Lista todos los productos de una categoría. El JSON se sirve desde
+     * {@link ProductViewCache} mientras no cambie la versión del catálogo.
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable Integer categoryId) {
+    public ResponseEntity<byte[]> getProductsByCategory(@PathVariable Integer categoryId, WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
-            List<Product> products = productService.findByCategoryId(categoryId);
-            List<ProductDTO> productDTOs = products.stream()
-                    .map(this::convertToDTO)
-                    .toList();
-            return ResponseEntity.ok(productDTOs);
+            byte[] json = productViewCache.get(ProductViewCache.View.CATEGORY_PRODUCTS, categoryId, version,
+                    () -> convertToDTOs(productService.findByCategoryId(categoryId)));
+            return ConditionalGet.ok(version).contentType(MediaType.APPLICATION_JSON).body(json);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -59,35 +87,55 @@ public class ProductController {
 
     /**
      * GET /api/products/{id}
-     * Obtiene un producto específico por su ID usando MapStruct
+     * Obtiene un producto por su ID, servido desde {@link ProductViewCache}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Integer id) {
+    public ResponseEntity<byte[]> getProductById(@PathVariable Integer id, WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
-            Optional<Product> product = productService.findById(id);
-            if (product.isPresent()) {
-                ProductDTO productDTO = convertToDTO(product.get());
-                return ResponseEntity.ok(productDTO);
-            } else {
+            byte[] json = productViewCache.get(ProductViewCache.View.PRODUCT, id, version,
+                    () -> productService.findById(id)
+                            .map(product -> convertToDTO(product, pricingService.effectivePrice(product)))
+                            .orElse(null));
+            if (json == null) {
                 return ResponseEntity.notFound().build();
             }
+            return ConditionalGet.ok(version).contentType(MediaType.APPLICATION_JSON).body(json);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     /**
-     * GET /api/products/search
-     * Busca productos por nombre (contiene el texto)
+     * GET /api/products/search?q=&categoryId=&minPrice=&maxPrice=&limit=
+     * Búsqueda de texto completo por nombre, ordenada por relevancia: admite prefijos
+     * (autocompletado) y errores de escritura. {@code name} se mantiene como alias de {@code q}.
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String name) {
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "" + ProductSearchIndex.DEFAULT_LIMIT) int limit,
+            WebRequest request) {
+        String text = q != null ? q : name;
+        if (text == null || text.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
-            List<Product> products = productService.findByNameContaining(name);
-            List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertToDTO)
-                .toList();
-            return ResponseEntity.ok(productDTOs);
+            List<Product> products = productService.search(
+                    new ProductSearchIndex.Criteria(text, categoryId, minPrice, maxPrice, limit));
+            List<ProductDTO> productDTOs = convertToDTOs(products);
+            return ConditionalGet.ok(version).body(productDTOs);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -100,22 +148,46 @@ public class ProductController {
     @GetMapping("/price-range")
     public ResponseEntity<List<ProductDTO>> getProductsByPriceRange(
             @RequestParam Double minPrice, 
-            @RequestParam Double maxPrice) {
+            @RequestParam Double maxPrice,
+            WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
             List<Product> products = productService.findByPriceBetween(minPrice, maxPrice);
-            List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertToDTO)
-                .toList();
-            return ResponseEntity.ok(productDTOs);
+            List<ProductDTO> productDTOs = convertToDTOs(products);
+            return ConditionalGet.ok(version).body(productDTOs);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Versión actual de lo que muestra un producto: el producto, su categoría y
+     * las promociones que fijan el precio efectivo. Se toma antes de leer los datos.
+     */
+    private CatalogVersions.Snapshot snapshot() {
+        return catalogVersions.snapshot(CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.CATEGORIES,
+                CatalogVersions.Table.PROMOTIONS);
+    }
+
+    /**
+     * Convierte una lista de productos calculando todos los precios efectivos en una sola pasada
+     */
+    private List<ProductDTO> convertToDTOs(List<Product> products) {
+        double[] effectivePrices = pricingService.effectivePrices(products);
+        List<ProductDTO> dtos = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            dtos.add(convertToDTO(products.get(i), effectivePrices[i]));
+        }
+        return dtos;
+    }
+
     /**
      * Convierte una entidad Product a ProductDTO
      */
-    private ProductDTO convertToDTO(Product product) {
+    private ProductDTO convertToDTO(Product product, double effectivePrice) {
         ProductDTO dto = new ProductDTO();
         dto.setProductId(product.getProductId());
         dto.setProductName(product.getProductName());
@@ -123,6 +195,7 @@ public class ProductController {
         dto.setDescription(product.getProductName());
         // Convertir Double a BigDecimal
         dto.setPrice(BigDecimal.valueOf(product.getBasePrice()));
+        dto.setEffectivePrice(BigDecimal.valueOf(effectivePrice));
         // La entidad Product no tiene stock, usar un valor por defecto o null
         dto.setStock(null);
         // La entidad Product no tiene imageUrl, se puede dejar null
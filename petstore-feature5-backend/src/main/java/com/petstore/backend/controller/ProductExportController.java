@@ -0,0 +1,105 @@
+package com.petstore.backend.controller;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.petstore.backend.service.ProductExportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Exportación del catálogo de productos para procesos de integración (feeds).
+ * La respuesta se escribe en streaming desde un cursor de la base de datos, con
+ * memoria constante sin importar el tamaño del catálogo.
+ *
+ * Cada exportación ocupa una conexión del pool mientras dura, así que se admiten
+ * como mucho {@code catalog.export.max-concurrent} a la vez (el resto recibe 429)
+ * y cada una tiene su propio tiempo máximo, {@code catalog.export.timeout}.
+ */
+@RestController
+@RequestMapping("/api/products/export")
+public class ProductExportController {
+
+    static final String RETRY_AFTER_SECONDS = "30";
+
+    private final ProductExportService productExportService;
+    private final Semaphore exportPermits;
+    private final Duration exportTimeout;
+
+    public ProductExportController(ProductExportService productExportService,
+                                   @Value("${catalog.export.max-concurrent:2}") int maxConcurrent,
+                                   @Value("${catalog.export.timeout:5m}") Duration exportTimeout) {
+        this.productExportService = productExportService;
+        this.exportPermits = new Semaphore(maxConcurrent);
+        this.exportTimeout = exportTimeout;
+    }
+
+    /**
+     * GET /api/products/export?format=ndjson|csv
+     * Todos los productos ordenados por ID, uno por línea (NDJSON por defecto)
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                                HttpServletRequest request) {
+        ProductExportService.Format exportFormat;
+        try {
+            exportFormat = ProductExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!exportPermits.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+
+        // El permiso lo devuelve la exportación al terminar, o la petición si acaba sin haberla empezado
+        AtomicBoolean started = new AtomicBoolean();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        asyncManager.registerCallableInterceptor(ProductExportController.class, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                if (started.compareAndSet(false, true)) {
+                    exportPermits.release();
+                }
+            }
+        });
+
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("products." + exportFormat.getExtension())
+                .build();
+        StreamingResponseBody body = out -> {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                productExportService.export(exportFormat, out);
+            } finally {
+                exportPermits.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+}
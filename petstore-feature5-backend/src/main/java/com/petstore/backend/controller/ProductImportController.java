@@ -0,0 +1,47 @@
+package com.petstore.backend.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.petstore.backend.service.ProductExportService;
+import com.petstore.backend.service.ProductImportService;
+
+/**
+ * Carga masiva de productos desde archivos de proveedores.
+ * El cuerpo de la petición es el archivo completo (CSV o NDJSON) y se procesa en
+ * streaming; la respuesta es un informe con los errores por fila.
+ */
+@RestController
+@RequestMapping("/api/products/import")
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+
+    public ProductImportController(ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    /**
+     * POST /api/products/import?format=csv|ndjson
+     * Crea o actualiza los productos por SKU (CSV por defecto)
+     */
+    @PostMapping
+    public ResponseEntity<ProductImportService.ImportReport> importProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body) throws IOException {
+        ProductExportService.Format importFormat;
+        try {
+            importFormat = ProductExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productImportService.importProducts(importFormat, body));
+    }
+}
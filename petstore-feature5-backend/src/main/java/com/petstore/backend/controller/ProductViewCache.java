@@ -0,0 +1,89 @@
+package com.petstore.backend.controller;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petstore.backend.service.CatalogVersions;
+
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Respuestas JSON del catálogo ya serializadas (un producto, los productos de una
+ * categoría), servidas tal cual como bytes sin volver a mapear ni serializar.
+ *
+ * Cada vista se guarda con el ETag de {@link CatalogVersions} con que se leyó. Las
+ * escrituras de productos, categorías y promociones (JPA, importación masiva,
+ * ciclo de vida de promociones) incrementan esa versión al confirmar, así que la
+ * siguiente petición ya no encuentra la vista antigua; al cambiar de versión se
+ * descartan todas. La caché se acota por tamaño en bytes.
+ */
+@Component
+public class ProductViewCache {
+
+    static final String CACHE_NAME = "catalog.views";
+
+    public enum View { PRODUCT, CATEGORY_PRODUCTS }
+
+    private record Key(View view, Object id, String etag) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, byte[]> views;
+    private volatile CatalogVersions.Snapshot current;
+
+    public ProductViewCache(ObjectMapper objectMapper,
+                            @Value("${catalog.view-cache.max-bytes:67108864}") long maxBytes,
+                            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.views = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, byte[] json) -> json.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, views, CACHE_NAME);
+    }
+
+    /**
+     * JSON de la vista para la versión dada. Si no está, {@code loader} obtiene el
+     * objeto a serializar; un {@code null} (p. ej. producto inexistente) no se guarda.
+     *
+     * @return el JSON, o {@code null} si el loader no devolvió nada
+     */
+    public byte[] get(View view, Object id, CatalogVersions.Snapshot version, Supplier<?> loader) {
+        CatalogVersions.Snapshot previous = current;
+        if (previous == null || !previous.etag().equals(version.etag())
+                && !version.lastModified().isBefore(previous.lastModified())) {
+            // Versión nueva del catálogo: las vistas anteriores ya no se van a pedir.
+            // Una petición que leyó una versión más antigua no borra las nuevas.
+            current = version;
+            views.invalidateAll();
+        }
+        Key key = new Key(view, id, version.etag());
+        byte[] json = views.getIfPresent(key);
+        if (json != null) {
+            return json;
+        }
+        Object value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        json = serialize(value);
+        views.put(key, json);
+        return json;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la vista del catálogo", e);
+        }
+    }
+}
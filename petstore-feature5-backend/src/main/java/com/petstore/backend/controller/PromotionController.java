@@ -3,14 +3,19 @@ package com.petstore.backend.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.petstore.backend.dto.PromotionDTO;
+import com.petstore.backend.repository.PromotionSummary;
+import com.petstore.backend.service.CatalogVersions;
 import com.petstore.backend.service.PromotionService;
 
 @RestController
@@ -21,29 +26,69 @@ public class PromotionController {
     @Autowired
     private PromotionService promotionService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     /**
      * Obtiene todas las promociones activas y vigentes
      * GET /api/promotions
      */
     @GetMapping
-    public ResponseEntity<List<PromotionDTO>> getAllActivePromotions() {
+    public ResponseEntity<List<PromotionDTO>> getAllActivePromotions(WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
             List<PromotionDTO> promotions = promotionService.getAllActivePromotions();
-            return ResponseEntity.ok(promotions);
+            return ConditionalGet.ok(version).body(promotions);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     /**
-     * Obtiene todas las promociones (para administración)
-     * GET /api/promotions/all
+     * Obtiene el resumen de las promociones activas y vigentes, opcionalmente de una categoría
+     * GET /api/promotions/summary?categoryId=
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<List<PromotionSummary>> getActivePromotionSummaries(
+            @RequestParam(required = false) Integer categoryId,
+            WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
+        try {
+            return ConditionalGet.ok(version).body(promotionService.getActivePromotionSummaries(categoryId));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Obtiene todas las promociones (para administración), paginadas por cursor
+     * GET /api/promotions/all?limit=&after=
      */
     @GetMapping("/all")
-    public ResponseEntity<List<PromotionDTO>> getAllPromotions() {
+    public ResponseEntity<List<PromotionDTO>> getAllPromotions(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer after,
+            WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
-            List<PromotionDTO> promotions = promotionService.getAllPromotions();
-            return ResponseEntity.ok(promotions);
+            int pageSize = KeysetPagination.clampLimit(limit);
+            Window<PromotionDTO> page = promotionService.getPromotionsPage(
+                    KeysetPagination.positionAfter("promotionId", after), pageSize);
+            List<PromotionDTO> promotions = page.getContent();
+            if (page.hasNext() && !page.isEmpty()) {
+                Integer lastId = promotions.get(promotions.size() - 1).getPromotionId();
+                return ConditionalGet.ok(version).headers(KeysetPagination.nextLink(pageSize, lastId)).body(promotions);
+            }
+            return ConditionalGet.ok(version).body(promotions);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -54,10 +99,14 @@ public class PromotionController {
      * GET /api/promotions/category/{categoryId}
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<PromotionDTO>> getPromotionsByCategory(@PathVariable Integer categoryId) {
+    public ResponseEntity<List<PromotionDTO>> getPromotionsByCategory(@PathVariable Integer categoryId, WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
             List<PromotionDTO> promotions = promotionService.getPromotionsByCategory(categoryId);
-            return ResponseEntity.ok(promotions);
+            return ConditionalGet.ok(version).body(promotions);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -68,15 +117,28 @@ public class PromotionController {
      * GET /api/promotions/valid
      */
     @GetMapping("/valid")
-    public ResponseEntity<List<PromotionDTO>> getValidPromotions() {
+    public ResponseEntity<List<PromotionDTO>> getValidPromotions(WebRequest request) {
+        CatalogVersions.Snapshot version = snapshot();
+        if (ConditionalGet.isNotModified(request, version)) {
+            return ConditionalGet.notModified(version);
+        }
         try {
             List<PromotionDTO> promotions = promotionService.getValidPromotions();
-            return ResponseEntity.ok(promotions);
+            return ConditionalGet.ok(version).body(promotions);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Versión actual de las promociones y de las categorías y productos que incluyen.
+     * Se toma antes de leer los datos.
+     */
+    private CatalogVersions.Snapshot snapshot() {
+        return catalogVersions.snapshot(CatalogVersions.Table.PROMOTIONS, CatalogVersions.Table.CATEGORIES,
+                CatalogVersions.Table.PRODUCTS);
+    }
+
     /**
      * Endpoint de estado para verificar que el servicio funciona
      * GET /api/promotions/status
@@ -89,7 +151,8 @@ public class PromotionController {
             "timestamp", java.time.LocalDateTime.now(),
             "endpoints", java.util.List.of(
                 "GET /api/promotions - Promociones activas y vigentes",
-                "GET /api/promotions/all - Todas las promociones (admin)",
+                "GET /api/promotions/summary?categoryId= - Resumen de promociones activas y vigentes",
+                "GET /api/promotions/all?limit=&after= - Todas las promociones, paginadas (admin)",
                 "GET /api/promotions/category/{id} - Promociones por categoría",
                 "GET /api/promotions/valid - Promociones vigentes hoy",
                 "GET /api/promotions/status - Estado del servicio"
@@ -0,0 +1,84 @@
+package com.petstore.backend.dto;
+
+import java.time.Instant;
+
+public class CategoryStatsDTO {
+    private Integer categoryId;
+    private long productCount;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double avgPrice;
+    private int activePromotionCount;
+    private Instant updatedAt;
+
+    // Constructors
+    public CategoryStatsDTO() {}
+
+    public CategoryStatsDTO(Integer categoryId, long productCount, Double minPrice, Double maxPrice,
+                            Double avgPrice, int activePromotionCount, Instant updatedAt) {
+        this.categoryId = categoryId;
+        this.productCount = productCount;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.avgPrice = avgPrice;
+        this.activePromotionCount = activePromotionCount;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public void setProductCount(long productCount) {
+        this.productCount = productCount;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Double getAvgPrice() {
+        return avgPrice;
+    }
+
+    public void setAvgPrice(Double avgPrice) {
+        this.avgPrice = avgPrice;
+    }
+
+    public int getActivePromotionCount() {
+        return activePromotionCount;
+    }
+
+    public void setActivePromotionCount(int activePromotionCount) {
+        this.activePromotionCount = activePromotionCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -8,6 +8,7 @@ public class ProductDTO {
     private String productName;
     private String description;
     private BigDecimal price;
+    private BigDecimal effectivePrice;
     private Integer stock;
     private String imageUrl;
     private CategoryDTO category;
@@ -67,6 +68,14 @@ public class ProductDTO {
         this.price = price;
     }
 
+    public BigDecimal getEffectivePrice() {
+        return effectivePrice;
+    }
+
+    public void setEffectivePrice(BigDecimal effectivePrice) {
+        this.effectivePrice = effectivePrice;
+    }
+
     public Integer getStock() {
         return stock;
     }
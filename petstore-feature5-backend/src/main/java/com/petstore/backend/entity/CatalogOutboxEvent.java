@@ -0,0 +1,59 @@
+package com.petstore.backend.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+
+/**
+ * Cambio del catálogo pendiente de publicar (patrón outbox). Se inserta en la misma
+ * transacción que el cambio y lo borra {@code CatalogOutboxRelay} al publicarlo.
+ */
+@Entity
+@Table(name = "catalog_outbox", schema = "public")
+public class CatalogOutboxEvent {
+
+    public enum Aggregate { PRODUCT, CATEGORY, PROMOTION }
+
+    public enum Change { CREATED, UPDATED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 20)
+    private Aggregate aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Integer aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private Change changeType;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public CatalogOutboxEvent() {}
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public Aggregate getAggregateType() {
+        return aggregateType;
+    }
+
+    public Integer getAggregateId() {
+        return aggregateId;
+    }
+
+    public Change getChangeType() {
+        return changeType;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.petstore.backend.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+
+/**
+ * Versión de una tabla del catálogo, compartida por todas las instancias. Solo la
+ * escribe {@code CatalogVersionStore} por JDBC, al confirmar cada escritura; para
+ * JPA es de solo lectura.
+ */
+@Entity
+@Immutable
+@Table(name = "catalog_versions", schema = "public")
+public class CatalogVersion {
+
+    @Id
+    @Column(name = "table_name", length = 20)
+    private String tableName;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public CatalogVersion() {}
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
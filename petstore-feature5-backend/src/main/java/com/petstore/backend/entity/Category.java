@@ -1,8 +1,17 @@
 package com.petstore.backend.entity;
 
+import com.petstore.backend.service.CatalogOutboxListener;
+import com.petstore.backend.service.CatalogVersionListener;
+import com.petstore.backend.service.CategoryStatsListener;
+
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@EntityListeners({CatalogVersionListener.class, CatalogOutboxListener.class, CategoryStatsListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference-category")
 @Table(name = "categories", schema = "public")
 public class Category {
     
@@ -0,0 +1,71 @@
+package com.petstore.backend.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+
+/**
+ * Estadísticas de los productos de una categoría, precalculadas para leerlas por
+ * clave primaria. Solo las escribe {@code CategoryStatsService} por JDBC, dentro de
+ * la transacción que modifica los productos; para JPA es de solo lectura.
+ */
+@Entity
+@Immutable
+@Table(name = "category_stats", schema = "public")
+public class CategoryStats {
+
+    @Id
+    @Column(name = "category_id")
+    private Integer categoryId;
+
+    @Column(name = "product_count", nullable = false)
+    private long productCount;
+
+    // Suma de los precios, para actualizar la media con cada escritura sin agregar
+    @Column(name = "price_sum", nullable = false)
+    private double priceSum;
+
+    @Column(name = "min_price")
+    private Double minPrice;
+
+    @Column(name = "max_price")
+    private Double maxPrice;
+
+    @Column(name = "avg_price")
+    private Double avgPrice;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public CategoryStats() {}
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public long getProductCount() {
+        return productCount;
+    }
+
+    public double getPriceSum() {
+        return priceSum;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Double getAvgPrice() {
+        return avgPrice;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,8 +1,15 @@
 package com.petstore.backend.entity;
 
+import com.petstore.backend.service.CatalogOutboxListener;
+import com.petstore.backend.service.CatalogVersionListener;
+import com.petstore.backend.service.CategoryStatsListener;
+import com.petstore.backend.service.ProductSearchListener;
+
 import jakarta.persistence.*;
 
 @Entity
+@EntityListeners({ProductSearchListener.class, CatalogVersionListener.class, CatalogOutboxListener.class,
+        CategoryStatsListener.class})
 @Table(name = "products", schema = "public")
 public class Product {
     
@@ -27,6 +34,14 @@ public class Product {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "promotion_id")
     private Promotion promotion;
+
+    // Categoría y precio guardados en la base de datos. Los listeners se ejecutan antes
+    // que rememberPersistedState, así que en @PostUpdate aún son los anteriores.
+    @Transient
+    private Integer persistedCategoryId;
+
+    @Transient
+    private Double persistedBasePrice;
     
     // Constructores
     public Product() {}
@@ -86,4 +101,20 @@ public class Product {
     public void setPromotion(Promotion promotion) {
         this.promotion = promotion;
     }
+
+    public Integer getPersistedCategoryId() {
+        return persistedCategoryId;
+    }
+
+    public Double getPersistedBasePrice() {
+        return persistedBasePrice;
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberPersistedState() {
+        persistedCategoryId = category == null ? null : category.getCategoryId();
+        persistedBasePrice = basePrice;
+    }
 }
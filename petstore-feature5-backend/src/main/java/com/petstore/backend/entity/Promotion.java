@@ -1,9 +1,13 @@
 package com.petstore.backend.entity;
 
+import com.petstore.backend.service.CatalogOutboxListener;
+import com.petstore.backend.service.CatalogVersionListener;
+
 import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners({CatalogVersionListener.class, CatalogOutboxListener.class})
 @Table(name = "promotions", schema = "public")
 public class Promotion {
     
@@ -1,8 +1,15 @@
 package com.petstore.backend.entity;
 
+import com.petstore.backend.config.UserPrincipalCacheListener;
+
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference-role")
+@EntityListeners(UserPrincipalCacheListener.class)
 @Table(name = "roles", schema = "public")
 public class Role {
     
@@ -1,8 +1,12 @@
 package com.petstore.backend.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference-status")
 @Table(name = "statuses", schema = "public")
 public class Status {
     
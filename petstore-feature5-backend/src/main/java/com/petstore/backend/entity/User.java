@@ -1,7 +1,10 @@
 package com.petstore.backend.entity;
 
+import com.petstore.backend.config.UserPrincipalCacheListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -10,6 +13,7 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
+@EntityListeners(UserPrincipalCacheListener.class)
 @Table(name = "users")
 public class User {
     @Id
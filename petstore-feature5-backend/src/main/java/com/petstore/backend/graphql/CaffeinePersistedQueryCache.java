@@ -0,0 +1,57 @@
+package com.petstore.backend.graphql;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+
+/**
+ * Caché acotada de documentos GraphQL ya parseados y validados, indexada por el
+ * hash SHA-256 del texto de la consulta.
+ *
+ * Si el hash no está y la petición solo trae el hash, se responde
+ * {@code PersistedQueryNotFound} para que el cliente reenvíe el texto completo y
+ * quede registrado.
+ */
+public class CaffeinePersistedQueryCache implements PersistedQueryCache {
+
+    private final Cache<Object, PreparsedDocumentEntry> documents;
+
+    public CaffeinePersistedQueryCache(long maximumSize) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId,
+                                                                                    ExecutionInput executionInput,
+                                                                                    PersistedQueryCacheMiss onCacheMiss)
+            throws PersistedQueryNotFound {
+        PreparsedDocumentEntry entry = documents.getIfPresent(persistedQueryId);
+        if (entry == null) {
+            String query = executionInput.getQuery();
+            if (query == null || query.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+                throw new PersistedQueryNotFound(persistedQueryId);
+            }
+            // Un solo parseo por hash aunque lleguen varias peticiones a la vez
+            entry = documents.get(persistedQueryId, id -> onCacheMiss.apply(query));
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    /**
+     * Caché subyacente, expuesta para publicar sus métricas
+     */
+    Cache<Object, PreparsedDocumentEntry> getDocuments() {
+        return documents;
+    }
+}
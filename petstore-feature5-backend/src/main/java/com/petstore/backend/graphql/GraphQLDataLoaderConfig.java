@@ -0,0 +1,39 @@
+package com.petstore.backend.graphql;
+
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.PromotionRepository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Registra los DataLoaders usados por GraphQLResolver para las relaciones a uno.
+ * Cada petición GraphQL obtiene su propia instancia de DataLoader, por lo que
+ * un mismo ID se resuelve una sola vez por petición y todas las claves de un
+ * nivel se cargan con una única consulta IN (...).
+ */
+@Configuration
+public class GraphQLDataLoaderConfig {
+
+    public GraphQLDataLoaderConfig(BatchLoaderRegistry registry,
+                                   PromotionRepository promotionRepository,
+                                   CategoryRepository categoryRepository) {
+
+        registry.forTypePair(Integer.class, Promotion.class)
+                .registerMappedBatchLoader((ids, env) -> Mono.fromCallable(() ->
+                        promotionRepository.findByPromotionIdIn(ids).stream()
+                                .collect(Collectors.toMap(Promotion::getPromotionId, Function.identity()))));
+
+        registry.forTypePair(Integer.class, Category.class)
+                .registerMappedBatchLoader((ids, env) -> Mono.fromCallable(() ->
+                        categoryRepository.findAllById(ids).stream()
+                                .collect(Collectors.toMap(Category::getCategoryId, Function.identity()))));
+    }
+}
@@ -0,0 +1,91 @@
+package com.petstore.backend.graphql;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.server.support.SerializableGraphQlRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Atiende GET /graphql para persisted queries.
+ *
+ * Los parámetros {@code query}, {@code operationName}, {@code variables} y
+ * {@code extensions} (estos dos en JSON) siguen la especificación GraphQL sobre
+ * HTTP. Cuando la petición se identifica solo por
+ * {@code extensions.persistedQuery.sha256Hash} y no hay errores, la respuesta
+ * lleva Cache-Control para que CDNs y proxies la puedan reutilizar: pública sin
+ * cabecera Authorization, privada con ella.
+ */
+@Component
+public class GraphQLGetHandler {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final ObjectMapper objectMapper;
+    private final Duration maxAge;
+
+    public GraphQLGetHandler(WebGraphQlHandler graphQlHandler,
+                             ObjectMapper objectMapper,
+                             @Value("${graphql.apq.max-age:60s}") Duration maxAge) {
+        this.graphQlHandler = graphQlHandler;
+        this.objectMapper = objectMapper;
+        this.maxAge = maxAge;
+    }
+
+    public ServerResponse handle(ServerRequest serverRequest) {
+        SerializableGraphQlRequest body = new SerializableGraphQlRequest();
+        body.setQuery(serverRequest.param("query").orElse(null));
+        body.setOperationName(serverRequest.param("operationName").orElse(null));
+        try {
+            body.setVariables(parseJson(serverRequest.param("variables").orElse(null)));
+            body.setExtensions(parseJson(serverRequest.param("extensions").orElse(null)));
+        } catch (JsonProcessingException e) {
+            return ServerResponse.badRequest().body("Los parámetros variables y extensions deben ser objetos JSON");
+        }
+
+        HttpHeaders headers = serverRequest.headers().asHttpHeaders();
+        WebGraphQlRequest request = new WebGraphQlRequest(serverRequest.uri(), headers, null,
+                serverRequest.remoteAddress().orElse(null), serverRequest.attributes(), body,
+                UUID.randomUUID().toString(), LocaleContextHolder.getLocale());
+        request.configureExecutionInput((input, builder) ->
+                builder.graphQLContext(Map.of(HashedDocumentProvider.HTTP_GET, true)).build());
+
+        boolean hashOnly = serverRequest.param("query").isEmpty() && body.getExtensions().containsKey("persistedQuery");
+        return ServerResponse.async(graphQlHandler.handleRequest(request)
+                .map(response -> ServerResponse.ok()
+                        .headers(responseHeaders -> responseHeaders.putAll(response.getResponseHeaders()))
+                        .cacheControl(cacheControl(hashOnly, response, headers))
+                        .varyBy(HttpHeaders.AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(response.toMap()))
+                .toFuture());
+    }
+
+    private CacheControl cacheControl(boolean hashOnly, WebGraphQlResponse response, HttpHeaders headers) {
+        if (!hashOnly || !response.getErrors().isEmpty()) {
+            return CacheControl.noStore();
+        }
+        CacheControl cacheControl = CacheControl.maxAge(maxAge);
+        return headers.containsKey(HttpHeaders.AUTHORIZATION) ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+    }
+
+    private Map<String, Object> parseJson(String json) throws JsonProcessingException {
+        return json == null || json.isBlank() ? Map.of() : objectMapper.readValue(json, JSON_OBJECT);
+    }
+}
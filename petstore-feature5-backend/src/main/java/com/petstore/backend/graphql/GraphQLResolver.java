@@ -1,43 +1,83 @@
 package com.petstore.backend.graphql;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.dataloader.DataLoader;
+import org.hibernate.Hibernate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 
 import com.petstore.backend.dto.LoginResponse;
+import com.petstore.backend.dto.CategoryStatsDTO;
 import com.petstore.backend.dto.PromotionDTO;
 import com.petstore.backend.entity.Category;
 import com.petstore.backend.entity.Product;
 import com.petstore.backend.entity.Promotion;
 import com.petstore.backend.entity.User;
+import com.petstore.backend.graphql.PromotionChangeFeed.PromotionChange;
 import com.petstore.backend.repository.CategoryRepository;
 import com.petstore.backend.repository.ProductRepository;
 import com.petstore.backend.repository.PromotionRepository;
 import com.petstore.backend.repository.UserRepository;
 import com.petstore.backend.service.AuthService;
+import com.petstore.backend.service.CategoryService;
+import com.petstore.backend.service.CategoryStatsService;
+import com.petstore.backend.service.PricingService;
+import com.petstore.backend.service.ProductSearchIndex;
+import com.petstore.backend.service.ProductService;
 import com.petstore.backend.service.PromotionService;
 
+import reactor.core.publisher.Flux;
+
 @Controller
 public class GraphQLResolver {
 
     private static final Logger log = LoggerFactory.getLogger(GraphQLResolver.class);
 
+    // Tamaño de página por defecto y máximo para las consultas *Page (first)
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    // Máximo de elementos de las listas sin paginar. Cada uno es el multiplicador de @cost del
+    // campo en schema.graphqls, así el costo calculado es una cota real de lo que se devuelve
+    static final int MAX_PRODUCTS = 100;                // products
+    static final int MAX_CATEGORIES = 20;               // categories
+    static final int MAX_PROMOTIONS = 50;               // promotions, promotionsActive/Expired/Scheduled/ByStatus
+    static final int MAX_PRODUCTS_PER_PARENT = 50;      // productsByCategory, Category.products, Promotion.products
+    static final int MAX_PROMOTIONS_PER_CATEGORY = 10;  // promotionsByCategory, Category.promotions
+
     private final PromotionService promotionService;
     private final AuthService authService;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final PromotionRepository promotionRepository;
+    private final PricingService pricingService;
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final PromotionChangeFeed promotionChangeFeed;
+    private final CategoryStatsService categoryStatsService;
 
     public GraphQLResolver(
             PromotionService promotionService,
@@ -45,13 +85,23 @@ public class GraphQLResolver {
             UserRepository userRepository,
             CategoryRepository categoryRepository,
             ProductRepository productRepository,
-            PromotionRepository promotionRepository) {
+            PromotionRepository promotionRepository,
+            PricingService pricingService,
+            ProductService productService,
+            CategoryService categoryService,
+            PromotionChangeFeed promotionChangeFeed,
+            CategoryStatsService categoryStatsService) {
         this.promotionService = promotionService;
         this.authService = authService;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
         this.promotionRepository = promotionRepository;
+        this.pricingService = pricingService;
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.promotionChangeFeed = promotionChangeFeed;
+        this.categoryStatsService = categoryStatsService;
     }
 
     // === HELPER METHODS ===
@@ -86,7 +136,8 @@ public class GraphQLResolver {
     public List<Promotion> promotions() {
         // Público - sin autenticación
         try {
-            return promotionRepository.findAll();
+            // Obsoleta frente a promotionsPage: solo la primera página
+            return promotionService.getPromotionsPageEntities(ScrollPosition.keyset(), MAX_PROMOTIONS).getContent();
         } catch (Exception e) {
             log.error("Error getting all promotions: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -97,7 +148,8 @@ public class GraphQLResolver {
     public List<Promotion> promotionsActive() {
         // Público - sin autenticación
         try {
-            return promotionService.getAllActivePromotionsEntities();
+            // El índice está en memoria: se recorta la respuesta, no la consulta
+            return promotionService.getAllActivePromotionsEntities().stream().limit(MAX_PROMOTIONS).toList();
         } catch (Exception e) {
             log.error("Error getting active promotions: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -108,7 +160,7 @@ public class GraphQLResolver {
     public List<Promotion> promotionsExpired() {
         // Público - sin autenticación
         try {
-            return promotionService.getAllExpiredPromotionsEntities();
+            return promotionService.getAllExpiredPromotionsEntities(MAX_PROMOTIONS);
         } catch (Exception e) {
             log.error("Error getting expired promotions: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -119,7 +171,7 @@ public class GraphQLResolver {
     public List<Promotion> promotionsScheduled() {
         // Público - sin autenticación
         try {
-            return promotionService.getAllScheduledPromotionsEntities();
+            return promotionService.getAllScheduledPromotionsEntities(MAX_PROMOTIONS);
         } catch (Exception e) {
             log.error("Error getting scheduled promotions: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -130,7 +182,7 @@ public class GraphQLResolver {
     public List<Promotion> promotionsByStatus(@Argument String statusName) {
         // Público - sin autenticación
         try {
-            return promotionService.getPromotionsByStatusEntities(statusName);
+            return promotionService.getPromotionsByStatusEntities(statusName, MAX_PROMOTIONS);
         } catch (Exception e) {
             log.error("Error getting promotions by status: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -141,7 +193,7 @@ public class GraphQLResolver {
     public List<Promotion> promotionsByCategory(@Argument Integer categoryId) {
         // Público - sin autenticación
         try {
-            return promotionService.getPromotionsByCategoryEntities(categoryId);
+            return promotionService.getPromotionsByCategoryEntities(categoryId, MAX_PROMOTIONS_PER_CATEGORY);
         } catch (Exception e) {
             log.error("Error getting promotions by category: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -159,11 +211,18 @@ public class GraphQLResolver {
         }
     }
 
+    @QueryMapping
+    public Window<Promotion> promotionsPage(ScrollSubrange subrange) {
+        // Público - sin autenticación
+        return promotionService.getPromotionsPageEntities(position(subrange), pageSize(subrange));
+    }
+
     @QueryMapping
     public List<Category> categories() {
         // Público - sin autenticación
         try {
-            return categoryRepository.findAll();
+            // Obsoleta frente a categoriesPage: solo la primera página
+            return categoryService.findPage(ScrollPosition.keyset(), MAX_CATEGORIES).getContent();
         } catch (Exception e) {
             log.error("Error getting categories: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -181,11 +240,18 @@ public class GraphQLResolver {
         }
     }
 
+    @QueryMapping
+    public Window<Category> categoriesPage(ScrollSubrange subrange) {
+        // Público - sin autenticación
+        return categoryService.findPage(position(subrange), pageSize(subrange));
+    }
+
     @QueryMapping
     public List<Product> products() {
         // Público - sin autenticación
         try {
-            return productRepository.findAll();
+            // Obsoleta frente a productsPage: solo la primera página
+            return productService.findPage(ScrollPosition.keyset(), MAX_PRODUCTS).getContent();
         } catch (Exception e) {
             log.error("Error getting products: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -196,7 +262,7 @@ public class GraphQLResolver {
     public List<Product> productsByCategory(@Argument Integer categoryId) {
         // Público - sin autenticación
         try {
-            return productRepository.findByCategoryCategoryId(categoryId);
+            return productRepository.findFirstPerCategory(List.of(categoryId), MAX_PRODUCTS_PER_PARENT);
         } catch (Exception e) {
             log.error("Error getting products by category: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -214,6 +280,29 @@ public class GraphQLResolver {
         }
     }
 
+    @QueryMapping
+    public Window<Product> productsPage(ScrollSubrange subrange) {
+        // Público - sin autenticación
+        return productService.findPage(position(subrange), pageSize(subrange));
+    }
+
+    @QueryMapping
+    public List<Product> searchProducts(@Argument String query, @Argument Integer categoryId,
+                                        @Argument Double minPrice, @Argument Double maxPrice,
+                                        @Argument Integer first) {
+        // Público - sin autenticación
+        int limit = first != null ? first : DEFAULT_PAGE_SIZE;
+        return productService.search(new ProductSearchIndex.Criteria(query, categoryId, minPrice, maxPrice, limit));
+    }
+
+    private static ScrollPosition position(ScrollSubrange subrange) {
+        return subrange.position().orElse(ScrollPosition.keyset());
+    }
+
+    private static int pageSize(ScrollSubrange subrange) {
+        return Math.max(1, Math.min(subrange.count().orElse(DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+    }
+
     // === MUTATIONS ===
 
     @MutationMapping
@@ -307,37 +396,121 @@ public class GraphQLResolver {
         }
     }
 
+    // === SUBSCRIPTIONS ===
+    // Públicas, como promotionsActive; el Flux de cada suscriptor sale del mismo PromotionChangeFeed
+
+    @SubscriptionMapping
+    public Flux<PromotionChange> promotionChanged(@Argument Integer categoryId) {
+        return promotionChangeFeed.changes(categoryId);
+    }
+
+    @SubscriptionMapping
+    public Flux<List<Promotion>> activePromotionsUpdated() {
+        return promotionChangeFeed.activePromotions();
+    }
+
     // === SCHEMA MAPPINGS para resolver relaciones ===
-    // Nota: Con los DTOs de respuesta, estas relaciones ya están aplanadas
-    // Estos métodos pueden ser opcionales si usas solo los DTOs de respuesta
-    
-    @SchemaMapping(typeName = "Promotion", field = "products")
-    public List<Product> promotionProducts(Promotion promotion) {
+    // Las relaciones de lista se resuelven por lotes: GraphQL agrupa todos los padres
+    // de un mismo nivel y se lanza una sola consulta IN (...) por relación, que trae
+    // como máximo MAX_*_PER_* hijos de cada padre.
+    // Las relaciones a uno (Product.promotion, Promotion.category) usan DataLoaders
+    // registrados en GraphQLDataLoaderConfig, con caché por ID durante la petición;
+    // Promotion.category solo si no llegó ya cargada con la promoción.
+
+    @BatchMapping(typeName = "Promotion", field = "products")
+    public Map<Promotion, List<Product>> promotionProducts(List<Promotion> promotions) {
         try {
-            return productRepository.findByPromotionPromotionId(promotion.getPromotionId());
+            List<Integer> ids = promotions.stream().map(Promotion::getPromotionId).distinct().toList();
+            Map<Integer, List<Product>> byPromotion = productRepository.findFirstPerPromotion(ids, MAX_PRODUCTS_PER_PARENT).stream()
+                    .collect(Collectors.groupingBy(product -> product.getPromotion().getPromotionId()));
+            return groupByParent(promotions, Promotion::getPromotionId, byPromotion);
         } catch (Exception e) {
             log.error("Error getting products for promotion: {}", e.getMessage(), e);
-            return Collections.emptyList();
+            return emptyByParent(promotions);
         }
     }
 
-    @SchemaMapping(typeName = "Category", field = "promotions")
-    public List<Promotion> categoryPromotions(Category category) {
+    @BatchMapping(typeName = "Category", field = "promotions")
+    public Map<Category, List<Promotion>> categoryPromotions(List<Category> categories) {
         try {
-            return promotionService.getPromotionsByCategoryEntities(category.getCategoryId());
+            List<Integer> ids = categories.stream().map(Category::getCategoryId).distinct().toList();
+            Map<Integer, List<Promotion>> byCategory = promotionService.getPromotionsByCategoryIdsEntities(ids, MAX_PROMOTIONS_PER_CATEGORY).stream()
+                    .collect(Collectors.groupingBy(promotion -> promotion.getCategory().getCategoryId()));
+            return groupByParent(categories, Category::getCategoryId, byCategory);
         } catch (Exception e) {
             log.error("Error getting promotions for category: {}", e.getMessage(), e);
-            return Collections.emptyList();
+            return emptyByParent(categories);
         }
     }
 
-    @SchemaMapping(typeName = "Category", field = "products")
-    public List<Product> categoryProducts(Category category) {
+    @BatchMapping(typeName = "Category", field = "products")
+    public Map<Category, List<Product>> categoryProducts(List<Category> categories) {
         try {
-            return productRepository.findByCategoryCategoryId(category.getCategoryId());
+            List<Integer> ids = categories.stream().map(Category::getCategoryId).distinct().toList();
+            Map<Integer, List<Product>> byCategory = productRepository.findFirstPerCategory(ids, MAX_PRODUCTS_PER_PARENT).stream()
+                    .collect(Collectors.groupingBy(product -> product.getCategory().getCategoryId()));
+            return groupByParent(categories, Category::getCategoryId, byCategory);
         } catch (Exception e) {
             log.error("Error getting products for category: {}", e.getMessage(), e);
-            return Collections.emptyList();
+            return emptyByParent(categories);
+        }
+    }
+
+    @BatchMapping(typeName = "Category", field = "stats")
+    public Map<Category, CategoryStatsDTO> categoryStats(List<Category> categories) {
+        Map<Integer, CategoryStatsDTO> byCategory = categoryStatsService.getStats(
+                categories.stream().map(Category::getCategoryId).distinct().toList());
+        Map<Category, CategoryStatsDTO> result = new LinkedHashMap<>();
+        categories.forEach(category -> result.put(category, byCategory.get(category.getCategoryId())));
+        return result;
+    }
+
+    @BatchMapping(typeName = "Product", field = "effectivePrice")
+    public List<Double> productEffectivePrice(List<Product> products) {
+        // Un solo cálculo para todos los productos del nivel, en el mismo orden
+        return Arrays.stream(pricingService.effectivePrices(products)).boxed().toList();
+    }
+
+    @SchemaMapping(typeName = "Product", field = "promotion")
+    public CompletableFuture<Promotion> productPromotion(Product product, DataLoader<Integer, Promotion> loader) {
+        // getPromotionId() sobre el proxy LAZY no inicializa la entidad
+        Promotion promotion = product.getPromotion();
+        if (promotion == null || promotion.getPromotionId() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return loader.load(promotion.getPromotionId());
+    }
+
+    @SchemaMapping(typeName = "Promotion", field = "category")
+    public CompletableFuture<Category> promotionCategory(Promotion promotion, DataLoader<Integer, Category> loader) {
+        Category category = promotion.getCategory();
+        if (category == null || category.getCategoryId() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Ya cargada con la promoción (JOIN FETCH, p. ej. las instantáneas de las suscripciones)
+        if (Hibernate.isInitialized(category)) {
+            return CompletableFuture.completedFuture(category);
+        }
+        return loader.load(category.getCategoryId());
+    }
+
+    /**
+     * Reparte los hijos agrupados por ID entre las instancias padre recibidas por GraphQL
+     */
+    private static <P, C> Map<P, List<C>> groupByParent(List<P> parents, Function<P, Integer> idOf,
+                                                         Map<Integer, List<C>> childrenById) {
+        Map<P, List<C>> result = new LinkedHashMap<>();
+        for (P parent : parents) {
+            result.put(parent, childrenById.getOrDefault(idOf.apply(parent), Collections.emptyList()));
+        }
+        return result;
+    }
+
+    private static <P, C> Map<P, List<C>> emptyByParent(List<P> parents) {
+        Map<P, List<C>> result = new LinkedHashMap<>();
+        for (P parent : parents) {
+            result.put(parent, Collections.emptyList());
         }
+        return result;
     }
 }
@@ -0,0 +1,79 @@
+package com.petstore.backend.graphql;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.language.OperationDefinition;
+
+/**
+ * Persisted queries automáticas (protocolo de Apollo) sobre una caché de
+ * documentos parseados y validados.
+ *
+ * Las peticiones con {@code extensions.persistedQuery.sha256Hash} se resuelven
+ * por hash; las que solo traen el texto usan el SHA-256 del texto como clave,
+ * así que toda consulta repetida evita el parseo y la validación. Las
+ * operaciones que llegan por GET solo pueden ser consultas.
+ */
+public class HashedDocumentProvider extends ApolloPersistedQuerySupport {
+
+    /**
+     * Clave del GraphQLContext que marca las peticiones recibidas por HTTP GET
+     */
+    public static final String HTTP_GET = HashedDocumentProvider.class.getName() + ".GET";
+
+    public HashedDocumentProvider(PersistedQueryCache persistedQueryCache) {
+        super(persistedQueryCache);
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        CompletableFuture<PreparsedDocumentEntry> entry = super.getDocumentAsync(executionInput, parseAndValidate);
+        if (!Boolean.TRUE.equals(executionInput.getGraphQLContext().get(HTTP_GET))) {
+            return entry;
+        }
+        return entry.thenApply(document -> onlyQueries(document, executionInput.getOperationName()));
+    }
+
+    @Override
+    protected Optional<Object> getPersistedQueryId(ExecutionInput executionInput) {
+        return super.getPersistedQueryId(executionInput)
+                .or(() -> Optional.ofNullable(executionInput.getQuery())
+                        .filter(query -> !query.isBlank())
+                        .map(HashedDocumentProvider::sha256));
+    }
+
+    private static PreparsedDocumentEntry onlyQueries(PreparsedDocumentEntry entry, String operationName) {
+        if (entry.hasErrors()) {
+            return entry;
+        }
+        boolean onlyQueries = entry.getDocument().getDefinitionsOfType(OperationDefinition.class).stream()
+                .filter(operation -> operationName == null || operationName.equals(operation.getName()))
+                .allMatch(operation -> operation.getOperation() == OperationDefinition.Operation.QUERY);
+        if (onlyQueries) {
+            return entry;
+        }
+        return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                .message("Solo se permiten consultas por GET; las mutaciones deben enviarse por POST")
+                .build());
+    }
+
+    static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.petstore.backend.graphql;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Registra {@link HashedDocumentProvider} en GraphQL, publica las métricas de la
+ * caché de documentos como {@code cache.gets{cache=graphql.documents}} y añade
+ * GET /graphql con {@link GraphQLGetHandler}.
+ */
+@Configuration
+public class PersistedQueryConfig {
+
+    static final String DOCUMENT_CACHE_NAME = "graphql.documents";
+
+    @Bean
+    CaffeinePersistedQueryCache persistedQueryCache(@Value("${graphql.apq.cache-size:1000}") long cacheSize,
+                                                    MeterRegistry meterRegistry) {
+        CaffeinePersistedQueryCache cache = new CaffeinePersistedQueryCache(cacheSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.getDocuments(), DOCUMENT_CACHE_NAME);
+        return cache;
+    }
+
+    @Bean
+    GraphQlSourceBuilderCustomizer persistedQueryCustomizer(CaffeinePersistedQueryCache persistedQueryCache) {
+        HashedDocumentProvider documentProvider = new HashedDocumentProvider(persistedQueryCache);
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider));
+    }
+
+    /**
+     * Spring GraphQL responde 405 a todo GET de /graphql; esta ruta se evalúa antes
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    RouterFunction<ServerResponse> graphQlGetRouterFunction(GraphQLGetHandler handler,
+                                                            @Value("${spring.graphql.http.path:/graphql}") String path) {
+        return RouterFunctions.route().GET(path, handler::handle).build();
+    }
+}
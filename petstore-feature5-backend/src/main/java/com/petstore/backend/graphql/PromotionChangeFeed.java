@@ -0,0 +1,239 @@
+package com.petstore.backend.graphql;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.service.ActivePromotionIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Fuente compartida de las suscripciones GraphQL de promociones.
+ *
+ * El feed no consulta la base de datos: compara cada instantánea nueva de
+ * {@link ActivePromotionIndex} con la anterior y reparte las diferencias a todos
+ * los suscriptores desde un único sink. Cubre cualquier origen de cambios
+ * (mutaciones, transiciones del ciclo de vida, medianoche) porque todos acaban
+ * reconstruyendo el índice.
+ *
+ * Las instantáneas traen estado, categoría y usuario cargados, así que seleccionarlos
+ * no consulta nada. Lo que no está en la instantánea ({@code products}, o las listas
+ * y estadísticas de la categoría) se resuelve por lotes en cada envío a cada
+ * suscriptor que lo pida.
+ *
+ * Un suscriptor lento no frena a los demás: cada uno consume a su ritmo y lo que
+ * no ha podido enviar se conflaciona (la última lista activa, o el último cambio
+ * de cada promoción).
+ */
+@Component
+public class PromotionChangeFeed {
+
+    public enum ChangeType { ACTIVATED, UPDATED, DEACTIVATED }
+
+    /**
+     * Cambio de una promoción en el conjunto de activas. En DEACTIVATED la promoción
+     * es la última versión conocida mientras estuvo activa.
+     */
+    public record PromotionChange(Integer promotionId, ChangeType change, Promotion promotion) {
+    }
+
+    private final ActivePromotionIndex activePromotionIndex;
+    private final Sinks.Many<List<Promotion>> activeSink = Sinks.many().replay().latest();
+    private final Sinks.Many<PromotionChange> changeSink = Sinks.many().multicast().directBestEffort();
+    private final Counter conflated;
+
+    // Protege current y serializa las emisiones a los sinks
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<Integer, Entry> current;
+
+    public PromotionChangeFeed(ActivePromotionIndex activePromotionIndex, MeterRegistry meterRegistry) {
+        this.activePromotionIndex = activePromotionIndex;
+        Gauge.builder("graphql.subscriptions", activeSink, Sinks.Many::currentSubscriberCount)
+                .description("Suscripciones GraphQL abiertas")
+                .tag("subscription", "activePromotionsUpdated")
+                .register(meterRegistry);
+        Gauge.builder("graphql.subscriptions", changeSink, Sinks.Many::currentSubscriberCount)
+                .description("Suscripciones GraphQL abiertas")
+                .tag("subscription", "promotionChanged")
+                .register(meterRegistry);
+        this.conflated = Counter.builder("graphql.subscriptions.conflated")
+                .description("Cambios de promociones sustituidos por uno más reciente antes de enviarse")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lista completa de promociones activas: la actual al suscribirse y una nueva cada
+     * vez que cambia. Un suscriptor lento recibe solo la más reciente.
+     */
+    public Flux<List<Promotion>> activePromotions() {
+        return Flux.defer(() -> {
+            seed();
+            return activeSink.asFlux();
+        }).onBackpressureLatest();
+    }
+
+    /**
+     * Cambios en las promociones activas desde la suscripción, opcionalmente solo los
+     * de una categoría. Un suscriptor lento recibe el último cambio de cada promoción.
+     */
+    public Flux<PromotionChange> changes(Integer categoryId) {
+        return Flux.defer(() -> {
+            seed();
+            Flux<PromotionChange> changes = changeSink.asFlux();
+            if (categoryId != null) {
+                changes = changes.filter(change -> categoryId.equals(categoryIdOf(change.promotion())));
+            }
+            return conflatePerPromotion(changes);
+        });
+    }
+
+    @EventListener
+    public void onIndexRebuilt(ActivePromotionIndex.Rebuilt rebuilt) {
+        apply(rebuilt.promotions());
+    }
+
+    /**
+     * Fija la primera instantánea como referencia si el feed aún no ha visto ninguna.
+     * Se lee el índice fuera del lock: reconstruirlo publica un evento que vuelve a
+     * entrar aquí desde el hilo que tiene el lock del índice.
+     */
+    private void seed() {
+        if (current == null) {
+            List<Promotion> promotions = activePromotionIndex.getActivePromotions();
+            lock.lock();
+            try {
+                if (current == null) {
+                    apply(promotions);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    void apply(List<Promotion> promotions) {
+        lock.lock();
+        try {
+            Map<Integer, Entry> next = new LinkedHashMap<>();
+            promotions.forEach(promotion -> next.put(promotion.getPromotionId(), Entry.of(promotion)));
+
+            if (current == null) {
+                current = next;
+                activeSink.tryEmitNext(promotions);
+                return;
+            }
+
+            List<PromotionChange> changes = new ArrayList<>();
+            current.forEach((id, previous) -> {
+                if (!next.containsKey(id)) {
+                    changes.add(new PromotionChange(id, ChangeType.DEACTIVATED, previous.promotion()));
+                }
+            });
+            next.forEach((id, entry) -> {
+                Entry previous = current.get(id);
+                if (previous == null) {
+                    changes.add(new PromotionChange(id, ChangeType.ACTIVATED, entry.promotion()));
+                } else if (!previous.fingerprint().equals(entry.fingerprint())) {
+                    changes.add(new PromotionChange(id, ChangeType.UPDATED, entry.promotion()));
+                }
+            });
+            current = next;
+
+            // Una reconstrucción sin diferencias (p. ej. la de medianoche) no se anuncia
+            if (!changes.isEmpty()) {
+                activeSink.tryEmitNext(promotions);
+                changes.forEach(changeSink::tryEmitNext);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Entrega los cambios según la demanda del suscriptor. Mientras no pide más, los
+     * cambios pendientes se guardan por promoción y uno nuevo sustituye al anterior.
+     * El envío se hace fuera del lock para que un suscriptor lento no bloquee al hilo
+     * que reconstruyó el índice; {@code wip} garantiza un único hilo enviando.
+     */
+    private Flux<PromotionChange> conflatePerPromotion(Flux<PromotionChange> changes) {
+        return Flux.create(sink -> {
+            ReentrantLock pendingLock = new ReentrantLock();
+            Map<Integer, PromotionChange> pending = new LinkedHashMap<>();
+            AtomicInteger wip = new AtomicInteger();
+            Runnable drain = () -> {
+                if (wip.getAndIncrement() != 0) {
+                    return;
+                }
+                do {
+                    while (sink.requestedFromDownstream() > 0) {
+                        PromotionChange next;
+                        pendingLock.lock();
+                        try {
+                            Iterator<PromotionChange> it = pending.values().iterator();
+                            if (!it.hasNext()) {
+                                break;
+                            }
+                            next = it.next();
+                            it.remove();
+                        } finally {
+                            pendingLock.unlock();
+                        }
+                        sink.next(next);
+                    }
+                } while (wip.decrementAndGet() != 0);
+            };
+            Disposable upstream = changes.subscribe(change -> {
+                pendingLock.lock();
+                try {
+                    if (pending.remove(change.promotionId()) != null) {
+                        conflated.increment();
+                    }
+                    pending.put(change.promotionId(), change);
+                } finally {
+                    pendingLock.unlock();
+                }
+                drain.run();
+            }, sink::error, sink::complete);
+            sink.onRequest(n -> drain.run());
+            sink.onDispose(upstream);
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    private static Integer categoryIdOf(Promotion promotion) {
+        return promotion.getCategory() == null ? null : promotion.getCategory().getCategoryId();
+    }
+
+    /**
+     * Valores visibles de una promoción capturados al construir la instantánea: la
+     * entidad puede modificarse después en otro contexto de persistencia.
+     */
+    private record Fingerprint(String name, String description, LocalDate startDate, LocalDate endDate,
+                               Double discountValue, Integer categoryId, Integer userId) {
+    }
+
+    private record Entry(Promotion promotion, Fingerprint fingerprint) {
+
+        static Entry of(Promotion promotion) {
+            return new Entry(promotion, new Fingerprint(promotion.getPromotionName(), promotion.getDescription(),
+                    promotion.getStartDate(), promotion.getEndDate(), promotion.getDiscountValue(),
+                    categoryIdOf(promotion),
+                    promotion.getUser() == null ? null : promotion.getUser().getUserId()));
+        }
+    }
+}
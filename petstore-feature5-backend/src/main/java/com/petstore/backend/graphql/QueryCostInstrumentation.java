@@ -0,0 +1,210 @@
+package com.petstore.backend.graphql;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import graphql.ExecutionResult;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Calcula el costo estático de cada operación GraphQL antes de ejecutarla y
+ * rechaza las que superan el presupuesto de costo o de profundidad.
+ *
+ * El costo de un campo es {@code weight + multiplier * (suma de sus subcampos)},
+ * con los valores de la directiva {@code @cost} de schema.graphqls. Las listas sin
+ * multiplicador usan {@code graphql.cost.default-list-size} y las consultas con
+ * argumento {@code first} multiplican por el tamaño de página pedido. Los campos de
+ * introspección no cuentan. El costo se devuelve en {@code extensions.cost} y se
+ * registra en la métrica {@code graphql.query.cost}.
+ */
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    static final String COST_DIRECTIVE = "cost";
+
+    private final long maxCost;
+    private final int maxDepth;
+    private final long defaultListSize;
+    private final DistributionSummary costSummary;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCostInstrumentation(@Value("${graphql.cost.max-cost:5000}") long maxCost,
+                                    @Value("${graphql.cost.max-depth:10}") int maxDepth,
+                                    @Value("${graphql.cost.default-list-size:10}") long defaultListSize,
+                                    MeterRegistry meterRegistry) {
+        this.maxCost = maxCost;
+        this.maxDepth = maxDepth;
+        this.defaultListSize = defaultListSize;
+        this.meterRegistry = meterRegistry;
+        this.costSummary = DistributionSummary.builder("graphql.query.cost")
+                .description("Costo estático de las operaciones GraphQL")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new CostState();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        QueryCost cost = calculate(context.getGraphQLSchema(), context.getNormalizedQueryTree().get());
+        ((CostState) state).cost = cost;
+        costSummary.record(cost.cost());
+
+        if (cost.cost() > maxCost) {
+            reject("cost");
+            throw new AbortExecutionException(
+                    "Costo de la consulta " + cost.cost() + " supera el máximo permitido de " + maxCost);
+        }
+        if (cost.depth() > maxDepth) {
+            reject("depth");
+            throw new AbortExecutionException(
+                    "Profundidad de la consulta " + cost.depth() + " supera el máximo permitido de " + maxDepth);
+        }
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        QueryCost cost = ((CostState) state).cost;
+        if (cost == null) {
+            // La operación no llegó a ejecutarse (p. ej. errores de validación)
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        Map<String, Object> extension = new LinkedHashMap<>();
+        extension.put("requested", cost.cost());
+        extension.put("maximum", maxCost);
+        extension.put("depth", cost.depth());
+        extension.put("maxDepth", maxDepth);
+        return CompletableFuture.completedFuture(executionResult.transform(result -> result.addExtension(COST_DIRECTIVE, extension)));
+    }
+
+    /**
+     * Costo y profundidad de una operación ya normalizada (fragmentos expandidos)
+     */
+    QueryCost calculate(GraphQLSchema schema, ExecutableNormalizedOperation operation) {
+        long cost = 0;
+        int depth = 0;
+        for (ExecutableNormalizedField field : operation.getTopLevelFields()) {
+            if (isIntrospection(field)) {
+                continue;
+            }
+            cost = saturatedAdd(cost, fieldCost(schema, field));
+            depth = Math.max(depth, depth(field));
+        }
+        return new QueryCost(cost, depth);
+    }
+
+    private long fieldCost(GraphQLSchema schema, ExecutableNormalizedField field) {
+        List<GraphQLFieldDefinition> definitions = field.getFieldDefinitions(schema);
+        GraphQLFieldDefinition definition = definitions.get(0);
+        GraphQLAppliedDirective directive = definition.getAppliedDirective(COST_DIRECTIVE);
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(definition.getType());
+
+        long childrenCost = 0;
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            if (!isIntrospection(child)) {
+                childrenCost = saturatedAdd(childrenCost, fieldCost(schema, child));
+            }
+        }
+
+        Integer weightArgument = directiveArgument(directive, "weight");
+        long weight = weightArgument != null ? weightArgument : (GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(type)) ? 0 : 1);
+        return saturatedAdd(weight, saturatedMultiply(multiplier(field, definition, directive, type), childrenCost));
+    }
+
+    private long multiplier(ExecutableNormalizedField field, GraphQLFieldDefinition definition,
+                            GraphQLAppliedDirective directive, GraphQLType type) {
+        if (definition.getArgument("first") != null) {
+            Object first = field.getResolvedArguments().get("first");
+            int requested = first instanceof Number number ? number.intValue() : GraphQLResolver.DEFAULT_PAGE_SIZE;
+            return Math.max(1, Math.min(requested, GraphQLResolver.MAX_PAGE_SIZE));
+        }
+        Integer multiplierArgument = directiveArgument(directive, "multiplier");
+        if (multiplierArgument != null) {
+            return multiplierArgument;
+        }
+        if (!GraphQLTypeUtil.isList(type)) {
+            return 1;
+        }
+        // Las aristas de una conexión ya se multiplicaron por el argumento first
+        boolean connectionEdges = field.getObjectTypeNames().stream().anyMatch(name -> name.endsWith("Connection"));
+        return connectionEdges ? 1 : defaultListSize;
+    }
+
+    private static int depth(ExecutableNormalizedField field) {
+        int depth = field.getLevel();
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            if (!isIntrospection(child)) {
+                depth = Math.max(depth, depth(child));
+            }
+        }
+        return depth;
+    }
+
+    private static Integer directiveArgument(GraphQLAppliedDirective directive, String name) {
+        if (directive == null || directive.getArgument(name) == null) {
+            return null;
+        }
+        Object value = directive.getArgument(name).getValue();
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    private static boolean isIntrospection(ExecutableNormalizedField field) {
+        return field.getName().startsWith("__");
+    }
+
+    private void reject(String reason) {
+        Counter.builder("graphql.query.cost.rejected")
+                .description("Operaciones GraphQL rechazadas por costo o profundidad")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return (high == 0 && low >= 0) ? low : Long.MAX_VALUE;
+    }
+
+    record QueryCost(long cost, int depth) {
+    }
+
+    private static final class CostState implements InstrumentationState {
+        private QueryCost cost;
+    }
+}
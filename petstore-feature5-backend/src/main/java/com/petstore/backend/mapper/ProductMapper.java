@@ -19,6 +19,7 @@ public interface ProductMapper {
      * Convierte una entidad Product a ProductDTO
      */
     @Mapping(target = "price", source = "basePrice")
+    @Mapping(target = "effectivePrice", ignore = true)
     @Mapping(target = "stock", ignore = true)
     @Mapping(target = "imageUrl", ignore = true)
     @Mapping(target = "status", ignore = true)
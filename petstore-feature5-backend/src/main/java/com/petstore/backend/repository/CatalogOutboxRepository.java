@@ -0,0 +1,16 @@
+package com.petstore.backend.repository;
+
+import com.petstore.backend.entity.CatalogOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Sin readOnly: el relay debe leer siempre del primario, no de una réplica retrasada
+@Repository
+public interface CatalogOutboxRepository extends JpaRepository<CatalogOutboxEvent, Long> {
+
+    // Eventos pendientes más antiguos, en el orden en que se escribieron
+    List<CatalogOutboxEvent> findAllByOrderByEventIdAsc(Limit limit);
+}
@@ -1,17 +1,32 @@
 package com.petstore.backend.repository;
 
 import com.petstore.backend.entity.Category;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 
 import java.util.Optional;
 
 @Repository
+// Consultas en transacciones de solo lectura: con réplicas configuradas se leen de ellas
+@Transactional(readOnly = true)
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
     
     // Buscar categoría por nombre
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByCategoryName(String categoryName);
     
     // Verificar si existe una categoría con el nombre
     boolean existsByCategoryName(String categoryName);
+
+    // Paginación por cursor (keyset sobre category_id)
+    Window<Category> findAllBy(ScrollPosition position, Limit limit, Sort sort);
 }
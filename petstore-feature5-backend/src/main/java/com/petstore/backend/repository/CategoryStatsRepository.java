@@ -0,0 +1,12 @@
+package com.petstore.backend.repository;
+
+import com.petstore.backend.entity.CategoryStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+// Consultas en transacciones de solo lectura: con réplicas configuradas se leen de ellas
+@Transactional(readOnly = true)
+public interface CategoryStatsRepository extends JpaRepository<CategoryStats, Integer> {
+}
@@ -1,15 +1,79 @@
 package com.petstore.backend.repository;
 
 import com.petstore.backend.entity.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
+// Consultas en transacciones de solo lectura: con réplicas configuradas se leen de ellas
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, Integer> {
+
+    // Filas por viaje a la base de datos al recorrer el catálogo completo
+    int EXPORT_FETCH_SIZE = 1000;
+
     List<Product> findByCategoryCategoryId(Integer categoryId);
     List<Product> findByPromotionPromotionId(Integer promotionId);
     List<Product> findByProductNameContainingIgnoreCase(String productName);
     List<Product> findByBasePriceBetween(Double minPrice, Double maxPrice);
+
+    // Carga por lotes para GraphQL (una sola consulta por nivel): como máximo :limit productos de
+    // cada categoría o promoción, los de menor ID. El corte se hace en la base de datos, así que
+    // una lista anidada nunca trae el grupo completo
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.productId IN ("
+            + "SELECT r.id FROM (SELECT q.productId AS id, ROW_NUMBER() OVER ("
+            + "PARTITION BY q.category.categoryId ORDER BY q.productId) AS rn "
+            + "FROM Product q WHERE q.category.categoryId IN :categoryIds) r WHERE r.rn <= :limit) "
+            + "ORDER BY p.productId")
+    List<Product> findFirstPerCategory(@Param("categoryIds") Collection<Integer> categoryIds,
+                                       @Param("limit") int limit);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.productId IN ("
+            + "SELECT r.id FROM (SELECT q.productId AS id, ROW_NUMBER() OVER ("
+            + "PARTITION BY q.promotion.promotionId ORDER BY q.productId) AS rn "
+            + "FROM Product q WHERE q.promotion.promotionId IN :promotionIds) r WHERE r.rn <= :limit) "
+            + "ORDER BY p.productId")
+    List<Product> findFirstPerPromotion(@Param("promotionIds") Collection<Integer> promotionIds,
+                                        @Param("limit") int limit);
+
+    // Carga de los resultados del índice de búsqueda y de los productos de un lote importado
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByProductIdIn(Collection<Integer> productIds);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findBySkuIn(Collection<Integer> skus);
+
+    // Categorías actuales de los SKU, para recalcular también las que un upsert deja
+    @Query("SELECT DISTINCT p.category.categoryId FROM Product p WHERE p.sku IN :skus")
+    List<Integer> findCategoryIdsBySkuIn(@Param("skus") Collection<Integer> skus);
+
+    // Paginación por cursor (keyset sobre product_id): cada página cuesta lo mismo que la primera
+    @EntityGraph(attributePaths = "category")
+    Window<Product> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    // Recorrido completo para la exportación: cursor de solo avance, por lotes de fetch size y sin
+    // snapshots de dirty checking. Debe consumirse dentro de una transacción y cerrarse al terminar
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.category ORDER BY p.productId")
+    Stream<Product> streamAllForExport();
 }
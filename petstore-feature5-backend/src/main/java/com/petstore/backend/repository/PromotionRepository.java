@@ -1,35 +1,89 @@
 package com.petstore.backend.repository;
 
 import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
+// Consultas en transacciones de solo lectura: con réplicas configuradas se leen de ellas
+@Transactional(readOnly = true)
 public interface PromotionRepository extends JpaRepository<Promotion, Integer> {
     
+    // IDs de todas las promociones, para validar referencias en la importación masiva
+    @Query("SELECT p.promotionId FROM Promotion p")
+    Set<Integer> findAllIds();
+
     // Buscar promociones activas
     @Query("SELECT p FROM Promotion p WHERE p.status.statusName = 'ACTIVE'")
     List<Promotion> findActivePromotions();
+
+    // Promociones activas y vigentes en una fecha con sus relaciones cargadas, para el índice en memoria.
+    // En transacción propia: el índice se reconstruye tras el commit de otra, cuyo contexto ya no admite consultas
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    @Query("SELECT DISTINCT p FROM Promotion p JOIN FETCH p.status s LEFT JOIN FETCH p.category "
+            + "LEFT JOIN FETCH p.user WHERE s.statusName = 'ACTIVE' "
+            + "AND p.startDate <= :date AND p.endDate >= :date")
+    List<Promotion> findActivePromotionsWithRelations(@Param("date") LocalDate date);
+
+    // Resumen de las promociones activas y vigentes en una fecha, opcionalmente de una categoría
+    @Query("SELECT p.promotionId AS promotionId, p.promotionName AS promotionName, "
+            + "p.discountValue AS discountValue, p.startDate AS startDate, p.endDate AS endDate, "
+            + "c.categoryId AS categoryId, c.categoryName AS categoryName "
+            + "FROM Promotion p JOIN p.status s LEFT JOIN p.category c "
+            + "WHERE s.statusName = 'ACTIVE' AND p.startDate <= :date AND p.endDate >= :date "
+            + "AND (:categoryId IS NULL OR c.categoryId = :categoryId) "
+            + "ORDER BY p.promotionId")
+    List<PromotionSummary> findActiveSummaries(@Param("date") LocalDate date,
+                                               @Param("categoryId") Integer categoryId);
     
-    // Buscar promociones expiradas
-    @Query("SELECT p FROM Promotion p WHERE p.status.statusName = 'EXPIRED'")
-    List<Promotion> findExpiredPromotions();
+    // Buscar promociones expiradas (las primeras por ID, hasta limit)
+    @Query("SELECT p FROM Promotion p WHERE p.status.statusName = 'EXPIRED' ORDER BY p.promotionId")
+    List<Promotion> findExpiredPromotions(Limit limit);
     
-    // Buscar promociones programadas
-    @Query("SELECT p FROM Promotion p WHERE p.status.statusName = 'SCHEDULE'")
-    List<Promotion> findScheduledPromotions();
+    // Buscar promociones programadas (las primeras por ID, hasta limit)
+    @Query("SELECT p FROM Promotion p WHERE p.status.statusName = 'SCHEDULE' ORDER BY p.promotionId")
+    List<Promotion> findScheduledPromotions(Limit limit);
     
-    // Buscar promociones por estado específico
-    @Query("SELECT p FROM Promotion p WHERE p.status.statusName = :statusName")
-    List<Promotion> findByStatusName(@Param("statusName") String statusName);
+    // Buscar promociones por estado específico (las primeras por ID, hasta limit)
+    @Query("SELECT p FROM Promotion p WHERE p.status.statusName = :statusName ORDER BY p.promotionId")
+    List<Promotion> findByStatusName(@Param("statusName") String statusName, Limit limit);
     
     // Buscar promociones por categoría
     List<Promotion> findByCategoryCategoryId(Integer categoryId);
+
+    // Como máximo :limit promociones de cada categoría, las de menor ID, en una sola consulta
+    // (GraphQL). El corte por categoría se hace en la base de datos
+    @Query("SELECT p FROM Promotion p LEFT JOIN FETCH p.status JOIN FETCH p.category WHERE p.promotionId IN ("
+            + "SELECT r.id FROM (SELECT q.promotionId AS id, ROW_NUMBER() OVER ("
+            + "PARTITION BY q.category.categoryId ORDER BY q.promotionId) AS rn "
+            + "FROM Promotion q WHERE q.category.categoryId IN :categoryIds) r WHERE r.rn <= :limit) "
+            + "ORDER BY p.promotionId")
+    List<Promotion> findFirstPerCategory(@Param("categoryIds") Collection<Integer> categoryIds,
+                                         @Param("limit") int limit);
+
+    // Buscar varias promociones por ID con sus relaciones cargadas (DataLoaders de GraphQL)
+    @EntityGraph(attributePaths = {"status", "category"})
+    List<Promotion> findByPromotionIdIn(Collection<Integer> promotionIds);
+
+    // Paginación por cursor (keyset sobre promotion_id)
+    @EntityGraph(attributePaths = {"status", "category"})
+    Window<Promotion> findAllBy(ScrollPosition position, Limit limit, Sort sort);
     
     // Buscar promociones por usuario (Marketing Admin que las creó)
     List<Promotion> findByUserUserId(Integer userId);
@@ -38,6 +92,27 @@ public interface PromotionRepository extends JpaRepository<Promotion, Integer> {
     @Query("SELECT p FROM Promotion p WHERE :currentDate BETWEEN p.startDate AND p.endDate")
     List<Promotion> findValidPromotions(@Param("currentDate") LocalDate currentDate);
     
+    // Ciclo de vida: activa en un solo UPDATE las promociones programadas cuyo periodo ya comenzó
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Promotion p SET p.status = :to WHERE p.status = :from "
+            + "AND p.startDate <= :date AND p.endDate >= :date")
+    int activateDue(@Param("from") Status from, @Param("to") Status to, @Param("date") LocalDate date);
+
+    // Ciclo de vida: expira en un solo UPDATE las promociones cuyo periodo ya terminó
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Promotion p SET p.status = :to WHERE p.status = :from AND p.endDate < :date")
+    int expireDue(@Param("from") Status from, @Param("to") Status to, @Param("date") LocalDate date);
+
+    // Próxima fecha de inicio de una promoción programada
+    @Query("SELECT MIN(p.startDate) FROM Promotion p WHERE p.status = :scheduled AND p.startDate > :date")
+    LocalDate findNextStartDate(@Param("scheduled") Status scheduled, @Param("date") LocalDate date);
+
+    // Próxima fecha de fin entre las promociones programadas o activas
+    @Query("SELECT MIN(p.endDate) FROM Promotion p WHERE p.status IN :statuses AND p.endDate >= :date")
+    LocalDate findNextEndDate(@Param("statuses") Collection<Status> statuses, @Param("date") LocalDate date);
+    
     // Buscar promociones por rango de descuento
     @Query("SELECT p FROM Promotion p WHERE p.discountValue >= :minDiscount AND p.discountValue <= :maxDiscount")
     List<Promotion> findByDiscountRange(@Param("minDiscount") Double minDiscount, @Param("maxDiscount") Double maxDiscount);
@@ -0,0 +1,24 @@
+package com.petstore.backend.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección de solo lectura de una promoción para vistas de listado.
+ * Solo se seleccionan estas columnas; no se cargan entidades ni relaciones.
+ */
+public interface PromotionSummary {
+
+    Integer getPromotionId();
+
+    String getPromotionName();
+
+    Double getDiscountValue();
+
+    LocalDate getStartDate();
+
+    LocalDate getEndDate();
+
+    Integer getCategoryId();
+
+    String getCategoryName();
+}
@@ -2,14 +2,19 @@ package com.petstore.backend.repository;
 
 import com.petstore.backend.entity.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+
 import java.util.Optional;
 
 @Repository
 public interface StatusRepository extends JpaRepository<Status, Integer> {
     
     // Buscar status por nombre
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Status> findByStatusName(String statusName);
     
     // Verificar si existe un status con el nombre
@@ -0,0 +1,198 @@
+package com.petstore.backend.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.repository.PromotionRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Índice en memoria de las promociones activas y vigentes hoy.
+ *
+ * Las lecturas no toman locks ni consultan la base de datos: leen la instantánea
+ * actual, que es inmutable. La instantánea se reconstruye completa (copy-on-write)
+ * cuando avanza la versión de promociones en {@link CatalogVersions}, a medianoche,
+ * o cuando una lectura detecta que fue construida para otro día. La versión avanza
+ * con las escrituras de esta instancia y con las de las demás, y el índice se
+ * reconstruye antes de que se publique: ningún ETag de promociones nuevo se sirve
+ * con el índice anterior.
+ *
+ * Las reconstrucciones se serializan con un {@link ReentrantLock} y no con
+ * {@code synchronized}: consultan la base de datos y, en Java 21, bloquearse
+ * dentro de un monitor fija (pin) el hilo virtual a su hilo portador.
+ *
+ * Cada reconstrucción publica un evento {@link Rebuilt} con la nueva instantánea,
+ * todavía dentro del lock: los oyentes los reciben de uno en uno y en orden.
+ */
+@Component
+public class ActivePromotionIndex implements ApplicationEventPublisherAware {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivePromotionIndex.class);
+
+    private final PromotionRepository promotionRepository;
+    private final Clock clock;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ActivePromotionIndex(PromotionRepository promotionRepository, MeterRegistry meterRegistry) {
+        this(promotionRepository, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    ActivePromotionIndex(PromotionRepository promotionRepository, MeterRegistry meterRegistry, Clock clock) {
+        this.promotionRepository = promotionRepository;
+        this.clock = clock;
+
+        Gauge.builder("promotions.active.index.staleness", this, index -> index.staleness().toMillis() / 1000.0)
+                .description("Segundos desde la última reconstrucción del índice de promociones activas")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("promotions.active.index.size", this, ActivePromotionIndex::size)
+                .description("Promociones activas y vigentes en el índice")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Promociones activas y vigentes hoy
+     */
+    public List<Promotion> getActivePromotions() {
+        return current().all();
+    }
+
+    /**
+     * Promociones activas y vigentes hoy de una categoría
+     */
+    public List<Promotion> getActivePromotionsByCategory(Integer categoryId) {
+        return current().byCategory().getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * Devuelve la promoción si está activa y vigente hoy, o null
+     */
+    public Promotion findActive(Integer promotionId) {
+        return current().byId().get(promotionId);
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos y lo publica de forma atómica
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void refresh() {
+        rebuildLock.lock();
+        try {
+            LocalDate today = LocalDate.now(clock);
+            List<Promotion> valid = List.copyOf(promotionRepository.findActivePromotionsWithRelations(today));
+
+            Map<Integer, List<Promotion>> byCategory = new HashMap<>();
+            valid.stream()
+                    .filter(promotion -> promotion.getCategory() != null)
+                    .collect(Collectors.groupingBy(promotion -> promotion.getCategory().getCategoryId()))
+                    .forEach((categoryId, promotions) -> byCategory.put(categoryId, List.copyOf(promotions)));
+            Map<Integer, Promotion> byId = valid.stream()
+                    .collect(Collectors.toMap(Promotion::getPromotionId, Function.identity()));
+
+            snapshot.set(new Snapshot(today, valid, Map.copyOf(byCategory), Map.copyOf(byId), clock.instant()));
+            log.debug("Índice de promociones activas reconstruido: {} promociones para {}", valid.size(), today);
+            if (eventPublisher != null) {
+                eventPublisher.publishEvent(new Rebuilt(today, valid));
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onCatalogAdvanced(CatalogVersions.Advanced advanced) {
+        if (advanced.versions().containsKey(CatalogVersions.Table.PROMOTIONS)) {
+            refresh();
+        }
+    }
+
+    /**
+     * Tiempo transcurrido desde la última reconstrucción
+     */
+    public Duration staleness() {
+        Snapshot current = snapshot.get();
+        return current == null ? Duration.ZERO : Duration.between(current.builtAt(), clock.instant());
+    }
+
+    /**
+     * Momento de la última reconstrucción, o null si aún no se ha construido
+     */
+    public Instant builtAt() {
+        Snapshot current = snapshot.get();
+        return current == null ? null : current.builtAt();
+    }
+
+    /**
+     * Número de promociones en el índice
+     */
+    public int size() {
+        Snapshot current = snapshot.get();
+        return current == null ? 0 : current.all().size();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        LocalDate today = LocalDate.now(clock);
+        if (current == null || !current.date().equals(today)) {
+            current = rebuildIfStale(today);
+        }
+        return current;
+    }
+
+    private Snapshot rebuildIfStale(LocalDate today) {
+        rebuildLock.lock();
+        try {
+            // Otro hilo pudo reconstruir el índice mientras se esperaba el lock
+            Snapshot current = snapshot.get();
+            if (current == null || !current.date().equals(today)) {
+                refresh();
+                current = snapshot.get();
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Evento publicado tras cada reconstrucción con las promociones activas y vigentes
+     */
+    public record Rebuilt(LocalDate date, List<Promotion> promotions) {
+    }
+
+    private record Snapshot(LocalDate date,
+                            List<Promotion> all,
+                            Map<Integer, List<Promotion>> byCategory,
+                            Map<Integer, Promotion> byId,
+                            Instant builtAt) {
+    }
+}
@@ -1,11 +1,13 @@
 package com.petstore.backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.petstore.backend.config.CacheConfig;
 import com.petstore.backend.dto.LoginResponse;
 import com.petstore.backend.entity.User;
 import com.petstore.backend.repository.UserRepository;
@@ -104,6 +106,20 @@ public class AuthService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Principal para el filtro JWT: solo email y autoridades, sin contraseña.
+     * Se cachea por email (TTL y tamaño en spring.cache.caffeine.spec) y se
+     * invalida desde UserPrincipalCacheListener cuando cambia un usuario o rol.
+     */
+    @Cacheable(cacheNames = CacheConfig.USER_PRINCIPALS)
+    public UserDetails loadPrincipal(String email) throws UsernameNotFoundException {
+        UserDetails user = loadUserByUsername(email);
+        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+                .password("")
+                .authorities(user.getAuthorities())
+                .build();
+    }
+
     /**
      * Verificar si un usuario existe y es Marketing Admin
      */
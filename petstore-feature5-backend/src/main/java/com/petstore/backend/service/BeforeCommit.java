@@ -0,0 +1,65 @@
+package com.petstore.backend.service;
+
+import java.util.Collection;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Acumula elementos durante la transacción actual y los procesa una sola vez, tras el
+ * último flush de Hibernate y antes del COMMIT.
+ *
+ * Con JpaTransactionManager el flush final ocurre dentro del commit, después de los
+ * {@code beforeCommit} de Spring, y es ahí donde los listeners JPA ven los
+ * {@code @PostUpdate}; por eso el trabajo se registra como proceso de la sesión de
+ * Hibernate. Los elementos se entregan ordenados (o en el orden del estado que se
+ * acumule), para que quien bloquea filas las bloquee siempre en el mismo orden.
+ */
+final class BeforeCommit {
+
+    private BeforeCommit() {
+    }
+
+    static <T extends Comparable<? super T>> void add(EntityManager entityManager, Object key, T item,
+                                                        Consumer<SortedSet<T>> work) {
+        BeforeCommit.<SortedSet<T>>pending(entityManager, key, TreeSet::new, work).add(item);
+    }
+
+    static <T extends Comparable<? super T>> void addAll(EntityManager entityManager, Object key,
+                                                           Collection<? extends T> items, Consumer<SortedSet<T>> work) {
+        if (!items.isEmpty()) {
+            BeforeCommit.<SortedSet<T>>pending(entityManager, key, TreeSet::new, work).addAll(items);
+        }
+    }
+
+    /**
+     * Estado acumulado bajo {@code key} en la transacción actual. La primera llamada lo
+     * crea con {@code create} y registra {@code work} para procesarlo antes del COMMIT.
+     */
+    @SuppressWarnings("unchecked")
+    static <S> S pending(EntityManager entityManager, Object key, Supplier<S> create, Consumer<? super S> work) {
+        S state = (S) TransactionSynchronizationManager.getResource(key);
+        if (state != null) {
+            return state;
+        }
+        S created = create.get();
+        TransactionSynchronizationManager.bindResource(key, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+        });
+        entityManager.unwrap(SessionImplementor.class).getActionQueue()
+                .registerProcess((BeforeTransactionCompletionProcess) session -> work.accept(created));
+        return created;
+    }
+}
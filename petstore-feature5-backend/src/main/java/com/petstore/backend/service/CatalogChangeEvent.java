@@ -0,0 +1,28 @@
+package com.petstore.backend.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.petstore.backend.entity.CatalogOutboxEvent;
+import com.petstore.backend.entity.CatalogOutboxEvent.Aggregate;
+import com.petstore.backend.entity.CatalogOutboxEvent.Change;
+
+/**
+ * Cambio confirmado de un producto, categoría o promoción, tal como lo publica
+ * {@link CatalogOutboxRelay}. {@code eventId} crece con el orden de las escrituras
+ * de una misma entidad, así que sirve para descartar duplicados.
+ */
+public record CatalogChangeEvent(long eventId, Aggregate aggregate, int aggregateId, Change change, Instant occurredAt) {
+
+    /**
+     * Lote de cambios publicado en el bus de eventos de Spring; se escucha con
+     * {@code @EventListener}. Los eventos van en el orden en que se escribieron.
+     */
+    public record Batch(List<CatalogChangeEvent> events) {
+    }
+
+    static CatalogChangeEvent of(CatalogOutboxEvent row) {
+        return new CatalogChangeEvent(row.getEventId(), row.getAggregateType(), row.getAggregateId(),
+                row.getChangeType(), row.getCreatedAt());
+    }
+}
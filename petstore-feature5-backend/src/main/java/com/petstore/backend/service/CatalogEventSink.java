@@ -0,0 +1,16 @@
+package com.petstore.backend.service;
+
+import java.util.List;
+
+/**
+ * Destino externo de los cambios del catálogo (un broker, un webhook...). Cada bean
+ * que implemente esta interfaz recibe los lotes de {@link CatalogOutboxRelay}
+ * después del bus interno; en local o en los tests basta con un stub.
+ *
+ * Si lanza una excepción el lote se vuelve a publicar más tarde, así que la
+ * entrega es al menos una vez y el destino debe tolerar duplicados ({@code eventId}).
+ */
+public interface CatalogEventSink {
+
+    void publish(List<CatalogChangeEvent> events);
+}
@@ -0,0 +1,107 @@
+package com.petstore.backend.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.petstore.backend.entity.CatalogOutboxEvent.Aggregate;
+import com.petstore.backend.entity.CatalogOutboxEvent.Change;
+
+/**
+ * Escribe los cambios del catálogo en la tabla outbox dentro de la transacción que
+ * los produce: el evento existe si y solo si el cambio se confirmó.
+ *
+ * Se usa JDBC sobre la conexión de la transacción porque se llama desde los
+ * listeners JPA, donde no se puede usar el EntityManager, y desde la importación
+ * masiva, que escribe por lotes.
+ *
+ * Solo escribe con {@code catalog.outbox.enabled=true}: sin un consumidor (un
+ * {@link CatalogEventSink} o un {@code @EventListener} de
+ * {@link CatalogChangeEvent.Batch}) cada escritura pagaría un INSERT que nadie lee.
+ */
+@Component
+public class CatalogOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogOutbox.class);
+
+    private static final String INSERT = "INSERT INTO public.catalog_outbox "
+            + "(aggregate_type, aggregate_id, change_type, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<CatalogEventSink> sinks;
+    private final boolean enabled;
+    private final Clock clock;
+
+    @Autowired
+    public CatalogOutbox(JdbcTemplate jdbcTemplate, ObjectProvider<CatalogEventSink> sinks,
+                         @Value("${catalog.outbox.enabled:false}") boolean enabled) {
+        this(jdbcTemplate, sinks, enabled, Clock.systemUTC());
+    }
+
+    CatalogOutbox(JdbcTemplate jdbcTemplate, ObjectProvider<CatalogEventSink> sinks, boolean enabled,
+                  Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sinks = sinks;
+        this.enabled = enabled;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warnIfSinksAreIdle() {
+        if (!enabled && sinks.stream().findAny().isPresent()) {
+            log.warn("Hay destinos de eventos del catálogo pero el outbox está desactivado "
+                    + "(catalog.outbox.enabled=false): no recibirán eventos");
+        }
+    }
+
+    public void record(Aggregate aggregate, int aggregateId, Change change) {
+        if (!enabled) {
+            return;
+        }
+        requireTransaction();
+        OffsetDateTime now = OffsetDateTime.now(clock.withZone(ZoneOffset.UTC));
+        jdbcTemplate.update(INSERT, ps -> bind(ps, aggregate, aggregateId, change, now));
+    }
+
+    /**
+     * Registra el mismo cambio para varias entidades con un solo lote JDBC
+     */
+    public void recordAll(Aggregate aggregate, Collection<Integer> aggregateIds, Change change) {
+        if (!enabled || aggregateIds.isEmpty()) {
+            return;
+        }
+        requireTransaction();
+        OffsetDateTime now = OffsetDateTime.now(clock.withZone(ZoneOffset.UTC));
+        jdbcTemplate.batchUpdate(INSERT, aggregateIds, aggregateIds.size(),
+                (ps, aggregateId) -> bind(ps, aggregate, aggregateId, change, now));
+    }
+
+    private static void requireTransaction() {
+        // Fuera de una transacción el evento se confirmaría aunque el cambio fallara
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Los eventos del catálogo se escriben dentro de la transacción del cambio");
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Aggregate aggregate, int aggregateId, Change change,
+                             OffsetDateTime createdAt) throws SQLException {
+        ps.setString(1, aggregate.name());
+        ps.setInt(2, aggregateId);
+        ps.setString(3, change.name());
+        ps.setObject(4, createdAt);
+    }
+}
@@ -0,0 +1,53 @@
+package com.petstore.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.entity.CatalogOutboxEvent.Aggregate;
+import com.petstore.backend.entity.CatalogOutboxEvent.Change;
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Promotion;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de Product, Category y Promotion que registra cada escritura en el
+ * {@link CatalogOutbox}. Como {@link CatalogVersionListener}, no ve las
+ * actualizaciones masivas (JPQL {@code @Modifying}, upsert JDBC).
+ */
+@Component
+public class CatalogOutboxListener {
+
+    private final CatalogOutbox catalogOutbox;
+
+    public CatalogOutboxListener(CatalogOutbox catalogOutbox) {
+        this.catalogOutbox = catalogOutbox;
+    }
+
+    @PostPersist
+    public void onCreate(Object entity) {
+        record(entity, Change.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        record(entity, Change.UPDATED);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        record(entity, Change.DELETED);
+    }
+
+    private void record(Object entity, Change change) {
+        if (entity instanceof Product product) {
+            catalogOutbox.record(Aggregate.PRODUCT, product.getProductId(), change);
+        } else if (entity instanceof Category category) {
+            catalogOutbox.record(Aggregate.CATEGORY, category.getCategoryId(), change);
+        } else if (entity instanceof Promotion promotion) {
+            catalogOutbox.record(Aggregate.PROMOTION, promotion.getPromotionId(), change);
+        }
+    }
+}
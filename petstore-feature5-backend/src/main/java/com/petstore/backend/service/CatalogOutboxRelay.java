@@ -0,0 +1,125 @@
+package com.petstore.backend.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.entity.CatalogOutboxEvent;
+import com.petstore.backend.repository.CatalogOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publica los eventos pendientes del outbox del catálogo por lotes: primero en el
+ * bus de eventos de Spring ({@link CatalogChangeEvent.Batch}) y después en cada
+ * {@link CatalogEventSink}. Solo cuando todos aceptan el lote se borra de la tabla.
+ *
+ * La entrega es al menos una vez: si algo falla, el lote entero se reintenta en la
+ * siguiente ejecución. Los lotes se publican de uno en uno en orden de
+ * {@code event_id}; dos escrituras de la misma entidad se serializan por el bloqueo
+ * de su fila, así que sus eventos llegan en orden. Con varias instancias cada una
+ * tendría su relay y ese orden ya no se garantiza.
+ *
+ * Con el outbox desactivado ({@code catalog.outbox.enabled}) no hay relay ni sondeo.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.outbox.enabled", havingValue = "true")
+public class CatalogOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogOutboxRelay.class);
+
+    private final CatalogOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<CatalogEventSink> sinks;
+    private final int batchSize;
+    private final Clock clock;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer delay;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public CatalogOutboxRelay(CatalogOutboxRepository outboxRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectProvider<CatalogEventSink> sinks,
+                              @Value("${catalog.outbox.batch-size:500}") int batchSize,
+                              MeterRegistry meterRegistry) {
+        this(outboxRepository, eventPublisher, sinks, batchSize, meterRegistry, Clock.systemUTC());
+    }
+
+    CatalogOutboxRelay(CatalogOutboxRepository outboxRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       ObjectProvider<CatalogEventSink> sinks,
+                       int batchSize,
+                       MeterRegistry meterRegistry,
+                       Clock clock) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.sinks = sinks;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.published = Counter.builder("catalog.outbox.published")
+                .description("Eventos del catálogo publicados desde el outbox")
+                .register(meterRegistry);
+        this.failures = Counter.builder("catalog.outbox.failures")
+                .description("Lotes del outbox que fallaron y se reintentarán")
+                .register(meterRegistry);
+        this.delay = Timer.builder("catalog.outbox.delay")
+                .description("Tiempo entre la escritura de un evento y su publicación")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica los eventos pendientes hasta vaciar el outbox o hasta el primer fallo.
+     * Devuelve el número de eventos publicados.
+     */
+    @Scheduled(fixedDelayString = "${catalog.outbox.relay-interval:250ms}")
+    public int relay() {
+        lock.lock();
+        try {
+            int total = 0;
+            List<CatalogOutboxEvent> rows;
+            do {
+                rows = outboxRepository.findAllByOrderByEventIdAsc(Limit.of(batchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                List<CatalogChangeEvent> events = rows.stream().map(CatalogChangeEvent::of).toList();
+                try {
+                    eventPublisher.publishEvent(new CatalogChangeEvent.Batch(events));
+                    sinks.orderedStream().forEach(sink -> sink.publish(events));
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    log.warn("No se pudo publicar un lote de {} eventos del catálogo (desde el {}), se reintentará: {}",
+                            events.size(), events.get(0).eventId(), e.getMessage());
+                    break;
+                }
+                outboxRepository.deleteAllByIdInBatch(events.stream().map(CatalogChangeEvent::eventId).toList());
+
+                Instant now = clock.instant();
+                events.forEach(event -> delay.record(Duration.between(event.occurredAt(), now)));
+                published.increment(events.size());
+                total += events.size();
+            } while (rows.size() == batchSize);
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
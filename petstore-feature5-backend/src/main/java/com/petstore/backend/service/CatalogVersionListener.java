@@ -0,0 +1,43 @@
+package com.petstore.backend.service;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Promotion;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de Product, Category y Promotion que incrementa la versión de su
+ * tabla en {@link CatalogVersions}. Hibernate lo obtiene del contexto de Spring.
+ * Las actualizaciones masivas (JPQL {@code @Modifying}) no pasan por aquí y deben
+ * incrementar la versión explícitamente.
+ */
+@Component
+public class CatalogVersionListener {
+
+    private final CatalogVersions catalogVersions;
+
+    // @Lazy: CatalogVersions usa el EntityManager, que aún no existe cuando
+    // Hibernate instancia este listener
+    public CatalogVersionListener(@Lazy CatalogVersions catalogVersions) {
+        this.catalogVersions = catalogVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        if (entity instanceof Product) {
+            catalogVersions.bump(CatalogVersions.Table.PRODUCTS);
+        } else if (entity instanceof Category) {
+            catalogVersions.bump(CatalogVersions.Table.CATEGORIES);
+        } else if (entity instanceof Promotion) {
+            catalogVersions.bump(CatalogVersions.Table.PROMOTIONS);
+        }
+    }
+}
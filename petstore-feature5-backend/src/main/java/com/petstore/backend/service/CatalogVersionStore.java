@@ -0,0 +1,120 @@
+package com.petstore.backend.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.petstore.backend.service.CatalogVersions.Table;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Versiones de las tablas del catálogo en {@code catalog_versions}, la fuente que
+ * comparten todas las instancias.
+ *
+ * Las filas de una transacción se incrementan una sola vez, en orden de tabla, tras
+ * el último flush y antes del COMMIT: el bloqueo de cada fila dura lo mínimo y dos
+ * escrituras concurrentes nunca las bloquean en orden distinto. Como el incremento va
+ * en la misma transacción que los datos, una versión nueva nunca es visible antes que
+ * los datos que la produjeron.
+ */
+@Component
+public class CatalogVersionStore {
+
+    /**
+     * Versión de una tabla y momento de su última escritura
+     */
+    public record StoredVersion(long version, Instant updatedAt) {
+    }
+
+    private static final String INCREMENT = "UPDATE public.catalog_versions "
+            + "SET version = version + 1, updated_at = ? WHERE table_name = ?";
+    private static final String INSERT_FIRST = "INSERT INTO public.catalog_versions "
+            + "(table_name, version, updated_at) VALUES (?, 1, ?) ON CONFLICT DO NOTHING";
+    private static final String SELECT_ALL =
+            "SELECT table_name, version, updated_at FROM public.catalog_versions";
+
+    // Clave de las tablas pendientes de la transacción actual
+    private final Object pendingKey = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public CatalogVersionStore(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                               PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, entityManager, transactionManager, Clock.systemUTC());
+    }
+
+    CatalogVersionStore(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                        PlatformTransactionManager transactionManager, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    /**
+     * Incrementa la versión de la tabla al confirmar la transacción actual (o en una
+     * transacción propia si no la hay) y entrega las versiones resultantes a
+     * {@code committed} después del commit.
+     */
+    public void increment(Table table, Consumer<Map<Table, StoredVersion>> committed) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            committed.accept(transactionTemplate.execute(status -> incrementAll(List.of(table))));
+            return;
+        }
+        BeforeCommit.add(entityManager, pendingKey, table, tables -> {
+            Map<Table, StoredVersion> versions = incrementAll(tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed.accept(versions);
+                }
+            });
+        });
+    }
+
+    /**
+     * Versiones guardadas de todas las tablas. Fuera de transacción, así que se leen del primario.
+     */
+    public Map<Table, StoredVersion> loadAll() {
+        Map<Table, StoredVersion> versions = new EnumMap<>(Table.class);
+        jdbcTemplate.query(SELECT_ALL, rs -> {
+            versions.put(Table.valueOf(rs.getString("table_name")), new StoredVersion(rs.getLong("version"),
+                    rs.getObject("updated_at", OffsetDateTime.class).toInstant()));
+        });
+        return versions;
+    }
+
+    private Map<Table, StoredVersion> incrementAll(Collection<Table> tables) {
+        OffsetDateTime now = OffsetDateTime.now(clock.withZone(ZoneOffset.UTC)).truncatedTo(ChronoUnit.SECONDS);
+        for (Table table : tables) {
+            if (jdbcTemplate.update(INCREMENT, now, table.name()) == 0
+                    && jdbcTemplate.update(INSERT_FIRST, table.name(), now) == 0) {
+                // Otra transacción creó la fila entre medias
+                jdbcTemplate.update(INCREMENT, now, table.name());
+            }
+        }
+        Map<Table, StoredVersion> versions = loadAll();
+        versions.keySet().retainAll(tables);
+        return versions;
+    }
+}
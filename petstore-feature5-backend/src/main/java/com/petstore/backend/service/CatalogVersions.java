@@ -0,0 +1,162 @@
+package com.petstore.backend.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.service.CatalogVersionStore.StoredVersion;
+
+/**
+ * Versión por tabla del catálogo, incrementada en cada escritura.
+ *
+ * De las versiones se derivan los ETag y Last-Modified de los endpoints REST de
+ * lectura, así que un GET condicional se responde con 304 sin consultar la base
+ * de datos. Las versiones viven en {@link CatalogVersionStore}, compartidas por
+ * todas las instancias: cada una guarda una copia que actualiza al confirmar sus
+ * propias escrituras y cada {@code catalog.versions.refresh-interval} con las de
+ * las demás. Otra instancia puede responder 304 con la versión anterior como mucho
+ * durante ese intervalo. Las escrituras por SQL fuera de la aplicación no cambian
+ * la versión.
+ *
+ * Antes de publicar una versión nueva, venga de esta instancia o de otra, se avisa
+ * con {@link Advanced} a quien deba ponerse al día con ella: ninguna petición ve el
+ * ETag nuevo mientras sus oyentes no hayan terminado.
+ */
+@Component
+public class CatalogVersions implements ApplicationEventPublisherAware {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersions.class);
+
+    public enum Table {
+        PRODUCTS, CATEGORIES, PROMOTIONS
+    }
+
+    /**
+     * ETag y fecha de última modificación de un conjunto de tablas
+     */
+    public record Snapshot(String etag, Instant lastModified) {
+    }
+
+    /**
+     * Versiones que van a publicarse, solo de las tablas que avanzan
+     */
+    public record Advanced(Map<Table, Long> versions) {
+    }
+
+    private final CatalogVersionStore store;
+    private final Clock clock;
+    private final Map<Table, AtomicReference<StoredVersion>> versions = new EnumMap<>(Table.class);
+    private volatile boolean loaded;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public CatalogVersions(CatalogVersionStore store) {
+        this(store, Clock.systemDefaultZone());
+    }
+
+    CatalogVersions(CatalogVersionStore store, Clock clock) {
+        this.store = store;
+        this.clock = clock;
+        for (Table table : Table.values()) {
+            versions.put(table, new AtomicReference<>(new StoredVersion(0, Instant.EPOCH)));
+        }
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Registra una escritura en la tabla (al confirmar la transacción actual, si la hay)
+     */
+    public void bump(Table table) {
+        store.increment(table, this::apply);
+    }
+
+    /**
+     * Lee las versiones compartidas, con las escrituras confirmadas por otras instancias.
+     * La primera lectura la hace la primera petición: sin ella se publicarían ETag de
+     * versión cero que otra instancia ya ha usado para otros datos.
+     */
+    @Scheduled(fixedDelayString = "${catalog.versions.refresh-interval:1s}",
+            initialDelayString = "${catalog.versions.refresh-interval:1s}")
+    public void refresh() {
+        try {
+            apply(store.loadAll());
+            loaded = true;
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron leer las versiones del catálogo: {}", e.getMessage());
+        }
+    }
+
+    public long version(Table table) {
+        return current(table).version();
+    }
+
+    /**
+     * Versión combinada de las tablas indicadas. Si incluye promociones también
+     * depende de la fecha actual, porque la vigencia cambia al pasar el día.
+     */
+    public Snapshot snapshot(Table... tables) {
+        StringBuilder etag = new StringBuilder("\"");
+        Instant lastModified = Instant.EPOCH;
+        boolean dateDependent = false;
+        for (Table table : tables) {
+            StoredVersion version = current(table);
+            if (etag.length() > 1) {
+                etag.append('-');
+            }
+            etag.append(Character.toLowerCase(table.name().charAt(0))).append(version.version());
+            lastModified = version.updatedAt().isAfter(lastModified) ? version.updatedAt() : lastModified;
+            dateDependent |= table == Table.PROMOTIONS;
+        }
+        if (dateDependent) {
+            LocalDate today = LocalDate.now(clock);
+            etag.append('-').append(today);
+            Instant startOfDay = today.atStartOfDay(clock.getZone()).toInstant();
+            lastModified = startOfDay.isAfter(lastModified) ? startOfDay : lastModified;
+        }
+        return new Snapshot(etag.append('"').toString(), lastModified);
+    }
+
+    private StoredVersion current(Table table) {
+        if (!loaded) {
+            refresh();
+        }
+        return versions.get(table).get();
+    }
+
+    private void apply(Map<Table, StoredVersion> stored) {
+        Map<Table, Long> advanced = new EnumMap<>(Table.class);
+        stored.forEach((table, version) -> {
+            if (version.version() > versions.get(table).get().version()) {
+                advanced.put(table, version.version());
+            }
+        });
+        if (!advanced.isEmpty() && eventPublisher != null) {
+            try {
+                eventPublisher.publishEvent(new Advanced(advanced));
+            } catch (RuntimeException e) {
+                // Se reintenta en el siguiente refresh: la versión guardada sigue por delante
+                log.warn("No se publican las versiones {} del catálogo: {}", advanced, e.getMessage());
+                return;
+            }
+        }
+        // Las versiones solo avanzan: una lectura anterior no deshace una escritura ya aplicada
+        stored.forEach((table, version) -> versions.get(table).accumulateAndGet(version,
+                (current, update) -> update.version() > current.version() ? update : current));
+    }
+}
@@ -3,7 +3,12 @@ package com.petstore.backend.service;
 import com.petstore.backend.entity.Category;
 import com.petstore.backend.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,13 +22,23 @@ public class CategoryService {
     /**
      * Encuentra todas las categorías
      */
+    @Transactional(readOnly = true)
     public List<Category> findAll() {
         return categoryRepository.findAll();
     }
 
+    /**
+     * Obtiene una página de categorías ordenada por ID a partir de un cursor (keyset)
+     */
+    @Transactional(readOnly = true)
+    public Window<Category> findPage(ScrollPosition position, int limit) {
+        return categoryRepository.findAllBy(position, Limit.of(limit), Sort.by("categoryId"));
+    }
+
     /**
      * Encuentra una categoría por ID
      */
+    @Transactional(readOnly = true)
     public Optional<Category> findById(Integer id) {
         return categoryRepository.findById(id);
     }
@@ -45,6 +60,7 @@ public class CategoryService {
     /**
      * Verifica si existe una categoría por ID
      */
+    @Transactional(readOnly = true)
     public boolean existsById(Integer id) {
         return categoryRepository.existsById(id);
     }
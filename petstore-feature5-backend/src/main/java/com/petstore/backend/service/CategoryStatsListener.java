@@ -0,0 +1,74 @@
+package com.petstore.backend.service;
+
+import java.util.Set;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de Product y Category que mantiene {@code category_stats} mediante
+ * {@link CategoryStatsService}: cada escritura de un producto pasa el producto que
+ * sale (categoría y precio guardados) y el que entra. Como {@link CatalogOutboxListener},
+ * no ve el upsert de la importación masiva, que recalcula sus categorías por su cuenta.
+ */
+@Component
+public class CategoryStatsListener {
+
+    private final CategoryStatsService categoryStatsService;
+
+    // @Lazy: el servicio usa CategoryStatsRepository, que aún no existe cuando
+    // Hibernate instancia este listener
+    public CategoryStatsListener(@Lazy CategoryStatsService categoryStatsService) {
+        this.categoryStatsService = categoryStatsService;
+    }
+
+    @PostPersist
+    public void onCreate(Object entity) {
+        if (entity instanceof Product product) {
+            categoryStatsService.productAdded(categoryIdOf(product), product.getBasePrice());
+        } else if (entity instanceof Category category) {
+            categoryStatsService.created(category.getCategoryId());
+        }
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof Product product) {
+            Integer previousCategoryId = product.getPersistedCategoryId();
+            Double previousPrice = product.getPersistedBasePrice();
+            if (previousCategoryId == null || previousPrice == null) {
+                categoryStatsService.recompute(Set.of(categoryIdOf(product)));
+                return;
+            }
+            // Sin cambio de categoría ni de precio las estadísticas no cambian
+            if (previousCategoryId.equals(categoryIdOf(product)) && previousPrice.equals(product.getBasePrice())) {
+                return;
+            }
+            categoryStatsService.productRemoved(previousCategoryId, previousPrice);
+            categoryStatsService.productAdded(categoryIdOf(product), product.getBasePrice());
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Product product) {
+            Integer persisted = product.getPersistedCategoryId();
+            Double price = product.getPersistedBasePrice();
+            categoryStatsService.productRemoved(persisted != null ? persisted : categoryIdOf(product),
+                    price != null ? price : product.getBasePrice());
+        } else if (entity instanceof Category category) {
+            categoryStatsService.removed(category.getCategoryId());
+        }
+    }
+
+    private static Integer categoryIdOf(Product product) {
+        return product.getCategory().getCategoryId();
+    }
+}
@@ -0,0 +1,299 @@
+package com.petstore.backend.service;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.petstore.backend.dto.CategoryStatsDTO;
+import com.petstore.backend.entity.CategoryStats;
+import com.petstore.backend.repository.CategoryStatsRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Estadísticas precalculadas por categoría: número de productos y precio mínimo,
+ * máximo y medio en {@code category_stats}, más las promociones activas, que salen
+ * de {@link ActivePromotionIndex}. Leerlas es una búsqueda por clave primaria.
+ *
+ * Cada escritura de productos acumula su cambio en la transacción: ±1 producto y
+ * ±precio por categoría. Tras el último flush y antes del COMMIT se bloquean las
+ * filas afectadas una sola vez, en orden de ID, y se les suma el cambio; la media
+ * sale de la suma y el número de productos. Mínimo y máximo solo se recalculan, con
+ * el índice (category_id, base_price), cuando sale un precio que era el límite.
+ * Dos transacciones que escriben en la misma categoría se serializan por el bloqueo
+ * y, como bloquean en el mismo orden, no se interbloquean.
+ */
+@Service
+public class CategoryStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryStatsService.class);
+
+    private static final String LOCK = "SELECT product_count, price_sum, min_price, max_price "
+            + "FROM public.category_stats WHERE category_id = ? FOR UPDATE";
+    private static final String INSERT_EMPTY = "INSERT INTO public.category_stats "
+            + "(category_id, product_count, price_sum, updated_at) VALUES (?, 0, 0, ?) ON CONFLICT DO NOTHING";
+    private static final String RECOMPUTE = "UPDATE public.category_stats "
+            + "SET (product_count, price_sum, min_price, max_price, avg_price) = (SELECT COUNT(*), "
+            + "COALESCE(SUM(base_price), 0), MIN(base_price), MAX(base_price), AVG(base_price) "
+            + "FROM public.products WHERE category_id = ?), updated_at = ? WHERE category_id = ?";
+    private static final String BOUNDS =
+            "SELECT MIN(base_price), MAX(base_price) FROM public.products WHERE category_id = ?";
+    private static final String UPDATE = "UPDATE public.category_stats SET product_count = ?, price_sum = ?, "
+            + "min_price = ?, max_price = ?, avg_price = ?, updated_at = ? WHERE category_id = ?";
+    private static final String DELETE = "DELETE FROM public.category_stats WHERE category_id = ?";
+    private static final String DELETE_ORPHANS = "DELETE FROM public.category_stats "
+            + "WHERE category_id NOT IN (SELECT category_id FROM public.categories)";
+
+    // Clave de los cambios pendientes de la transacción actual
+    private final Object pendingKey = new Object();
+
+    private final CategoryStatsRepository categoryStatsRepository;
+    private final ActivePromotionIndex activePromotionIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public CategoryStatsService(CategoryStatsRepository categoryStatsRepository,
+                                ActivePromotionIndex activePromotionIndex,
+                                JdbcTemplate jdbcTemplate,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager) {
+        this(categoryStatsRepository, activePromotionIndex, jdbcTemplate, entityManager, transactionManager,
+                Clock.systemUTC());
+    }
+
+    CategoryStatsService(CategoryStatsRepository categoryStatsRepository,
+                         ActivePromotionIndex activePromotionIndex,
+                         JdbcTemplate jdbcTemplate,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         Clock clock) {
+        this.categoryStatsRepository = categoryStatsRepository;
+        this.activePromotionIndex = activePromotionIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    /**
+     * Estadísticas de una categoría, o vacío si no existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<CategoryStatsDTO> getStats(Integer categoryId) {
+        return categoryStatsRepository.findById(categoryId).map(this::toDTO);
+    }
+
+    /**
+     * Estadísticas de varias categorías con una sola consulta, por ID de categoría
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, CategoryStatsDTO> getStats(Collection<Integer> categoryIds) {
+        return categoryStatsRepository.findAllById(categoryIds).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toMap(CategoryStatsDTO::getCategoryId, Function.identity()));
+    }
+
+    /**
+     * Crea la fila vacía de una categoría nueva
+     */
+    public void created(Integer categoryId) {
+        requireTransaction();
+        jdbcTemplate.update(INSERT_EMPTY, categoryId, now());
+    }
+
+    public void removed(Integer categoryId) {
+        requireTransaction();
+        // Sus productos ya se borraron: no queda nada que aplicar a la fila
+        SortedMap<?, ?> pending = (SortedMap<?, ?>) TransactionSynchronizationManager.getResource(pendingKey);
+        if (pending != null) {
+            pending.remove(categoryId);
+        }
+        jdbcTemplate.update(DELETE, categoryId);
+    }
+
+    /**
+     * Suma un producto con ese precio a la categoría al confirmar la transacción actual
+     */
+    public void productAdded(Integer categoryId, double price) {
+        requireTransaction();
+        pending(categoryId).add(price);
+    }
+
+    /**
+     * Resta un producto con ese precio de la categoría al confirmar la transacción actual
+     */
+    public void productRemoved(Integer categoryId, double price) {
+        requireTransaction();
+        pending(categoryId).remove(price);
+    }
+
+    /**
+     * Recalcula las categorías indicadas al confirmar la transacción actual, con todos
+     * sus productos. Para escrituras que no conocen los precios anteriores (la
+     * importación masiva).
+     */
+    public void recompute(Collection<Integer> categoryIds) {
+        requireTransaction();
+        categoryIds.forEach(categoryId -> pending(categoryId).recompute = true);
+    }
+
+    /**
+     * Recalcula todas las categorías, una transacción por categoría, y borra las filas
+     * de categorías que ya no existen. Corrige lo escrito por SQL fuera de la aplicación
+     * y el error de redondeo que acumule la suma de precios.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${catalog.stats.rebuild-cron:0 45 3 * * *}")
+    public void recomputeAll() {
+        long start = System.nanoTime();
+        List<Integer> categoryIds = jdbcTemplate.queryForList(
+                "SELECT category_id FROM public.categories ORDER BY category_id", Integer.class);
+        for (Integer categoryId : categoryIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                OffsetDateTime now = now();
+                lock(categoryId, now);
+                jdbcTemplate.update(RECOMPUTE, categoryId, now, categoryId);
+            });
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(DELETE_ORPHANS));
+        log.info("Estadísticas de {} categorías recalculadas en {} ms",
+                categoryIds.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Delta pending(Integer categoryId) {
+        return BeforeCommit.<SortedMap<Integer, Delta>>pending(entityManager, pendingKey, TreeMap::new, this::apply)
+                .computeIfAbsent(categoryId, id -> new Delta());
+    }
+
+    /**
+     * Aplica los cambios de la transacción, tras el último flush, bloqueando cada fila
+     * en orden de ID
+     */
+    private void apply(SortedMap<Integer, Delta> pending) {
+        OffsetDateTime now = now();
+        pending.forEach((categoryId, delta) -> {
+            Stored stored = lock(categoryId, now);
+            if (stored == null || delta.recompute) {
+                // Fila recién creada (categoría escrita por SQL, p. ej. con data-seed.sql)
+                // o cambio sin precios anteriores: se agregan sus productos, ya con los de esta transacción
+                jdbcTemplate.update(RECOMPUTE, categoryId, now, categoryId);
+                return;
+            }
+            if (delta.isEmpty()) {
+                return;
+            }
+            long count = stored.count() + delta.count;
+            if (count <= 0) {
+                jdbcTemplate.update(UPDATE, 0, 0.0, null, null, null, now, categoryId);
+                return;
+            }
+            double sum = stored.sum() + delta.sum;
+            Double min = stored.min();
+            Double max = stored.max();
+            if (min == null || max == null || delta.removedMin <= min || delta.removedMax >= max) {
+                // Ha salido un precio que era el mínimo o el máximo: se buscan los nuevos en el índice
+                Double[] bounds = jdbcTemplate.queryForObject(BOUNDS, (rs, row) -> new Double[] {
+                        rs.getObject(1, Double.class), rs.getObject(2, Double.class) }, categoryId);
+                min = bounds[0];
+                max = bounds[1];
+            } else {
+                min = Math.min(min, delta.addedMin);
+                max = Math.max(max, delta.addedMax);
+            }
+            jdbcTemplate.update(UPDATE, count, sum, min, max, sum / count, now, categoryId);
+        });
+    }
+
+    /**
+     * Bloquea la fila de la categoría y devuelve sus valores, o null si no existía y se
+     * ha creado vacía
+     */
+    private Stored lock(Integer categoryId, OffsetDateTime now) {
+        List<Stored> rows = jdbcTemplate.query(LOCK, (rs, row) -> new Stored(rs.getLong(1), rs.getDouble(2),
+                rs.getObject(3, Double.class), rs.getObject(4, Double.class)), categoryId);
+        if (!rows.isEmpty()) {
+            return rows.get(0);
+        }
+        jdbcTemplate.update(INSERT_EMPTY, categoryId, now);
+        jdbcTemplate.queryForList(LOCK, categoryId);
+        return null;
+    }
+
+    private record Stored(long count, double sum, Double min, Double max) {
+    }
+
+    /**
+     * Cambio acumulado de una categoría en la transacción: productos y suma de precios,
+     * y los precios extremos que entran y salen
+     */
+    private static final class Delta {
+
+        long count;
+        double sum;
+        double addedMin = Double.POSITIVE_INFINITY;
+        double addedMax = Double.NEGATIVE_INFINITY;
+        double removedMin = Double.POSITIVE_INFINITY;
+        double removedMax = Double.NEGATIVE_INFINITY;
+        boolean recompute;
+
+        void add(double price) {
+            count++;
+            sum += price;
+            addedMin = Math.min(addedMin, price);
+            addedMax = Math.max(addedMax, price);
+        }
+
+        void remove(double price) {
+            count--;
+            sum -= price;
+            removedMin = Math.min(removedMin, price);
+            removedMax = Math.max(removedMax, price);
+        }
+
+        boolean isEmpty() {
+            return addedMin == Double.POSITIVE_INFINITY && removedMin == Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private CategoryStatsDTO toDTO(CategoryStats stats) {
+        return new CategoryStatsDTO(stats.getCategoryId(), stats.getProductCount(), stats.getMinPrice(),
+                stats.getMaxPrice(), stats.getAvgPrice(),
+                activePromotionIndex.getActivePromotionsByCategory(stats.getCategoryId()).size(),
+                stats.getUpdatedAt());
+    }
+
+    private OffsetDateTime now() {
+        return OffsetDateTime.now(clock.withZone(ZoneOffset.UTC));
+    }
+
+    private static void requireTransaction() {
+        // Fuera de una transacción no se podría bloquear la fila hasta confirmar el cambio
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Las estadísticas de categoría se recalculan dentro de la transacción del cambio");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.petstore.backend.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Promotion;
+
+/**
+ * Calcula el precio efectivo de los productos: precio base menos el mejor
+ * descuento aplicable, ya sea la promoción asociada directamente al producto
+ * o una promoción de su categoría.
+ *
+ * El descuento ({@code discountValue}) se interpreta como porcentaje:
+ * {@code basePrice - basePrice * discountValue / 100}. Las promociones se
+ * resuelven contra {@link ActivePromotionIndex}, así que el cálculo de una
+ * página completa no consulta la base de datos.
+ */
+@Service
+public class PricingService {
+
+    private final ActivePromotionIndex activePromotionIndex;
+
+    public PricingService(ActivePromotionIndex activePromotionIndex) {
+        this.activePromotionIndex = activePromotionIndex;
+    }
+
+    /**
+     * Precio efectivo de un producto
+     */
+    public double effectivePrice(Product product) {
+        return effectivePrices(List.of(product))[0];
+    }
+
+    /**
+     * Precios efectivos de una lista de productos, en el mismo orden.
+     * Resuelve el mejor descuento de cada categoría una sola vez por llamada.
+     */
+    public double[] effectivePrices(List<? extends Product> products) {
+        int size = products.size();
+        double[] basePrices = new double[size];
+        double[] discounts = new double[size];
+        Map<Integer, Double> bestByCategory = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            Double basePrice = product.getBasePrice();
+            basePrices[i] = basePrice == null ? 0.0 : basePrice;
+
+            double best = directDiscount(product);
+            Category category = product.getCategory();
+            if (category != null && category.getCategoryId() != null) {
+                best = Math.max(best, bestByCategory.computeIfAbsent(category.getCategoryId(), this::bestCategoryDiscount));
+            }
+            discounts[i] = best;
+        }
+
+        double[] prices = new double[size];
+        applyDiscounts(basePrices, discounts, prices);
+        return prices;
+    }
+
+    /**
+     * Aplica los porcentajes de descuento sobre los precios base y redondea a centavos.
+     * Los descuentos fuera de [0, 100] se acotan a ese rango.
+     */
+    static void applyDiscounts(double[] basePrices, double[] discounts, double[] out) {
+        for (int i = 0; i < basePrices.length; i++) {
+            double discount = Math.min(100.0, Math.max(0.0, discounts[i]));
+            out[i] = Math.round(basePrices[i] * (100.0 - discount)) / 100.0;
+        }
+    }
+
+    private double directDiscount(Product product) {
+        Promotion promotion = product.getPromotion();
+        if (promotion == null) {
+            return 0.0;
+        }
+        // getPromotionId() sobre el proxy LAZY no inicializa la entidad
+        Promotion active = activePromotionIndex.findActive(promotion.getPromotionId());
+        return discountOf(active);
+    }
+
+    private double bestCategoryDiscount(Integer categoryId) {
+        double best = 0.0;
+        for (Promotion promotion : activePromotionIndex.getActivePromotionsByCategory(categoryId)) {
+            best = Math.max(best, discountOf(promotion));
+        }
+        return best;
+    }
+
+    private static double discountOf(Promotion promotion) {
+        if (promotion == null || promotion.getDiscountValue() == null) {
+            return 0.0;
+        }
+        return promotion.getDiscountValue();
+    }
+}
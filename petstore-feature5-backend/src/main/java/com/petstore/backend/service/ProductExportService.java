@@ -0,0 +1,219 @@
+package com.petstore.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Exporta el catálogo completo de productos en NDJSON o CSV con memoria constante.
+ *
+ * Los productos se leen con un cursor de solo avance ({@link ProductRepository#streamAllForExport()})
+ * y se escriben por lotes del tamaño del fetch size: cada lote calcula sus precios
+ * efectivos, se vuelca a la salida y se limpia el contexto de persistencia, así que
+ * ni la lista ni las entidades gestionadas crecen con el catálogo.
+ */
+@Service
+public class ProductExportService {
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static final String[] COLUMNS = {
+            "productId", "productName", "sku", "basePrice", "effectivePrice", "categoryId", "categoryName", "promotionId"
+    };
+
+    private final ProductRepository productRepository;
+    private final PricingService pricingService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductRepository productRepository,
+                                PricingService pricingService,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.pricingService = pricingService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escribe todos los productos en la salida, ordenados por ID, y devuelve cuántos se exportaron.
+     * La salida no se cierra.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        RowWriter writer = format == Format.NDJSON ? new NdjsonWriter(out) : new CsvWriter(out);
+        List<Product> chunk = new ArrayList<>(ProductRepository.EXPORT_FETCH_SIZE);
+        long exported = 0;
+
+        try (Stream<Product> products = productRepository.streamAllForExport()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == ProductRepository.EXPORT_FETCH_SIZE) {
+                    exported += writeChunk(chunk, writer);
+                }
+            }
+            exported += writeChunk(chunk, writer);
+        }
+        writer.finish();
+        return exported;
+    }
+
+    private int writeChunk(List<Product> chunk, RowWriter writer) throws IOException {
+        double[] effectivePrices = pricingService.effectivePrices(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            writer.write(chunk.get(i), effectivePrices[i]);
+        }
+        writer.flush();
+        // Las entidades ya escritas no se vuelven a usar
+        entityManager.clear();
+        int written = chunk.size();
+        chunk.clear();
+        return written;
+    }
+
+    private interface RowWriter {
+        void write(Product product, double effectivePrice) throws IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cada objeto termina en su propio salto de línea, sin el espacio que Jackson pone entre valores raíz
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Product product, double effectivePrice) throws IOException {
+            Category category = product.getCategory();
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], product.getProductId());
+            generator.writeStringField(COLUMNS[1], product.getProductName());
+            generator.writeNumberField(COLUMNS[2], product.getSku());
+            generator.writeNumberField(COLUMNS[3], product.getBasePrice());
+            generator.writeNumberField(COLUMNS[4], effectivePrice);
+            generator.writeNumberField(COLUMNS[5], category.getCategoryId());
+            generator.writeStringField(COLUMNS[6], category.getCategoryName());
+            if (product.getPromotion() != null) {
+                generator.writeNumberField(COLUMNS[7], product.getPromotion().getPromotionId());
+            } else {
+                generator.writeNullField(COLUMNS[7]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Product product, double effectivePrice) throws IOException {
+            Category category = product.getCategory();
+            writer.write(String.valueOf(product.getProductId()));
+            writer.write(',');
+            writer.write(escape(product.getProductName()));
+            writer.write(',');
+            writer.write(String.valueOf(product.getSku()));
+            writer.write(',');
+            writer.write(String.valueOf(product.getBasePrice()));
+            writer.write(',');
+            writer.write(String.valueOf(effectivePrice));
+            writer.write(',');
+            writer.write(String.valueOf(category.getCategoryId()));
+            writer.write(',');
+            writer.write(escape(category.getCategoryName()));
+            writer.write(',');
+            if (product.getPromotion() != null) {
+                writer.write(String.valueOf(product.getPromotion().getPromotionId()));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * Entrecomilla el valor (RFC 4180) si contiene separadores, comillas o saltos de línea
+         */
+        static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.petstore.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petstore.backend.entity.CatalogOutboxEvent.Aggregate;
+import com.petstore.backend.entity.CatalogOutboxEvent.Change;
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+import com.petstore.backend.repository.PromotionRepository;
+
+/**
+ * Importación masiva de productos desde archivos de proveedores (CSV o NDJSON,
+ * los mismos formatos que produce {@link ProductExportService}).
+ *
+ * El archivo se lee línea a línea y se valida en memoria contra las categorías y
+ * promociones existentes. Las filas válidas se escriben por lotes con un upsert
+ * JDBC por SKU en un hilo aparte, de modo que el siguiente lote se parsea y valida
+ * mientras el anterior se escribe. Hibernate no agrupa los INSERT de
+ * {@code Product} porque su ID es IDENTITY, por eso se usa {@link JdbcTemplate}.
+ *
+ * Cada lote es una transacción: si falla, se reintenta fila a fila para que el
+ * informe indique exactamente qué filas no se pudieron guardar.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO public.products (product_name, base_price, sku, category_id, promotion_id) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (sku) DO UPDATE SET product_name = EXCLUDED.product_name, "
+            + "base_price = EXCLUDED.base_price, category_id = EXCLUDED.category_id, promotion_id = EXCLUDED.promotion_id";
+    // H2 (tests) no admite ON CONFLICT ... DO UPDATE; MERGE ... KEY hace lo mismo
+    private static final String MERGE_UPSERT =
+            "MERGE INTO public.products (product_name, base_price, sku, category_id, promotion_id) "
+            + "KEY (sku) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Error de una fila del archivo (la cabecera CSV es la línea 1)
+     */
+    public record RowError(long line, Integer sku, String message) {
+    }
+
+    /**
+     * Resultado de una importación. {@code errors} se limita a {@value #MAX_REPORTED_ERRORS} filas.
+     */
+    public record ImportReport(long processed, long imported, long failed, List<RowError> errors,
+                               boolean errorsTruncated, long elapsedMillis, double rowsPerSecond) {
+    }
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final PromotionRepository promotionRepository;
+    private final CatalogVersions catalogVersions;
+    private final CatalogOutbox catalogOutbox;
+    private final CategoryStatsService categoryStatsService;
+    private final ProductSearchIndex productSearchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor writeExecutor;
+    private volatile String upsertSql;
+
+    public ProductImportService(ProductRepository productRepository,
+                                CategoryRepository categoryRepository,
+                                PromotionRepository promotionRepository,
+                                CatalogVersions catalogVersions,
+                                CatalogOutbox catalogOutbox,
+                                CategoryStatsService categoryStatsService,
+                                ProductSearchIndex productSearchIndex,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor writeExecutor) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.promotionRepository = promotionRepository;
+        this.catalogVersions = catalogVersions;
+        this.catalogOutbox = catalogOutbox;
+        this.categoryStatsService = categoryStatsService;
+        this.productSearchIndex = productSearchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.writeExecutor = writeExecutor;
+    }
+
+    /**
+     * Crea o actualiza (por SKU) los productos del archivo. La entrada no se cierra.
+     */
+    public ImportReport importProducts(ProductExportService.Format format, InputStream in) throws IOException {
+        long start = System.nanoTime();
+        References references = loadReferences();
+        Progress progress = new Progress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource source = format == ProductExportService.Format.NDJSON ? new NdjsonSource(reader) : new CsvSource(reader);
+
+        CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+        List<ValidRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        try {
+            ParsedRow parsed;
+            while ((parsed = source.next()) != null) {
+                progress.processed();
+                ValidRow valid = validate(parsed, references, progress);
+                if (valid != null) {
+                    chunk.add(valid);
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    pendingWrite = submit(pendingWrite, chunk, progress);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pendingWrite = submit(pendingWrite, chunk, progress);
+            }
+        } finally {
+            await(pendingWrite);
+        }
+
+        ImportReport report = progress.report(System.nanoTime() - start);
+        log.info("Importación de productos ({}): {} filas, {} guardadas, {} con error en {} ms ({} filas/s)",
+                format, report.processed(), report.imported(), report.failed(), report.elapsedMillis(),
+                Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Espera a que termine la escritura anterior y lanza la del lote dado, así hay
+     * como mucho un lote escribiéndose y otro llenándose
+     */
+    private CompletableFuture<Void> submit(CompletableFuture<Void> pendingWrite, List<ValidRow> rows, Progress progress) {
+        await(pendingWrite);
+        return CompletableFuture.runAsync(() -> writeChunk(rows, progress), writeExecutor);
+    }
+
+    private static void await(CompletableFuture<Void> write) {
+        try {
+            write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void writeChunk(List<ValidRow> rows, Progress progress) {
+        String sql = upsertSql();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Integer> skus = rows.stream().map(ValidRow::sku).toList();
+                Set<Integer> categoryIds = previousCategoryIds(skus);
+                jdbcTemplate.batchUpdate(sql, rows, rows.size(), ProductImportService::bind);
+                rows.forEach(row -> categoryIds.add(row.categoryId()));
+                afterWrite(skus, categoryIds);
+            });
+            progress.imported(rows.size());
+        } catch (DataAccessException batchFailure) {
+            log.debug("Lote de {} productos rechazado, se reintenta fila a fila: {}", rows.size(), batchFailure.getMessage());
+            for (ValidRow row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Set<Integer> categoryIds = previousCategoryIds(List.of(row.sku()));
+                        jdbcTemplate.update(sql, ps -> bind(ps, row));
+                        categoryIds.add(row.categoryId());
+                        afterWrite(List.of(row.sku()), categoryIds);
+                    });
+                    progress.imported(1);
+                } catch (DataAccessException e) {
+                    progress.rejected(row.line(), row.sku(), e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * El upsert JDBC no pasa por los listeners JPA: se reindexan los productos escritos
+     * (leídos en la misma transacción para conocer su ID), se registran en el outbox
+     * como actualizados, se marcan para recalcular las estadísticas de sus categorías
+     * (las nuevas y las que tenían antes del upsert) y se incrementa la versión. Las
+     * estadísticas se recalculan justo antes del COMMIT; índice y versión se aplican al
+     * confirmar, el índice primero.
+     */
+    private void afterWrite(List<Integer> skus, Set<Integer> categoryIds) {
+        List<Product> written = productRepository.findBySkuIn(skus);
+        productSearchIndex.updateAll(written);
+        catalogOutbox.recordAll(Aggregate.PRODUCT, written.stream().map(Product::getProductId).toList(), Change.UPDATED);
+        categoryStatsService.recompute(categoryIds);
+        catalogVersions.bump(CatalogVersions.Table.PRODUCTS);
+    }
+
+    private Set<Integer> previousCategoryIds(List<Integer> skus) {
+        return new HashSet<>(productRepository.findCategoryIdsBySkuIn(skus));
+    }
+
+    private static void bind(PreparedStatement ps, ValidRow row) throws SQLException {
+        ps.setString(1, row.productName());
+        ps.setDouble(2, row.basePrice());
+        ps.setInt(3, row.sku());
+        ps.setInt(4, row.categoryId());
+        if (row.promotionId() != null) {
+            ps.setInt(5, row.promotionId());
+        } else {
+            ps.setNull(5, Types.INTEGER);
+        }
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            sql = "PostgreSQL".equalsIgnoreCase(database) ? POSTGRES_UPSERT : MERGE_UPSERT;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+    private References loadReferences() {
+        List<Category> categories = categoryRepository.findAll();
+        Map<String, Integer> categoryIdsByName = new HashMap<>();
+        categories.forEach(category -> categoryIdsByName.put(category.getCategoryName(), category.getCategoryId()));
+        return new References(
+                categories.stream().map(Category::getCategoryId).collect(Collectors.toUnmodifiableSet()),
+                Map.copyOf(categoryIdsByName),
+                Set.copyOf(promotionRepository.findAllIds()));
+    }
+
+    private static ValidRow validate(ParsedRow parsed, References references, Progress progress) {
+        ImportRow row = parsed.row();
+        String error = parsed.error() != null ? parsed.error() : validationError(row, references);
+        if (error != null) {
+            progress.rejected(parsed.line(), row != null ? row.sku() : null, error);
+            return null;
+        }
+        Integer categoryId = row.categoryId() != null ? row.categoryId() : references.categoryIdsByName().get(row.categoryName());
+        return new ValidRow(parsed.line(), row.productName().trim(), row.basePrice(), row.sku(), categoryId, row.promotionId());
+    }
+
+    private static String validationError(ImportRow row, References references) {
+        if (row.sku() == null || row.sku() <= 0) {
+            return "sku es obligatorio y debe ser positivo";
+        }
+        if (row.productName() == null || row.productName().isBlank()) {
+            return "productName es obligatorio";
+        }
+        if (row.productName().trim().length() > MAX_NAME_LENGTH) {
+            return "productName supera " + MAX_NAME_LENGTH + " caracteres";
+        }
+        if (row.basePrice() == null || !Double.isFinite(row.basePrice()) || row.basePrice() <= 0) {
+            return "basePrice debe ser un número mayor que 0";
+        }
+        if (row.categoryId() != null) {
+            if (!references.categoryIds().contains(row.categoryId())) {
+                return "La categoría " + row.categoryId() + " no existe";
+            }
+        } else if (row.categoryName() == null || row.categoryName().isBlank()) {
+            return "categoryId o categoryName es obligatorio";
+        } else if (!references.categoryIdsByName().containsKey(row.categoryName())) {
+            return "La categoría '" + row.categoryName() + "' no existe";
+        }
+        if (row.promotionId() != null && !references.promotionIds().contains(row.promotionId())) {
+            return "La promoción " + row.promotionId() + " no existe";
+        }
+        return null;
+    }
+
+    /**
+     * Fila del archivo tal como llega; las columnas de la exportación que no se importan se ignoran
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ImportRow(Integer sku, String productName, Double basePrice, Integer categoryId,
+                     String categoryName, Integer promotionId) {
+    }
+
+    private record ParsedRow(long line, ImportRow row, String error) {
+    }
+
+    private record ValidRow(long line, String productName, double basePrice, int sku, int categoryId,
+                            Integer promotionId) {
+    }
+
+    private record References(Set<Integer> categoryIds, Map<String, Integer> categoryIdsByName,
+                              Set<Integer> promotionIds) {
+    }
+
+    /**
+     * Contadores y errores compartidos entre el hilo que parsea y el que escribe
+     */
+    private static final class Progress {
+
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        synchronized void processed() {
+            processed++;
+        }
+
+        synchronized void imported(int rows) {
+            imported += rows;
+        }
+
+        synchronized void rejected(long line, Integer sku, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, sku, message));
+            }
+        }
+
+        synchronized ImportReport report(long elapsedNanos) {
+            // Los errores de escritura llegan después de los de validación del lote siguiente
+            List<RowError> sorted = errors.stream().sorted(Comparator.comparingLong(RowError::line)).toList();
+            long elapsedMillis = elapsedNanos / 1_000_000;
+            double rowsPerSecond = elapsedNanos > 0 ? processed * 1_000_000_000.0 / elapsedNanos : 0;
+            return new ImportReport(processed, imported, failed, sorted, failed > errors.size(), elapsedMillis, rowsPerSecond);
+        }
+    }
+
+    private interface RowSource {
+        /**
+         * Siguiente fila del archivo, o null al terminar
+         */
+        ParsedRow next() throws IOException;
+    }
+
+    private final class NdjsonSource implements RowSource {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ParsedRow(line, objectMapper.readValue(text, ImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ParsedRow(line, null, "JSON inválido: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class CsvSource implements RowSource {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line;
+        private long recordStart;
+
+        CsvSource(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim(), i);
+                }
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            long recordLine = recordStart;
+            try {
+                ImportRow row = new ImportRow(
+                        integer(values, "sku"),
+                        text(values, "productName"),
+                        number(values, "basePrice"),
+                        integer(values, "categoryId"),
+                        text(values, "categoryName"),
+                        integer(values, "promotionId"));
+                return new ParsedRow(recordLine, row, null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(recordLine, null, "Valor numérico inválido: " + e.getMessage());
+            }
+        }
+
+        private String text(List<String> values, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+                return null;
+            }
+            return values.get(index);
+        }
+
+        private Integer integer(List<String> values, String column) {
+            String value = text(values, column);
+            return value == null ? null : Integer.valueOf(value.trim());
+        }
+
+        private Double number(List<String> values, String column) {
+            String value = text(values, column);
+            return value == null ? null : Double.valueOf(value.trim());
+        }
+
+        /**
+         * Lee un registro RFC 4180; un campo entre comillas puede ocupar varias líneas.
+         * Devuelve null al final del archivo.
+         */
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            recordStart = line;
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    String continuation = reader.readLine();
+                    if (continuation == null) {
+                        break;
+                    }
+                    line++;
+                    field.append('\n');
+                    text = continuation;
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            values.add(field.toString());
+            return values;
+        }
+    }
+}
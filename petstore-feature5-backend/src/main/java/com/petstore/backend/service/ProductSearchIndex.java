@@ -0,0 +1,448 @@
+package com.petstore.backend.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Índice de búsqueda de texto completo sobre el nombre de los productos (Lucene en memoria).
+ *
+ * Cada término buscado coincide de forma exacta o, si no aparece en el índice, con
+ * errores de escritura (búsqueda difusa por distancia de edición); el último término
+ * también por prefijo, para autocompletar mientras se escribe. Los resultados se
+ * ordenan por relevancia (BM25) y se filtran por categoría y rango de precio. El
+ * índice solo devuelve IDs: los productos se cargan después por clave primaria.
+ *
+ * Se construye completo al arrancar y cada noche, y se mantiene al día con las
+ * escrituras JPA ({@link ProductSearchListener}) y la importación masiva, aplicadas
+ * al confirmar la transacción. Una reconstrucción llena un índice nuevo y lo publica
+ * de golpe; las escrituras que llegan mientras tanto se aplican a ambos.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    static final String ID = "id";
+    static final String NAME = "name";
+    static final String CATEGORY_ID = "categoryId";
+    static final String PRICE = "price";
+
+    private static final float EXACT_BOOST = 3f;
+    private static final float PREFIX_BOOST = 2f;
+    // Los términos cortos no admiten errores: con tan pocas letras casi todo estaría a 1 edición
+    private static final int FUZZY_MIN_LENGTH = 4;
+    private static final int FUZZY_TWO_EDITS_MIN_LENGTH = 8;
+
+    /**
+     * Búsqueda: texto libre más filtros opcionales. El límite se ajusta a [1, {@value #MAX_LIMIT}].
+     */
+    public record Criteria(String text, Integer categoryId, Double minPrice, Double maxPrice, int limit) {
+        public Criteria {
+            limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Analyzer analyzer = new ProductNameAnalyzer();
+    // Serializa las escrituras entre sí y con la publicación de un índice reconstruido
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Index index;
+    // Cambios recibidos durante una reconstrucción (null = borrado); null si no hay ninguna en curso
+    private Map<Integer, Document> pendingDuringRebuild;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.index = new Index(analyzer);
+
+        Gauge.builder("products.search.index.size", this, ProductSearchIndex::size)
+                .description("Productos en el índice de búsqueda")
+                .register(meterRegistry);
+    }
+
+    /**
+     * IDs de los productos que coinciden, del más al menos relevante
+     */
+    public List<Integer> search(Criteria criteria) {
+        List<String> terms = analyze(criteria.text());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return search(index, terms, criteria);
+        } catch (AlreadyClosedException e) {
+            // Una reconstrucción acaba de reemplazar el índice
+            return search(index, terms, criteria);
+        }
+    }
+
+    /**
+     * Indexa (o reindexa) el producto al confirmar la transacción actual
+     */
+    public void update(Product product) {
+        Map<Integer, Document> change = Collections.singletonMap(product.getProductId(), document(product));
+        afterCommit(() -> apply(change));
+    }
+
+    /**
+     * Indexa varios productos de una vez, con un solo refresco del buscador
+     */
+    public void updateAll(Collection<? extends Product> products) {
+        Map<Integer, Document> changes = new HashMap<>();
+        products.forEach(product -> changes.put(product.getProductId(), document(product)));
+        afterCommit(() -> apply(changes));
+    }
+
+    /**
+     * Quita el producto del índice al confirmar la transacción actual
+     */
+    public void remove(Integer productId) {
+        Map<Integer, Document> change = Collections.singletonMap(productId, null);
+        afterCommit(() -> apply(change));
+    }
+
+    /**
+     * Reconstruye el índice completo desde la base de datos y lo publica de forma atómica.
+     * Al arrancar se ejecuta antes de que la aplicación se declare lista (readiness).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${search.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            log.debug("Reconstrucción del índice de búsqueda ya en curso");
+            return;
+        }
+        Index fresh = new Index(analyzer);
+        try {
+            withWriteLock(() -> pendingDuringRebuild = new HashMap<>());
+            long start = System.nanoTime();
+            Long indexed = readOnlyTransaction.execute(status -> load(fresh));
+
+            Index previous = index;
+            withWriteLock(() -> {
+                fresh.write(pendingDuringRebuild);
+                pendingDuringRebuild = null;
+                index = fresh;
+            });
+            previous.close();
+            log.info("Índice de búsqueda reconstruido: {} productos en {} ms",
+                    indexed, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Se sigue sirviendo el índice anterior, al día con las escrituras incrementales
+            withWriteLock(() -> pendingDuringRebuild = null);
+            fresh.close();
+            log.error("No se pudo reconstruir el índice de búsqueda: {}", e.getMessage(), e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        index.close();
+    }
+
+    /**
+     * Número de productos en el índice
+     */
+    public int size() {
+        try {
+            return index.size();
+        } catch (AlreadyClosedException e) {
+            return index.size();
+        }
+    }
+
+    private long load(Index target) {
+        long indexed = 0;
+        try (Stream<Product> products = productRepository.streamAllForExport()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                target.add(document(product));
+                if (++indexed % ProductRepository.EXPORT_FETCH_SIZE == 0) {
+                    // Las entidades ya indexadas no se vuelven a usar
+                    entityManager.clear();
+                }
+            }
+        }
+        target.refresh();
+        return indexed;
+    }
+
+    private void apply(Map<Integer, Document> changes) {
+        withWriteLock(() -> {
+            index.write(changes);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.putAll(changes);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static List<Integer> search(Index target, List<String> terms, Criteria criteria) {
+        SearcherManager searchers = target.searchers;
+        try {
+            IndexSearcher searcher = searchers.acquire();
+            try {
+                TopDocs top = searcher.search(query(terms, criteria, searcher.getIndexReader()), criteria.limit());
+                StoredFields storedFields = searcher.storedFields();
+                List<Integer> ids = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc hit : top.scoreDocs) {
+                    ids.add(Integer.valueOf(storedFields.document(hit.doc).get(ID)));
+                }
+                return ids;
+            } finally {
+                searchers.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cada término debe coincidir; los filtros no puntúan. Un término que no aparece en
+     * ningún nombre se busca con errores de escritura, y el último (el que se está
+     * escribiendo) también por prefijo. Así un término ya correcto no expande a todas
+     * sus variantes, que es lo que más cuesta con catálogos grandes.
+     */
+    static Query query(List<String> terms, Criteria criteria, IndexReader reader) throws IOException {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            Term nameTerm = new Term(NAME, term);
+            BooleanQuery.Builder alternatives = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(nameTerm), EXACT_BOOST), BooleanClause.Occur.SHOULD);
+            if (i == terms.size() - 1) {
+                alternatives.add(new BoostQuery(new PrefixQuery(nameTerm), PREFIX_BOOST), BooleanClause.Occur.SHOULD);
+            }
+            if (term.length() >= FUZZY_MIN_LENGTH && reader.docFreq(nameTerm) == 0) {
+                int maxEdits = term.length() >= FUZZY_TWO_EDITS_MIN_LENGTH ? 2 : 1;
+                alternatives.add(new FuzzyQuery(nameTerm, maxEdits, 1), BooleanClause.Occur.SHOULD);
+            }
+            query.add(alternatives.build(), BooleanClause.Occur.MUST);
+        }
+        if (criteria.categoryId() != null) {
+            query.add(IntField.newExactQuery(CATEGORY_ID, criteria.categoryId()), BooleanClause.Occur.FILTER);
+        }
+        if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+            double min = criteria.minPrice() != null ? criteria.minPrice() : Double.NEGATIVE_INFINITY;
+            double max = criteria.maxPrice() != null ? criteria.maxPrice() : Double.POSITIVE_INFINITY;
+            query.add(DoubleField.newRangeQuery(PRICE, min, max), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        try (TokenStream tokens = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static Document document(Product product) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(product.getProductId()), Field.Store.YES));
+        document.add(new TextField(NAME, product.getProductName(), Field.Store.NO));
+        if (product.getCategory() != null) {
+            document.add(new IntField(CATEGORY_ID, product.getCategory().getCategoryId(), Field.Store.NO));
+        }
+        if (product.getBasePrice() != null) {
+            document.add(new DoubleField(PRICE, product.getBasePrice(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    /**
+     * Nombres en minúsculas y sin acentos, para que "categoria" encuentre "Categoría"
+     */
+    static final class ProductNameAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            StandardTokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+
+    /**
+     * Directorio, escritor y buscadores de una generación del índice
+     */
+    private static final class Index implements Closeable {
+
+        private final IndexWriter writer;
+        private final SearcherManager searchers;
+
+        Index(Analyzer analyzer) {
+            try {
+                this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+                this.searchers = new SearcherManager(writer, null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void add(Document document) {
+            try {
+                writer.addDocument(document);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void write(Map<Integer, Document> changes) {
+            try {
+                for (Map.Entry<Integer, Document> change : changes.entrySet()) {
+                    Term id = new Term(ID, String.valueOf(change.getKey()));
+                    if (change.getValue() == null) {
+                        writer.deleteDocuments(id);
+                    } else {
+                        writer.updateDocument(id, change.getValue());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            refresh();
+        }
+
+        void refresh() {
+            try {
+                searchers.maybeRefreshBlocking();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        int size() {
+            try {
+                IndexSearcher searcher = searchers.acquire();
+                try {
+                    return searcher.getIndexReader().numDocs();
+                } finally {
+                    searchers.release(searcher);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                searchers.close();
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.petstore.backend.service;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.entity.Product;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de Product que mantiene al día el {@link ProductSearchIndex}.
+ * Los cambios se aplican al índice cuando se confirma la transacción.
+ */
+@Component
+public class ProductSearchListener {
+
+    private final ProductSearchIndex productSearchIndex;
+
+    // Hibernate crea el listener al construir el EntityManagerFactory, antes de que
+    // existan los repositorios de los que depende el índice
+    public ProductSearchListener(@Lazy ProductSearchIndex productSearchIndex) {
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Product product) {
+        productSearchIndex.update(product);
+    }
+
+    @PostRemove
+    public void onRemove(Product product) {
+        productSearchIndex.remove(product.getProductId());
+    }
+}
@@ -4,29 +4,53 @@ package com.petstore.backend.service;
 import com.petstore.backend.entity.Product;
 import com.petstore.backend.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "service.calls", description = "Llamadas a los métodos públicos de los servicios")
 @Transactional
 public class ProductService {
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
     /**
      * Encuentra todos los productos
      */
+    @Transactional(readOnly = true)
     public List<Product> findAll() {
         return productRepository.findAll();
     }
 
+    /**
+     * Obtiene una página de productos ordenada por ID a partir de un cursor (keyset)
+     */
+    @Transactional(readOnly = true)
+    public Window<Product> findPage(ScrollPosition position, int limit) {
+        return productRepository.findAllBy(position, Limit.of(limit), Sort.by("productId"));
+    }
+
     /**
      * Encuentra productos por ID de categoría
      */
+    @Transactional(readOnly = true)
     public List<Product> findByCategoryId(Integer categoryId) {
         return productRepository.findByCategoryCategoryId(categoryId);
     }
@@ -34,6 +58,7 @@ public class ProductService {
     /**
      * Encuentra un producto por ID
      */
+    @Transactional(readOnly = true)
     public Optional<Product> findById(Integer id) {
         return productRepository.findById(id);
     }
@@ -55,13 +80,30 @@ public class ProductService {
     /**
      * Busca productos por nombre que contenga el texto
      */
+    @Transactional(readOnly = true)
     public List<Product> findByNameContaining(String name) {
         return productRepository.findByProductNameContainingIgnoreCase(name);
     }
 
+    /**
+     * Búsqueda de texto completo (prefijos, errores de escritura y filtros) ordenada por relevancia
+     */
+    @Transactional(readOnly = true)
+    public List<Product> search(ProductSearchIndex.Criteria criteria) {
+        List<Integer> ids = productSearchIndex.search(criteria);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Product> byId = productRepository.findByProductIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        // Se conserva el orden de relevancia; un ID ya borrado en la base de datos se omite
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
     /**
      * Encuentra productos en un rango de precios
      */
+    @Transactional(readOnly = true)
     public List<Product> findByPriceBetween(Double minPrice, Double maxPrice) {
         return productRepository.findByBasePriceBetween(minPrice, maxPrice);
     }
@@ -69,6 +111,7 @@ public class ProductService {
     /**
      * Verifica si existe un producto por ID
      */
+    @Transactional(readOnly = true)
     public boolean existsById(Integer id) {
         return productRepository.existsById(id);
     }
@@ -76,6 +119,7 @@ public class ProductService {
     /**
      * Cuenta total de productos
      */
+    @Transactional(readOnly = true)
     public long count() {
         return productRepository.count();
     }
@@ -0,0 +1,236 @@
+package com.petstore.backend.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.StatusRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Motor del ciclo de vida de las promociones: SCHEDULE → ACTIVE → EXPIRED.
+ *
+ * Cada ejecución aplica las transiciones vencidas con un UPDATE por transición
+ * y programa la siguiente en el próximo límite de fechas (el inicio de una
+ * promoción programada o el día siguiente al fin de una abierta). Entre
+ * límites no se consulta la base de datos. Las fechas de fin son inclusivas.
+ * Las ejecuciones se serializan con un {@link ReentrantLock} para no fijar
+ * hilos virtuales mientras se espera a la base de datos.
+ */
+@Component
+public class PromotionLifecycleEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PromotionLifecycleEngine.class);
+
+    static final String SCHEDULED = "SCHEDULE";
+    static final String ACTIVE = "ACTIVE";
+    static final String EXPIRED = "EXPIRED";
+
+    private final PromotionRepository promotionRepository;
+    private final StatusRepository statusRepository;
+    private final ActivePromotionIndex activePromotionIndex;
+    private final CatalogVersions catalogVersions;
+    private final TaskScheduler taskScheduler;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Timer lag;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private ScheduledFuture<?> nextRun;
+    private Instant nextBoundary;
+
+    @Autowired
+    public PromotionLifecycleEngine(PromotionRepository promotionRepository,
+                                    StatusRepository statusRepository,
+                                    ActivePromotionIndex activePromotionIndex,
+                                    CatalogVersions catalogVersions,
+                                    TaskScheduler taskScheduler,
+                                    MeterRegistry meterRegistry) {
+        this(promotionRepository, statusRepository, activePromotionIndex, catalogVersions, taskScheduler, meterRegistry,
+                Clock.systemDefaultZone());
+    }
+
+    PromotionLifecycleEngine(PromotionRepository promotionRepository,
+                             StatusRepository statusRepository,
+                             ActivePromotionIndex activePromotionIndex,
+                             CatalogVersions catalogVersions,
+                             TaskScheduler taskScheduler,
+                             MeterRegistry meterRegistry,
+                             Clock clock) {
+        this.promotionRepository = promotionRepository;
+        this.statusRepository = statusRepository;
+        this.activePromotionIndex = activePromotionIndex;
+        this.catalogVersions = catalogVersions;
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.lag = Timer.builder("promotions.lifecycle.lag")
+                .description("Retraso entre el límite de fechas programado y la ejecución de las transiciones")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        advance();
+    }
+
+    /**
+     * Aplica las transiciones vencidas a la fecha actual y programa la siguiente ejecución.
+     * Devuelve el número de promociones que cambiaron de estado.
+     */
+    public int advance() {
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            if (nextBoundary != null && !now.isBefore(nextBoundary)) {
+                lag.record(Duration.between(nextBoundary, now));
+            }
+
+            LocalDate today = LocalDate.now(clock);
+            Status scheduled = statusRepository.findByStatusName(SCHEDULED).orElse(null);
+            Status active = statusRepository.findByStatusName(ACTIVE).orElse(null);
+            Status expired = statusRepository.findByStatusName(EXPIRED).orElse(null);
+
+            int transitioned = 0;
+            if (expired != null) {
+                // Primero se expiran: una promoción programada cuyo periodo ya terminó no pasa por ACTIVE
+                if (active != null) {
+                    transitioned += record(active, expired, promotionRepository.expireDue(active, expired, today));
+                }
+                if (scheduled != null) {
+                    transitioned += record(scheduled, expired, promotionRepository.expireDue(scheduled, expired, today));
+                }
+            }
+            if (scheduled != null && active != null) {
+                transitioned += record(scheduled, active, promotionRepository.activateDue(scheduled, active, today));
+            }
+
+            if (transitioned > 0) {
+                // Los UPDATE masivos no pasan por CatalogVersionListener
+                catalogVersions.bump(CatalogVersions.Table.PROMOTIONS);
+                activePromotionIndex.refresh();
+                log.info("Ciclo de vida de promociones: {} transiciones aplicadas para {}", transitioned, today);
+            }
+
+            scheduleNext(nextBoundaryDate(today, scheduled, active));
+            return transitioned;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aplica a una promoción que se va a guardar su propia transición vencida y adelanta
+     * la próxima ejecución si sus fechas caen antes. No toca el resto de promociones:
+     * el índice y la versión del catálogo los actualiza quien guarda la promoción.
+     */
+    public void apply(Promotion promotion) {
+        lock.lock();
+        try {
+            LocalDate today = LocalDate.now(clock);
+            String current = promotion.getStatus() == null ? null : promotion.getStatus().getStatusName();
+            if (!SCHEDULED.equals(current) && !ACTIVE.equals(current)) {
+                return;
+            }
+
+            Status target = null;
+            if (promotion.getEndDate() != null && promotion.getEndDate().isBefore(today)) {
+                target = statusRepository.findByStatusName(EXPIRED).orElse(null);
+            } else if (SCHEDULED.equals(current)
+                    && promotion.getStartDate() != null && !promotion.getStartDate().isAfter(today)) {
+                target = statusRepository.findByStatusName(ACTIVE).orElse(null);
+            }
+            if (target != null) {
+                record(promotion.getStatus(), target, 1);
+                promotion.setStatus(target);
+                current = target.getStatusName();
+            }
+
+            LocalDate boundary = null;
+            if (SCHEDULED.equals(current) && promotion.getStartDate() != null
+                    && promotion.getStartDate().isAfter(today)) {
+                boundary = promotion.getStartDate();
+            } else if (!EXPIRED.equals(current) && promotion.getEndDate() != null) {
+                boundary = promotion.getEndDate().plusDays(1);
+            }
+            if (boundary != null) {
+                Instant at = boundary.atStartOfDay(clock.getZone()).toInstant();
+                if (nextBoundary == null || at.isBefore(nextBoundary)) {
+                    scheduleNext(boundary);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Momento de la próxima ejecución programada, o null si no hay transiciones pendientes
+     */
+    public Instant nextBoundary() {
+        lock.lock();
+        try {
+            return nextBoundary;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int record(Status from, Status to, int count) {
+        if (count > 0) {
+            meterRegistry.counter("promotions.lifecycle.transitions",
+                    "from", from.getStatusName(), "to", to.getStatusName()).increment(count);
+        }
+        return count;
+    }
+
+    private LocalDate nextBoundaryDate(LocalDate today, Status scheduled, Status active) {
+        LocalDate nextStart = scheduled == null ? null : promotionRepository.findNextStartDate(scheduled, today);
+        List<Status> open = Stream.of(scheduled, active).filter(Objects::nonNull).toList();
+        LocalDate nextEnd = open.isEmpty() ? null : promotionRepository.findNextEndDate(open, today);
+        // La fecha de fin es inclusiva: la promoción expira al día siguiente
+        LocalDate nextExpiry = nextEnd == null ? null : nextEnd.plusDays(1);
+
+        if (nextStart == null) {
+            return nextExpiry;
+        }
+        if (nextExpiry == null) {
+            return nextStart;
+        }
+        return nextStart.isBefore(nextExpiry) ? nextStart : nextExpiry;
+    }
+
+    private void scheduleNext(LocalDate date) {
+        if (nextRun != null) {
+            nextRun.cancel(false);
+        }
+        if (date == null) {
+            nextRun = null;
+            nextBoundary = null;
+            return;
+        }
+        nextBoundary = date.atStartOfDay(clock.getZone()).toInstant();
+        nextRun = taskScheduler.schedule(this::advance, nextBoundary);
+        log.debug("Próxima transición de promociones programada para {}", nextBoundary);
+    }
+}
@@ -4,18 +4,29 @@ import com.petstore.backend.dto.CategoryDTO;
 import com.petstore.backend.dto.PromotionDTO;
 import com.petstore.backend.entity.Promotion;
 import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.PromotionSummary;
 import com.petstore.backend.repository.StatusRepository;
 import com.petstore.backend.repository.UserRepository;
 import com.petstore.backend.repository.CategoryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import io.micrometer.core.annotation.Timed;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Service
+@Timed(value = "service.calls", description = "Llamadas a los métodos públicos de los servicios")
 public class PromotionService {
 
     private static final Logger log = LoggerFactory.getLogger(PromotionService.class);
@@ -24,36 +35,45 @@ public class PromotionService {
     private final StatusRepository statusRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final ActivePromotionIndex activePromotionIndex;
+    private final PromotionLifecycleEngine promotionLifecycleEngine;
 
     public PromotionService(PromotionRepository promotionRepository,
                            StatusRepository statusRepository,
                            UserRepository userRepository,
-                           CategoryRepository categoryRepository) {
+                           CategoryRepository categoryRepository,
+                           ActivePromotionIndex activePromotionIndex,
+                           PromotionLifecycleEngine promotionLifecycleEngine) {
         this.promotionRepository = promotionRepository;
         this.statusRepository = statusRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
+        this.activePromotionIndex = activePromotionIndex;
+        this.promotionLifecycleEngine = promotionLifecycleEngine;
     }
 
     /**
-     * Obtiene todas las promociones activas y vigentes
+     * Obtiene todas las promociones activas y vigentes (desde el índice en memoria)
      */
     public List<PromotionDTO> getAllActivePromotions() {
-        LocalDate today = LocalDate.now();
-        
-        // Buscar promociones activas
-        List<Promotion> activePromotions = promotionRepository.findActivePromotions();
-        
-        // Filtrar las que están vigentes (fecha actual entre start y end)
-        return activePromotions.stream()
-                .filter(promotion -> !today.isBefore(promotion.getStartDate()) && !today.isAfter(promotion.getEndDate()))
+        return activePromotionIndex.getActivePromotions().stream()
                 .map(this::convertToDTO)
                 .toList();
     }
 
+    /**
+     * Obtiene el resumen de las promociones activas y vigentes hoy, opcionalmente de una categoría.
+     * Estado, fechas y categoría se filtran en la base de datos y solo se leen las columnas del resumen.
+     */
+    @Transactional(readOnly = true)
+    public List<PromotionSummary> getActivePromotionSummaries(Integer categoryId) {
+        return promotionRepository.findActiveSummaries(LocalDate.now(), categoryId);
+    }
+
     /**
      * Obtiene todas las promociones (activas e inactivas) para administración
      */
+    @Transactional(readOnly = true)
     public List<PromotionDTO> getAllPromotions() {
         List<Promotion> allPromotions = promotionRepository.findAll();
         
@@ -62,9 +82,18 @@ public class PromotionService {
                 .toList();
     }
 
+    /**
+     * Obtiene una página de promociones (activas e inactivas) ordenada por ID a partir de un cursor (keyset)
+     */
+    @Transactional(readOnly = true)
+    public Window<PromotionDTO> getPromotionsPage(ScrollPosition position, int limit) {
+        return getPromotionsPageEntities(position, limit).map(this::convertToDTO);
+    }
+
     /**
      * Obtiene promociones por categoría
      */
+    @Transactional(readOnly = true)
     public List<PromotionDTO> getPromotionsByCategory(Integer categoryId) {
         List<Promotion> promotions = promotionRepository.findByCategoryCategoryId(categoryId);
         
@@ -76,6 +105,7 @@ public class PromotionService {
     /**
      * Obtiene promociones vigentes para la fecha actual
      */
+    @Transactional(readOnly = true)
     public List<PromotionDTO> getValidPromotions() {
         LocalDate today = LocalDate.now();
         List<Promotion> promotions = promotionRepository.findValidPromotions(today);
@@ -135,51 +165,68 @@ public class PromotionService {
     // === MÉTODOS PARA GRAPHQL que retornan entidades directamente ===
 
     /**
-     * Obtiene todas las promociones activas como entidades para GraphQL
+     * Obtiene todas las promociones activas y vigentes como entidades para GraphQL (desde el índice en memoria)
      */
     public List<Promotion> getAllActivePromotionsEntities() {
-        LocalDate today = LocalDate.now();
-        
-        // Buscar promociones activas
-        List<Promotion> activePromotions = promotionRepository.findActivePromotions();
-        
-        // Filtrar las que están vigentes (fecha actual entre start y end)
-        return activePromotions.stream()
-                .filter(promotion -> !today.isBefore(promotion.getStartDate()) && !today.isAfter(promotion.getEndDate()))
-                .toList();
+        return activePromotionIndex.getActivePromotions();
+    }
+
+    /**
+     * Obtiene una página de promociones como entidades para GraphQL
+     */
+    @Transactional(readOnly = true)
+    public Window<Promotion> getPromotionsPageEntities(ScrollPosition position, int limit) {
+        return promotionRepository.findAllBy(position, Limit.of(limit), Sort.by("promotionId"));
+    }
+
+    /**
+     * Obtiene como máximo {@code limit} promociones expiradas como entidades para GraphQL
+     */
+    @Transactional(readOnly = true)
+    public List<Promotion> getAllExpiredPromotionsEntities(int limit) {
+        return promotionRepository.findExpiredPromotions(Limit.of(limit));
     }
 
     /**
-     * Obtiene promociones expiradas como entidades para GraphQL
+     * Obtiene como máximo {@code limit} promociones programadas como entidades para GraphQL
      */
-    public List<Promotion> getAllExpiredPromotionsEntities() {
-        return promotionRepository.findExpiredPromotions();
+    @Transactional(readOnly = true)
+    public List<Promotion> getAllScheduledPromotionsEntities(int limit) {
+        return promotionRepository.findScheduledPromotions(Limit.of(limit));
     }
 
     /**
-     * Obtiene promociones programadas como entidades para GraphQL
+     * Obtiene como máximo {@code limit} promociones de un estado como entidades para GraphQL
      */
-    public List<Promotion> getAllScheduledPromotionsEntities() {
-        return promotionRepository.findScheduledPromotions();
+    @Transactional(readOnly = true)
+    public List<Promotion> getPromotionsByStatusEntities(String statusName, int limit) {
+        return promotionRepository.findByStatusName(statusName, Limit.of(limit));
     }
 
     /**
-     * Obtiene promociones por estado específico como entidades para GraphQL
+     * Obtiene como máximo {@code limit} promociones de una categoría como entidades para GraphQL
      */
-    public List<Promotion> getPromotionsByStatusEntities(String statusName) {
-        return promotionRepository.findByStatusName(statusName);
+    @Transactional(readOnly = true)
+    public List<Promotion> getPromotionsByCategoryEntities(Integer categoryId, int limit) {
+        return promotionRepository.findFirstPerCategory(List.of(categoryId), limit);
     }
 
     /**
-     * Obtiene promociones por categoría como entidades para GraphQL
+     * Obtiene como máximo {@code limitPerCategory} promociones de cada categoría en una sola
+     * consulta (carga por lotes en GraphQL)
      */
-    public List<Promotion> getPromotionsByCategoryEntities(Integer categoryId) {
-        return promotionRepository.findByCategoryCategoryId(categoryId);
+    @Transactional(readOnly = true)
+    public List<Promotion> getPromotionsByCategoryIdsEntities(Collection<Integer> categoryIds, int limitPerCategory) {
+        if (categoryIds.isEmpty()) {
+            return List.of();
+        }
+        return promotionRepository.findFirstPerCategory(categoryIds, limitPerCategory);
     }
 
     /**
      * Obtiene una promoción por ID como entidad para GraphQL
      */
+    @Transactional(readOnly = true)
     public Promotion getPromotionByIdEntity(Integer id) {
         return promotionRepository.findById(id).orElse(null);
     }
@@ -189,6 +236,7 @@ public class PromotionService {
     /**
      * Crea una nueva promoción
      */
+    @Transactional
     public Promotion createPromotion(String promotionName, String description, 
                                    LocalDate startDate, LocalDate endDate, 
                                    Double discountValue, Integer statusId, 
@@ -203,12 +251,18 @@ public class PromotionService {
         // Asignar entidades relacionadas usando helper method
         setPromotionRelations(promotion, statusId, userId, categoryId);
         
+        // Solo se aplica la transición de esta promoción; el resto la lleva el motor programado.
+        // El índice de activas se reconstruye al avanzar la versión de promociones (ActivePromotionIndex)
+        promotionLifecycleEngine.apply(promotion);
         return promotionRepository.save(promotion);
     }
 
     /**
-     * Actualiza una promoción existente
+     * Actualiza una promoción existente. La lectura y la escritura van en la misma
+     * transacción del primario: leída de una réplica, la promoción guardaría sus
+     * valores atrasados encima de los actuales.
      */
+    @Transactional
     public Promotion updatePromotion(Integer promotionId, String promotionName, String description,
                                    LocalDate startDate, LocalDate endDate,
                                    Double discountValue, Integer statusId,
@@ -228,6 +282,9 @@ public class PromotionService {
         // Actualizar entidades relacionadas usando helper method
         setPromotionRelations(promotion, statusId, userId, categoryId);
         
+        // Solo se aplica la transición de esta promoción; el resto la lleva el motor programado.
+        // El índice de activas se reconstruye al avanzar la versión de promociones (ActivePromotionIndex)
+        promotionLifecycleEngine.apply(promotion);
         return promotionRepository.save(promotion);
     }
 
@@ -252,15 +309,20 @@ public class PromotionService {
     /**
      * Elimina una promoción
      */
+    @Transactional
     public boolean deletePromotion(Integer promotionId) {
         try {
             if (promotionRepository.existsById(promotionId)) {
                 promotionRepository.deleteById(promotionId);
+                // Las restricciones fallan aquí y no en el commit, fuera del catch
+                promotionRepository.flush();
                 return true;
             }
             return false;
         } catch (Exception e) {
             log.error("Error deleting promotion: {}", e.getMessage(), e);
+            // Se deshace sin UnexpectedRollbackException: el repositorio ya marcó la transacción
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return false;
         }
     }
@@ -0,0 +1,50 @@
+-- =========================
+-- ESQUEMA INICIAL
+-- =========================
+-- Refleja el esquema que generaba Hibernate (ddl-auto=update). Es idempotente
+-- para poder aplicarse sobre bases existentes (baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS public.roles (
+    role_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    role_name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS public.statuses (
+    status_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status_name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS public.categories (
+    category_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    category_name VARCHAR(255) NOT NULL UNIQUE,
+    description   VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS public.users (
+    user_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_name VARCHAR(255) NOT NULL,
+    email     VARCHAR(255) NOT NULL UNIQUE,
+    password  VARCHAR(255) NOT NULL,
+    role_id   INTEGER NOT NULL REFERENCES public.roles (role_id)
+);
+
+CREATE TABLE IF NOT EXISTS public.promotions (
+    promotion_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    promotion_name VARCHAR(255) NOT NULL,
+    description    TEXT,
+    start_date     DATE NOT NULL,
+    end_date       DATE NOT NULL,
+    discount_value DOUBLE PRECISION NOT NULL,
+    status_id      INTEGER NOT NULL REFERENCES public.statuses (status_id),
+    user_id        INTEGER REFERENCES public.users (user_id),
+    category_id    INTEGER REFERENCES public.categories (category_id)
+);
+
+CREATE TABLE IF NOT EXISTS public.products (
+    product_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_name VARCHAR(255) NOT NULL,
+    base_price   DOUBLE PRECISION NOT NULL,
+    sku          INTEGER NOT NULL UNIQUE,
+    category_id  INTEGER NOT NULL REFERENCES public.categories (category_id),
+    promotion_id INTEGER REFERENCES public.promotions (promotion_id)
+);
@@ -0,0 +1,29 @@
+-- =========================
+-- ÍNDICES PARA LAS CONSULTAS DE LOS REPOSITORIOS
+-- =========================
+-- Postgres no indexa automáticamente las claves foráneas; sin estos índices los
+-- filtros y joins por categoría, promoción, estado y usuario recorren la tabla completa.
+
+-- ProductRepository.findByCategoryCategoryId / findByCategoryCategoryIdIn
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON public.products (category_id);
+
+-- ProductRepository.findByPromotionPromotionId / findByPromotionPromotionIdIn
+CREATE INDEX IF NOT EXISTS idx_products_promotion_id ON public.products (promotion_id);
+
+-- ProductRepository.findByBasePriceBetween
+CREATE INDEX IF NOT EXISTS idx_products_base_price ON public.products (base_price);
+
+-- PromotionRepository: filtros por estado y vigencia (status_id, start_date, end_date)
+CREATE INDEX IF NOT EXISTS idx_promotions_status_dates ON public.promotions (status_id, start_date, end_date);
+
+-- PromotionRepository.findByCategoryCategoryId / findByCategoryCategoryIdIn
+CREATE INDEX IF NOT EXISTS idx_promotions_category_id ON public.promotions (category_id);
+
+-- PromotionRepository.findByUserUserId
+CREATE INDEX IF NOT EXISTS idx_promotions_user_id ON public.promotions (user_id);
+
+-- ProductRepository.findByProductNameContainingIgnoreCase genera
+-- "upper(product_name) like upper(?)" con comodines a ambos lados: solo un
+-- índice de trigramas sobre la misma expresión puede resolverlo.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON public.products USING gin (upper(product_name) gin_trgm_ops);
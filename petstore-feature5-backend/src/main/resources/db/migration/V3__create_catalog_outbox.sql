@@ -0,0 +1,13 @@
+-- =========================
+-- OUTBOX DE CAMBIOS DEL CATÁLOGO
+-- =========================
+-- Filas escritas en la misma transacción que el cambio de un producto, categoría o
+-- promoción. CatalogOutboxRelay las publica en orden de event_id y las borra.
+
+CREATE TABLE IF NOT EXISTS public.catalog_outbox (
+    event_id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id   INTEGER NOT NULL,
+    change_type    VARCHAR(10) NOT NULL,
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
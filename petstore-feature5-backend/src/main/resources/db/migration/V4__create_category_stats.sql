@@ -0,0 +1,25 @@
+-- =========================
+-- ESTADÍSTICAS POR CATEGORÍA
+-- =========================
+-- Modelo de lectura con el número de productos y los precios mínimo, máximo y
+-- medio de cada categoría. CategoryStatsService recalcula la fila de una categoría
+-- dentro de la transacción que escribe sus productos.
+
+CREATE TABLE IF NOT EXISTS public.category_stats (
+    category_id   INTEGER PRIMARY KEY REFERENCES public.categories (category_id) ON DELETE CASCADE,
+    product_count BIGINT NOT NULL,
+    min_price     DOUBLE PRECISION,
+    max_price     DOUBLE PRECISION,
+    avg_price     DOUBLE PRECISION,
+    updated_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- El recálculo de una categoría se resuelve solo con el índice (Index Only Scan)
+CREATE INDEX IF NOT EXISTS idx_products_category_price ON public.products (category_id, base_price);
+
+INSERT INTO public.category_stats (category_id, product_count, min_price, max_price, avg_price, updated_at)
+SELECT c.category_id, COUNT(p.product_id), MIN(p.base_price), MAX(p.base_price), AVG(p.base_price), now()
+FROM public.categories c
+LEFT JOIN public.products p ON p.category_id = c.category_id
+GROUP BY c.category_id
+ON CONFLICT (category_id) DO NOTHING;
@@ -0,0 +1,15 @@
+-- =========================
+-- VERSIONES DEL CATÁLOGO
+-- =========================
+-- Una fila por tabla del catálogo. CatalogVersionStore la incrementa antes de
+-- confirmar cada escritura y todas las instancias derivan de ella sus ETag.
+
+CREATE TABLE IF NOT EXISTS public.catalog_versions (
+    table_name VARCHAR(20) PRIMARY KEY,
+    version    BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+INSERT INTO public.catalog_versions (table_name, version, updated_at)
+VALUES ('PRODUCTS', 0, now()), ('CATEGORIES', 0, now()), ('PROMOTIONS', 0, now())
+ON CONFLICT (table_name) DO NOTHING;
@@ -0,0 +1,11 @@
+-- =========================
+-- SUMA DE PRECIOS POR CATEGORÍA
+-- =========================
+-- CategoryStatsService actualiza el número de productos y la suma de precios con
+-- el cambio de cada escritura (±1, ±precio) y deriva la media de ellos, en vez de
+-- volver a agregar todos los productos de la categoría.
+
+ALTER TABLE public.category_stats ADD COLUMN IF NOT EXISTS price_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+UPDATE public.category_stats s
+SET price_sum = COALESCE((SELECT SUM(p.base_price) FROM public.products p WHERE p.category_id = s.category_id), 0);
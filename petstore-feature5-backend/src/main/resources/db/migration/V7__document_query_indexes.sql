@@ -0,0 +1,16 @@
+-- =========================
+-- CONSULTAS QUE USAN LOS ÍNDICES DE V2
+-- =========================
+-- Los comentarios de V2 citan findByCategoryCategoryIdIn y findByPromotionPromotionIdIn,
+-- que ya no existen: las cargas por lotes usan findFirstPerCategory y findFirstPerPromotion
+-- (ROW_NUMBER() por categoría o promoción). V2 no se edita, porque cambiaría su checksum
+-- de Flyway; la referencia correcta queda en el catálogo de Postgres.
+
+COMMENT ON INDEX public.idx_products_category_id IS
+    'ProductRepository.findByCategoryCategoryId / findFirstPerCategory';
+
+COMMENT ON INDEX public.idx_products_promotion_id IS
+    'ProductRepository.findByPromotionPromotionId / findFirstPerPromotion';
+
+COMMENT ON INDEX public.idx_promotions_category_id IS
+    'PromotionRepository.findByCategoryCategoryId / findFirstPerCategory';
@@ -0,0 +1,108 @@
+package com.petstore.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+class ConnectionLimitingDataSourceTest {
+
+    private DataSource target;
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = Mockito.mock(DataSource.class);
+        given(target.getConnection()).willAnswer(inv -> Mockito.mock(Connection.class));
+        dataSource = new ConnectionLimitingDataSource(target, 2, 50);
+    }
+
+    @Test
+    @DisplayName("No entrega más conexiones que el tamaño del pool y corta la espera con el timeout")
+    void limitsConcurrentConnections() throws SQLException {
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThat(dataSource.getAvailablePermits()).isZero();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Cerrar dos veces la misma conexión devuelve un solo permiso")
+    void doubleCloseReleasesOnce() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Si el pool falla al entregar la conexión se devuelve el permiso")
+    void releasesPermitWhenTargetFails() throws SQLException {
+        given(target.getConnection()).willThrow(new SQLException("pool caído"));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool caído");
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("La conexión envuelta delega en la real")
+    void delegatesToTargetConnection() throws SQLException {
+        Connection real = Mockito.mock(Connection.class);
+        given(target.getConnection()).willReturn(real);
+
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        Mockito.verify(real).setAutoCommit(false);
+        Mockito.verify(real).close();
+    }
+
+    @Test
+    @DisplayName("La espera en el semáforo y en Hikari juntas no superan el timeout de conexión")
+    void waitInSemaphoreAndPoolSharesOneTimeout() throws Exception {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:connection-limiting;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(400);
+        try (HikariDataSource hikari = new HikariDataSource(config);
+             // La única conexión del pool la tiene alguien que no pasa por el semáforo
+             Connection outside = hikari.getConnection()) {
+            ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(hikari, 1, 400);
+            // Ocupa el único permiso esperando en Hikari hasta agotar su timeout
+            CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+                assertThatThrownBy(limited::getConnection).isInstanceOf(SQLException.class);
+            });
+            Thread.sleep(200);
+
+            long start = System.nanoTime();
+            assertThatThrownBy(limited::getConnection).isInstanceOf(SQLException.class);
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            holder.get();
+            assertThat(waitedMillis).isLessThan(400 + 150);
+            assertThat(limited.getAvailablePermits()).isEqualTo(1);
+        }
+    }
+}
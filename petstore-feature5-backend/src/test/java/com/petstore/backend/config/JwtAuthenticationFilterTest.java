@@ -2,6 +2,8 @@ package com.petstore.backend.config;
 
 import com.petstore.backend.service.AuthService;
 import com.petstore.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.AfterEach;
@@ -15,6 +17,7 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -32,10 +35,10 @@ class JwtAuthenticationFilterTest {
         JwtUtil jwtUtil = Mockito.mock(JwtUtil.class);
         AuthService authService = Mockito.mock(AuthService.class);
 
-        Mockito.when(jwtUtil.validateToken("good")).thenReturn(true);
-        Mockito.when(jwtUtil.extractEmail("good")).thenReturn("user@petstore.com");
+        Claims claims = Jwts.claims().setSubject("user@petstore.com");
+        Mockito.when(jwtUtil.parseClaims("good")).thenReturn(Optional.of(claims));
         UserDetails userDetails = User.withUsername("user@petstore.com").password("x").authorities("ROLE_USER").build();
-        Mockito.when(authService.loadUserByUsername(anyString())).thenReturn(userDetails);
+        Mockito.when(authService.loadPrincipal(anyString())).thenReturn(userDetails);
 
         JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil, authService);
 
@@ -48,6 +51,8 @@ class JwtAuthenticationFilterTest {
 
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
         assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("user@petstore.com");
+        Mockito.verify(jwtUtil).parseClaims("good");
+        Mockito.verifyNoMoreInteractions(jwtUtil);
     }
 
     @Test
@@ -56,7 +61,7 @@ class JwtAuthenticationFilterTest {
         JwtUtil jwtUtil = Mockito.mock(JwtUtil.class);
         AuthService authService = Mockito.mock(AuthService.class);
 
-        Mockito.when(jwtUtil.validateToken("bad")).thenReturn(false);
+        Mockito.when(jwtUtil.parseClaims("bad")).thenReturn(Optional.empty());
 
         JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil, authService);
 
@@ -0,0 +1,43 @@
+package com.petstore.backend.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Verifica que el endpoint del índice de promociones está expuesto por HTTP y
+ * solo para usuarios autenticados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PromotionIndexEndpointTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser
+    void statusAndRefreshAreExposed() throws Exception {
+        mockMvc.perform(get("/actuator/promotionindex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").isNumber());
+        mockMvc.perform(post("/actuator/promotionindex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.builtAt").exists());
+    }
+
+    @Test
+    void anonymousRequestsAreRejected() throws Exception {
+        mockMvc.perform(get("/actuator/promotionindex"))
+                .andExpect(status().is4xxClientError());
+    }
+}
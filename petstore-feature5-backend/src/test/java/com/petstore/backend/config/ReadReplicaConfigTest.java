@@ -0,0 +1,260 @@
+package com.petstore.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.nio.charset.StandardCharsets;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.petstore.backend.controller.ProductController;
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.graphql.GraphQLResolver;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.StatusRepository;
+import com.petstore.backend.service.CatalogVersionStore;
+import com.petstore.backend.service.CatalogVersions;
+import com.petstore.backend.service.ProductService;
+import com.petstore.backend.service.PromotionService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica el enrutado a réplicas con dos bases H2: la de los tests como primario y
+ * replica1, con el mismo esquema y datos que solo existen en ella. La otra instancia
+ * de la aplicación se simula escribiendo directamente en el primario.
+ */
+@SpringBootTest(properties = {
+        "replica.datasource.urls=" + ReadReplicaConfigTest.REPLICA_URL,
+        "replica.datasource.max-lag=2s",
+        "replica.datasource.lag-check-interval=1h",
+        "replica.datasource.lag-query=SELECT lag_seconds FROM replica_lag"
+})
+@ActiveProfiles("test")
+class ReadReplicaConfigTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+    static final String PRIMARY_URL = "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+
+    private static final int REPLICA_CATEGORY_ID = 9901;
+
+    @Autowired private DataSource dataSource;
+    @Autowired private ReplicaDataSources replicaDataSources;
+    @Autowired private ProductService productService;
+    @Autowired private GraphQLResolver graphQLResolver;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private CatalogVersions catalogVersions;
+    @Autowired private ProductController productController;
+    @Autowired private PromotionService promotionService;
+    @Autowired private PromotionRepository promotionRepository;
+    @Autowired private StatusRepository statusRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        List<String> schema = new ArrayList<>();
+        try (Connection primary = dataSource.getConnection();
+             Statement statement = primary.createStatement();
+             ResultSet script = statement.executeQuery("SCRIPT NODATA")) {
+            while (script.next()) {
+                schema.add(script.getString(1));
+            }
+        }
+        try (Connection replica = replicaConnection(); Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : schema) {
+                statement.execute(sql);
+            }
+            statement.execute("CREATE TABLE replica_lag (lag_seconds DOUBLE PRECISION)");
+            statement.execute("INSERT INTO replica_lag VALUES (0)");
+            statement.execute("INSERT INTO public.categories (category_id, category_name) VALUES ("
+                    + REPLICA_CATEGORY_ID + ", 'Solo en la réplica')");
+            statement.execute("INSERT INTO public.products (product_id, product_name, base_price, sku, category_id) "
+                    + "VALUES (9901, 'Acuario de réplica', 80.0, 990101, " + REPLICA_CATEGORY_ID + ")");
+        }
+        copyCatalogVersionsToReplica();
+        replicaDataSources.checkLag();
+    }
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+        promotionRepository.deleteAll();
+        categoryRepository.deleteAll();
+        statusRepository.deleteAll();
+        // La categoría leída de la réplica no debe quedar en la caché de segundo nivel
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void dataSource_wrapsLimitedPrimary() throws Exception {
+        assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+        assertThat(dataSource.isWrapperFor(ConnectionLimitingDataSource.class)).isTrue();
+        assertThat(meterRegistry.get("hikaricp.connections.max").tag("pool", "primary").gauge()).isNotNull();
+        assertThat(meterRegistry.get("hikaricp.connections.max").tag("pool", "replica-1").gauge()).isNotNull();
+    }
+
+    @Test
+    void readOnlyTransactions_readFromReplica() throws Exception {
+        awaitReadYourWritesWindow();
+
+        assertThat(productService.findByCategoryId(REPLICA_CATEGORY_ID))
+                .extracting(Product::getProductName).containsExactly("Acuario de réplica");
+        assertThat(graphQLResolver.productsByCategory(REPLICA_CATEGORY_ID))
+                .extracting(Product::getProductName).containsExactly("Acuario de réplica");
+        assertThat(meterRegistry.get("db.replica.available").tag("pool", "replica-1").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void writes_goToPrimary_andFollowingReadsToo() throws Exception {
+        double before = fallbacks("recent-write");
+        Category category = categoryRepository.save(new Category("Solo en el primario", null));
+        productService.save(new Product("Filtro de primario", 25.0, 990201, category));
+
+        assertThat(productService.findByCategoryId(category.getCategoryId()))
+                .extracting(Product::getProductName).containsExactly("Filtro de primario");
+        assertThat(fallbacks("recent-write")).isGreaterThan(before);
+        assertThat(replicaCount("SELECT COUNT(*) FROM public.products WHERE sku = 990201")).isZero();
+    }
+
+    @Test
+    void laggingReplica_fallsBackToPrimary() throws Exception {
+        try (Connection replica = replicaConnection(); Statement statement = replica.createStatement()) {
+            statement.execute("UPDATE replica_lag SET lag_seconds = 30");
+        }
+        replicaDataSources.checkLag();
+        awaitReadYourWritesWindow();
+        double before = fallbacks("unavailable");
+
+        assertThat(productService.findByCategoryId(REPLICA_CATEGORY_ID)).isEmpty();
+        assertThat(fallbacks("unavailable")).isGreaterThan(before);
+        assertThat(meterRegistry.get("db.replica.available").tag("pool", "replica-1").gauge().value()).isZero();
+        assertThat(meterRegistry.get("db.replica.lag").tag("pool", "replica-1").gauge().value()).isEqualTo(30.0);
+    }
+
+    @Test
+    void writeOnAnotherInstance_isNotReadFromReplicaUnderItsNewEtag() throws Exception {
+        awaitReadYourWritesWindow();
+        // Otra instancia escribe en el primario, que la réplica aún no ha recibido, e
+        // incrementa la versión compartida con su propio CatalogVersionStore
+        DriverManagerDataSource primary = new DriverManagerDataSource(PRIMARY_URL, "sa", "");
+        JdbcTemplate otherInstance = new JdbcTemplate(primary);
+        otherInstance.update("INSERT INTO public.categories (category_name) VALUES ('De la instancia A')");
+        Integer categoryId = otherInstance.queryForObject(
+                "SELECT category_id FROM public.categories WHERE category_name = 'De la instancia A'", Integer.class);
+        otherInstance.update("INSERT INTO public.products (product_name, base_price, sku, category_id) "
+                + "VALUES ('Filtro de la instancia A', 30.0, 990301, ?)", categoryId);
+        new CatalogVersionStore(otherInstance, null, new DataSourceTransactionManager(primary))
+                .increment(CatalogVersions.Table.PRODUCTS, versions -> { });
+
+        // Esta instancia ve la versión nueva: sus lecturas no pueden salir de la réplica
+        catalogVersions.refresh();
+        String etag = catalogVersions.snapshot(CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.CATEGORIES,
+                CatalogVersions.Table.PROMOTIONS).etag();
+        double before = fallbacks("catalog-version");
+
+        ResponseEntity<byte[]> response = productController.getProductsByCategory(categoryId,
+                new ServletWebRequest(new MockHttpServletRequest()));
+
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(new String(response.getBody(), StandardCharsets.UTF_8)).contains("Filtro de la instancia A");
+        assertThat(fallbacks("catalog-version")).isGreaterThan(before);
+
+        // Cuando la réplica aplica la versión vuelve a recibir lecturas
+        copyCatalogVersionsToReplica();
+        replicaDataSources.checkLag();
+        assertThat(productService.findByCategoryId(REPLICA_CATEGORY_ID))
+                .extracting(Product::getProductName).containsExactly("Acuario de réplica");
+    }
+
+    @Test
+    void promotionUpdate_readsTheRowFromPrimary() throws Exception {
+        // La réplica aún tiene el descuento anterior de la promoción
+        for (JdbcTemplate database : List.of(new JdbcTemplate(dataSource),
+                new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")))) {
+            database.update("INSERT INTO public.statuses (status_id, status_name) VALUES (9901, 'INACTIVE')");
+            database.update("INSERT INTO public.promotions (promotion_id, promotion_name, start_date, end_date, "
+                    + "discount_value, status_id) VALUES (9901, 'Verano', CURRENT_DATE, CURRENT_DATE, ?, 9901)",
+                    database.getDataSource() == dataSource ? 20.0 : 10.0);
+        }
+        awaitReadYourWritesWindow();
+
+        Promotion updated = promotionService.updatePromotion(9901, "Verano 2x1", null, null, null, null, null, null,
+                null);
+
+        assertThat(updated.getDiscountValue()).isEqualTo(20.0);
+        assertThat(new JdbcTemplate(dataSource).queryForObject(
+                "SELECT discount_value FROM public.promotions WHERE promotion_id = 9901", Double.class))
+                .isEqualTo(20.0);
+    }
+
+    // Una réplica al día tiene las mismas versiones del catálogo que el primario
+    private void copyCatalogVersionsToReplica() throws SQLException {
+        try (Connection primary = dataSource.getConnection();
+             Statement read = primary.createStatement();
+             ResultSet versions = read.executeQuery("SELECT table_name, version, updated_at FROM public.catalog_versions");
+             Connection replica = replicaConnection();
+             Statement statement = replica.createStatement()) {
+            statement.execute("DELETE FROM public.catalog_versions");
+            try (PreparedStatement insert = replica.prepareStatement(
+                    "INSERT INTO public.catalog_versions (table_name, version, updated_at) VALUES (?, ?, ?)")) {
+                while (versions.next()) {
+                    insert.setString(1, versions.getString(1));
+                    insert.setLong(2, versions.getLong(2));
+                    insert.setObject(3, versions.getObject(3));
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private double fallbacks(String reason) {
+        return meterRegistry.get("db.replica.fallbacks").tag("reason", reason).functionCounter().count();
+    }
+
+    private static long replicaCount(String sql) throws SQLException {
+        try (Connection replica = replicaConnection();
+             Statement statement = replica.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static Connection replicaConnection() throws SQLException {
+        return DriverManager.getConnection(REPLICA_URL, "sa", "");
+    }
+
+    // Tras una escritura las lecturas van al primario durante max-lag
+    private static void awaitReadYourWritesWindow() throws InterruptedException {
+        Thread.sleep(2100);
+    }
+}
@@ -3,22 +3,38 @@ package com.petstore.backend.config;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 class SecurityConfigTest {
 
     @Autowired(required = false)
     private SecurityFilterChain securityFilterChain;
 
+    @Autowired
+    private MockMvc mockMvc;
+
     @Test
     @DisplayName("SecurityFilterChain bean se carga en el contexto")
     void securityFilterChain_isLoaded() {
         assertThat(securityFilterChain).isNotNull();
     }
+
+    @Test
+    @DisplayName("GET /api/categories/{id}/stats es de lectura pública")
+    void categoryStats_isPublic() throws Exception {
+        // Sin autenticación llega al controlador: 404 por categoría inexistente, no 401/403
+        mockMvc.perform(get("/api/categories/{id}/stats", 999_999))
+                .andExpect(status().isNotFound());
+    }
 }
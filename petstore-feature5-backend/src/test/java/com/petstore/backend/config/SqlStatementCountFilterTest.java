@@ -0,0 +1,111 @@
+package com.petstore.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Verifica las métricas por petición: sentencias SQL por ruta (también en GraphQL,
+ * que responde de forma asíncrona) y los timers de servicios y repositorios.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlStatementCountFilterTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category("Reptiles", null));
+        productRepository.save(new Product("Terrario de vidrio", 140.0, 8101, category));
+        productRepository.save(new Product("Lámpara UVB", 35.0, 8102, category));
+    }
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void recordsStatementsPerRoutePattern() throws Exception {
+        mockMvc.perform(get("/api/products/category/{id}", category.getCategoryId())).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get(SqlStatementCountFilter.METRIC)
+                .tag("method", "GET").tag("uri", "/api/products/category/{categoryId}").summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isPositive();
+    }
+
+    @Test
+    void countsGraphQlStatementsAcrossAsyncDispatch() throws Exception {
+        double before = graphQlStatements().totalAmount();
+
+        MvcResult result = mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\":\"{ categories { categoryName products { productName } } }\"}"))
+                .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        }
+
+        assertThat(graphQlStatements().totalAmount() - before).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser
+    void countsStatementsOfStreamingExportOnTheWorkerThread() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products/export")).andReturn();
+        result.getAsyncResult(10_000);
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get(SqlStatementCountFilter.METRIC)
+                .tag("method", "GET").tag("uri", "/api/products/export").summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isPositive();
+    }
+
+    @Test
+    void timesServiceAndRepositoryCalls() throws Exception {
+        mockMvc.perform(get("/api/products/category/{id}", category.getCategoryId())).andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("service.calls").tag("class", "com.petstore.backend.service.ProductService")
+                .tag("method", "findByCategoryId").timer().count()).isPositive();
+        assertThat(meterRegistry.get("spring.data.repository.invocations").tag("repository", "ProductRepository")
+                .tag("method", "findByCategoryCategoryId").timer().count()).isPositive();
+    }
+
+    private DistributionSummary graphQlStatements() {
+        return DistributionSummary.builder(SqlStatementCountFilter.METRIC)
+                .tag("method", "POST").tag("uri", "/graphql")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
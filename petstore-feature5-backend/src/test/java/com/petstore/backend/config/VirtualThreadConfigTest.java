@@ -0,0 +1,42 @@
+package com.petstore.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Verifica que en modo de hilos virtuales el pool queda detrás del semáforo de conexiones
+ */
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+@ActiveProfiles("test")
+class VirtualThreadConfigTest {
+
+    @Autowired private DataSource dataSource;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Test
+    void dataSource_isLimitedToHikariPoolSize() throws Exception {
+        assertThat(dataSource).isInstanceOf(ConnectionLimitingDataSource.class);
+        ConnectionLimitingDataSource limited = (ConnectionLimitingDataSource) dataSource;
+        assertThat(limited.getMaxConnections()).isEqualTo(4);
+        assertThat(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(4);
+
+        try (var connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+            assertThat(meterRegistry.get("jdbc.connections.permits.available").gauge().value()).isEqualTo(3.0);
+        }
+        assertThat(meterRegistry.get("jdbc.connections.permits.available").gauge().value()).isEqualTo(4.0);
+    }
+}
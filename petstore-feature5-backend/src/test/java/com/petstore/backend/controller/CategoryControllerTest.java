@@ -1,9 +1,13 @@
 package com.petstore.backend.controller;
 
 import com.petstore.backend.config.JwtAuthenticationFilter;
+import com.petstore.backend.dto.CategoryStatsDTO;
 import com.petstore.backend.entity.Category;
+import com.petstore.backend.service.CatalogVersionStore;
+import com.petstore.backend.service.CatalogVersions;
 import com.petstore.backend.service.AuthService;
 import com.petstore.backend.service.CategoryService;
+import com.petstore.backend.service.CategoryStatsService;
 import com.petstore.backend.util.JwtUtil;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.junit.jupiter.api.DisplayName;
@@ -11,12 +15,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +34,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@Import({CatalogVersions.class, SimpleMeterRegistry.class})
 @WebMvcTest(
     controllers = CategoryController.class,
     excludeAutoConfiguration = {
@@ -43,6 +51,13 @@ class CategoryControllerTest {
     @MockBean
     private CategoryService categoryService;
 
+    @MockBean
+    private CategoryStatsService categoryStatsService;
+
+    // Las versiones compartidas viven en la base de datos, fuera del slice web
+    @MockBean
+    private CatalogVersionStore catalogVersionStore;
+
     // Mockeamos componentes de seguridad para que el contexto cargue en @WebMvcTest sin intentar instanciar filtros reales
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
@@ -117,6 +132,34 @@ class CategoryControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("GET /api/categories/{id}/stats devuelve las estadísticas precalculadas")
+    void getCategoryStats_returnsOk_whenExists() throws Exception {
+        given(categoryStatsService.getStats(10)).willReturn(Optional.of(
+                new CategoryStatsDTO(10, 3, 5.0, 25.0, 15.0, 2, Instant.parse("2025-06-15T10:00:00Z"))));
+
+        mockMvc.perform(get("/api/categories/{id}/stats", 10)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.productCount").value(3))
+                .andExpect(jsonPath("$.minPrice").value(5.0))
+                .andExpect(jsonPath("$.maxPrice").value(25.0))
+                .andExpect(jsonPath("$.avgPrice").value(15.0))
+                .andExpect(jsonPath("$.activePromotionCount").value(2))
+                .andExpect(jsonPath("$.updatedAt").value("2025-06-15T10:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("GET /api/categories/{id}/stats devuelve 404 cuando la categoría no existe")
+    void getCategoryStats_returnsNotFound_whenMissing() throws Exception {
+        given(categoryStatsService.getStats(999)).willReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/categories/{id}/stats", 999)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("POST /api/categories devuelve 201 y el recurso creado")
     void createCategory_returnsCreated_whenValid() throws Exception {
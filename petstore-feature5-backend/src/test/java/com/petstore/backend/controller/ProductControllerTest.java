@@ -4,10 +4,16 @@ import com.petstore.backend.dto.CategoryDTO;
 import com.petstore.backend.entity.Category;
 import com.petstore.backend.entity.Product;
 import com.petstore.backend.mapper.MapperFacade;
+import com.petstore.backend.service.CatalogVersionStore;
+import com.petstore.backend.service.CatalogVersionStore.StoredVersion;
+import com.petstore.backend.service.CatalogVersions;
+import com.petstore.backend.service.PricingService;
+import com.petstore.backend.service.ProductSearchIndex;
 import com.petstore.backend.service.ProductService;
 import com.petstore.backend.service.AuthService;
 import com.petstore.backend.config.JwtAuthenticationFilter;
 import com.petstore.backend.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,18 +21,37 @@ import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfi
 import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@Import({CatalogVersions.class, ProductViewCache.class, SimpleMeterRegistry.class})
 @WebMvcTest(
         controllers = ProductController.class,
         excludeAutoConfiguration = {
@@ -40,9 +65,21 @@ class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private PricingService pricingService;
+
+    // Las versiones compartidas viven en la base de datos, fuera del slice web
+    @MockBean
+    private CatalogVersionStore catalogVersionStore;
+
+    private static final AtomicLong STORED_VERSION = new AtomicLong();
+
     // Satisface la inyección en el controlador, aunque no se use en los métodos actuales
     @MockBean
     private MapperFacade mapperFacade;
@@ -60,6 +97,30 @@ class ProductControllerTest {
     @MockBean
     private CorsConfigurationSource corsConfigurationSource;
 
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void newCatalogVersion() {
+        // Cada incremento se confirma al momento con un contador global
+        willAnswer(invocation -> {
+            ((Consumer<Map<CatalogVersions.Table, StoredVersion>>) invocation.getArgument(1)).accept(Map.of(
+                    invocation.getArgument(0), new StoredVersion(STORED_VERSION.incrementAndGet(), Instant.now())));
+            return null;
+        }).given(catalogVersionStore).increment(any(), any());
+        // El contexto se comparte entre tests: cada uno parte sin vistas en ProductViewCache
+        catalogVersions.bump(CatalogVersions.Table.PRODUCTS);
+    }
+
+    @BeforeEach
+    void stubPricing() {
+        // Por defecto sin descuentos: el precio efectivo es el precio base
+        given(pricingService.effectivePrices(anyList())).willAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            return products.stream().mapToDouble(Product::getBasePrice).toArray();
+        });
+        given(pricingService.effectivePrice(any(Product.class)))
+                .willAnswer(invocation -> invocation.<Product>getArgument(0).getBasePrice());
+    }
+
     private Product product(int id, String name, double price, int sku, Category category) {
         Product p = new Product();
         p.setProductId(id);
@@ -83,10 +144,12 @@ class ProductControllerTest {
         Category cat = category(1, "Perros");
         Product p1 = product(10, "Collar", 25.5, 1001, cat);
         Product p2 = product(11, "Correa", 30.0, 1002, cat);
-        given(productService.findAll()).willReturn(List.of(p1, p2));
+        given(productService.findPage(any(ScrollPosition.class), eq(100)))
+                .willReturn(Window.from(List.of(p1, p2), i -> ScrollPosition.offset(i), false));
 
         mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"))
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].productId").value(10))
                 .andExpect(jsonPath("$[0].productName").value("Collar"))
@@ -99,6 +162,34 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[1].price").value(30.0));
     }
 
+    @Test
+    @DisplayName("GET /api/products?limit=&after= usa el cursor keyset y devuelve cabecera Link")
+    void getAllProducts_withCursor_returnsNextLink() throws Exception {
+        Category cat = category(1, "Perros");
+        Product p = product(12, "Arnés", 40.0, 1003, cat);
+        given(productService.findPage(argThat(position -> position instanceof KeysetScrollPosition keyset
+                        && Integer.valueOf(11).equals(keyset.getKeys().get("productId"))), eq(1)))
+                .willReturn(Window.from(List.of(p), i -> ScrollPosition.offset(i), true));
+
+        mockMvc.perform(get("/api/products").param("limit", "1").param("after", "11")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", containsString("limit=1")))
+                .andExpect(header().string("Link", containsString("after=12")))
+                .andExpect(jsonPath("$[0].productId").value(12));
+    }
+
+    @Test
+    @DisplayName("GET /api/products limita el tamaño de página al máximo permitido")
+    void getAllProducts_clampsLimit() throws Exception {
+        given(productService.findPage(any(ScrollPosition.class), eq(KeysetPagination.MAX_LIMIT)))
+                .willReturn(Window.from(List.of(), i -> ScrollPosition.offset(i), false));
+
+        mockMvc.perform(get("/api/products").param("limit", "1000000").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        assertThat(KeysetPagination.clampLimit(0)).isEqualTo(1);
+    }
+
     @Test
     @DisplayName("GET /api/products/{id} devuelve 200 cuando existe")
     void getProductById_returnsOk_whenExists() throws Exception {
@@ -144,7 +235,8 @@ class ProductControllerTest {
     void searchProducts_returnsOkWithList() throws Exception {
         Category cat = category(4, "Peces");
         Product p = product(40, "Pecera", 120.0, 4001, cat);
-        given(productService.findByNameContaining("pec")).willReturn(List.of(p));
+        given(productService.search(new ProductSearchIndex.Criteria("pec", null, null, null, ProductSearchIndex.DEFAULT_LIMIT)))
+                .willReturn(List.of(p));
 
         mockMvc.perform(get("/api/products/search").param("name", "pec").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -152,6 +244,29 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].productName").value("Pecera"));
     }
 
+    @Test
+    @DisplayName("GET /api/products/search?q=... pasa los filtros al índice de búsqueda")
+    void searchProducts_passesFiltersToSearch() throws Exception {
+        Category cat = category(4, "Peces");
+        Product p = product(41, "Filtro pecera", 35.0, 4002, cat);
+        given(productService.search(new ProductSearchIndex.Criteria("filtro", 4, 10.0, 50.0, 5)))
+                .willReturn(List.of(p));
+
+        mockMvc.perform(get("/api/products/search")
+                        .param("q", "filtro").param("categoryId", "4")
+                        .param("minPrice", "10").param("maxPrice", "50").param("limit", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(41));
+    }
+
+    @Test
+    @DisplayName("GET /api/products/search sin texto devuelve 400")
+    void searchProducts_withoutText_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/products/search").param("q", " ").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /api/products/price-range devuelve 200 con lista")
     void getProductsByPriceRange_returnsOkWithList() throws Exception {
@@ -167,4 +282,73 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].productId").value(50))
                 .andExpect(jsonPath("$[0].price").value(200.0));
     }
+
+    @Test
+    @DisplayName("GET /api/products/category/{categoryId} incluye el precio efectivo calculado para la página")
+    void getProductsByCategory_includesEffectivePrice() throws Exception {
+        Category cat = category(6, "Reptiles");
+        Product p1 = product(60, "Terrario", 100.0, 6001, cat);
+        Product p2 = product(61, "Lámpara", 40.0, 6002, cat);
+        given(productService.findByCategoryId(6)).willReturn(List.of(p1, p2));
+        given(pricingService.effectivePrices(List.of(p1, p2))).willReturn(new double[] {80.0, 32.0});
+
+        mockMvc.perform(get("/api/products/category/{categoryId}", 6).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].price").value(100.0))
+                .andExpect(jsonPath("$[0].effectivePrice").value(80.0))
+                .andExpect(jsonPath("$[1].effectivePrice").value(32.0));
+    }
+
+    @Test
+    @DisplayName("GET /api/products/{id} con If-None-Match vigente devuelve 304 sin consultar el servicio")
+    void getProductById_returnsNotModified_whenETagMatches() throws Exception {
+        given(productService.findById(20)).willReturn(Optional.of(product(20, "Rascador", 99.99, 2001, category(2, "Gatos"))));
+
+        String etag = mockMvc.perform(get("/api/products/{id}", 20).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, public"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products/{id}", 20).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        verify(productService, times(1)).findById(20);
+    }
+
+    @Test
+    @DisplayName("GET /api/products/{id} sirve el JSON ya serializado hasta que cambia el catálogo")
+    void getProductById_servesCachedViewUntilCatalogWrite() throws Exception {
+        given(productService.findById(21)).willReturn(Optional.of(product(21, "Fuente", 45.0, 2002, category(2, "Gatos"))));
+
+        mockMvc.perform(get("/api/products/{id}", 21)).andExpect(jsonPath("$.productName").value("Fuente"));
+        mockMvc.perform(get("/api/products/{id}", 21)).andExpect(jsonPath("$.productName").value("Fuente"));
+        verify(productService, times(1)).findById(21);
+
+        given(productService.findById(21)).willReturn(Optional.of(product(21, "Fuente con filtro", 45.0, 2002, category(2, "Gatos"))));
+        catalogVersions.bump(CatalogVersions.Table.PRODUCTS);
+
+        mockMvc.perform(get("/api/products/{id}", 21))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.productName").value("Fuente con filtro"));
+        verify(productService, times(2)).findById(21);
+    }
+
+    @Test
+    @DisplayName("GET /api/products cambia de ETag cuando se modifican las promociones")
+    void getAllProducts_returnsNewBody_afterCatalogWrite() throws Exception {
+        given(productService.findPage(any(ScrollPosition.class), eq(100)))
+                .willReturn(Window.from(List.of(), i -> ScrollPosition.offset(i), false));
+        String etag = mockMvc.perform(get("/api/products"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        catalogVersions.bump(CatalogVersions.Table.PROMOTIONS);
+
+        String newEtag = mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(newEtag).isNotEqualTo(etag);
+    }
 }
@@ -0,0 +1,110 @@
+package com.petstore.backend.controller;
+
+import com.petstore.backend.config.JwtAuthenticationFilter;
+import com.petstore.backend.service.AuthService;
+import com.petstore.backend.service.ProductExportService;
+import com.petstore.backend.util.JwtUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.cors.CorsConfigurationSource;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Import(SimpleMeterRegistry.class)
+@WebMvcTest(
+        controllers = ProductExportController.class,
+        properties = {"catalog.export.max-concurrent=1", "catalog.export.timeout=90s"},
+        excludeAutoConfiguration = {
+                SecurityAutoConfiguration.class,
+                SecurityFilterAutoConfiguration.class
+        }
+)
+@AutoConfigureMockMvc(addFilters = false)
+class ProductExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductExportService productExportService;
+
+    // Security-related beans mocked to avoid context initialization of real security
+    @MockBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private CorsConfigurationSource corsConfigurationSource;
+
+    @Test
+    @DisplayName("Con todas las exportaciones ocupadas responde 429 y el permiso vuelve al terminar")
+    void concurrentExportsAreCapped() throws Exception {
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        willAnswer(invocation -> {
+            exporting.countDown();
+            finish.await();
+            invocation.getArgument(1, OutputStream.class).write("{}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).given(productExportService).export(eq(ProductExportService.Format.NDJSON), any(OutputStream.class));
+
+        MvcResult running = mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(running.getRequest().getAsyncContext().getTimeout()).isEqualTo(90_000);
+        exporting.await();
+
+        mockMvc.perform(get("/api/products/export").param("format", "csv"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, ProductExportController.RETRY_AFTER_SECONDS));
+
+        finish.countDown();
+        mockMvc.perform(asyncDispatch(running))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{}\n"));
+
+        exportAndWait();
+    }
+
+    @Test
+    @DisplayName("Un formato desconocido no ocupa ningún permiso")
+    void unknownFormatDoesNotTakeAPermit() throws Exception {
+        mockMvc.perform(get("/api/products/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        exportAndWait();
+    }
+
+    private void exportAndWait() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+    }
+}
@@ -3,6 +3,9 @@ package com.petstore.backend.controller;
 import com.petstore.backend.config.JwtAuthenticationFilter;
 import com.petstore.backend.dto.CategoryDTO;
 import com.petstore.backend.dto.PromotionDTO;
+import com.petstore.backend.repository.PromotionSummary;
+import com.petstore.backend.service.CatalogVersionStore;
+import com.petstore.backend.service.CatalogVersions;
 import com.petstore.backend.service.AuthService;
 import com.petstore.backend.service.PromotionService;
 import com.petstore.backend.util.JwtUtil;
@@ -13,19 +16,31 @@ import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfi
 import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@Import({CatalogVersions.class, SimpleMeterRegistry.class})
 @WebMvcTest(
         controllers = PromotionController.class,
         excludeAutoConfiguration = {
@@ -42,6 +57,10 @@ class PromotionControllerTest {
     @MockBean
     private PromotionService promotionService;
 
+    // Las versiones compartidas viven en la base de datos, fuera del slice web
+    @MockBean
+    private CatalogVersionStore catalogVersionStore;
+
     // Security-related beans mocked to avoid context initialization of real security
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
@@ -89,21 +108,67 @@ class PromotionControllerTest {
                 .andExpect(jsonPath("$[0].category.categoryId").value(5));
     }
 
+    @Test
+    @DisplayName("GET /api/promotions/summary devuelve el resumen filtrado por categoría")
+    void getActivePromotionSummaries_returnsProjection() throws Exception {
+        PromotionSummary summary = new SpelAwareProxyProjectionFactory().createProjection(PromotionSummary.class, Map.of(
+                "promotionId", 4,
+                "promotionName", "Promo Resumen",
+                "discountValue", 20.0,
+                "startDate", LocalDate.of(2025, 1, 1),
+                "endDate", LocalDate.of(2025, 12, 31),
+                "categoryId", 5,
+                "categoryName", "Accesorios"));
+        given(promotionService.getActivePromotionSummaries(5)).willReturn(List.of(summary));
+
+        mockMvc.perform(get("/api/promotions/summary").param("categoryId", "5").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].promotionId").value(4))
+                .andExpect(jsonPath("$[0].discountValue").value(20.0))
+                .andExpect(jsonPath("$[0].categoryName").value("Accesorios"))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/promotions/summary sin categoría no filtra por categoría")
+    void getActivePromotionSummaries_withoutCategory() throws Exception {
+        given(promotionService.getActivePromotionSummaries(isNull())).willReturn(List.of());
+
+        mockMvc.perform(get("/api/promotions/summary").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @DisplayName("GET /api/promotions/all devuelve 200 con lista completa")
     void getAllPromotions_returnsOkWithList() throws Exception {
-        given(promotionService.getAllPromotions()).willReturn(List.of(
+        given(promotionService.getPromotionsPage(any(ScrollPosition.class), eq(100))).willReturn(Window.from(List.of(
                 promo(2, "Promo 1", 5.0, null, null),
                 promo(3, "Promo 2", 15.0, 7, "Higiene")
-        ));
+        ), i -> ScrollPosition.offset(i), false));
 
         mockMvc.perform(get("/api/promotions/all").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"))
                 .andExpect(jsonPath("$[0].promotionId").value(2))
                 .andExpect(jsonPath("$[1].promotionId").value(3))
                 .andExpect(jsonPath("$[1].category.categoryId").value(7));
     }
 
+    @Test
+    @DisplayName("GET /api/promotions/all?limit=1 devuelve cabecera Link con el cursor siguiente")
+    void getAllPromotions_withMorePages_returnsNextLink() throws Exception {
+        given(promotionService.getPromotionsPage(any(ScrollPosition.class), eq(1))).willReturn(Window.from(List.of(
+                promo(2, "Promo 1", 5.0, null, null)
+        ), i -> ScrollPosition.offset(i), true));
+
+        mockMvc.perform(get("/api/promotions/all").param("limit", "1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", containsString("after=2")))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
     @Test
     @DisplayName("GET /api/promotions/category/{id} devuelve 200 por categoría")
     void getPromotionsByCategory_returnsOkWithList() throws Exception {
@@ -0,0 +1,103 @@
+package com.petstore.backend.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.StatusRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica que las relaciones de GraphQL se resuelven por lotes:
+ * el número de sentencias SQL no crece con el número de resultados.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class GraphQLBatchLoadingTest {
+
+    private static final String NESTED_QUERY = """
+            {
+              categories {
+                categoryId
+                products { productId promotion { promotionId category { categoryId } } }
+                promotions { promotionId products { productId } }
+              }
+            }
+            """;
+
+    @Autowired private GraphQlTester graphQlTester;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private StatusRepository statusRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PromotionRepository promotionRepository;
+
+    private int sku = 1;
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+        promotionRepository.deleteAll();
+        categoryRepository.deleteAll();
+        statusRepository.deleteAll();
+    }
+
+    @Test
+    void nestedQuery_statementCountDoesNotGrowWithResultSize() {
+        Status active = statusRepository.save(new Status("ACTIVE"));
+
+        seedCatalog(active, 2, 2);
+        long small = countStatements();
+
+        seedCatalog(active, 10, 5);
+        long large = countStatements();
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    private long countStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        graphQlTester.document(NESTED_QUERY).execute()
+                .path("categories").entityList(Object.class).satisfies(list -> assertThat(list).isNotEmpty());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seedCatalog(Status status, int categories, int productsPerCategory) {
+        LocalDate today = LocalDate.now();
+        for (int c = 0; c < categories; c++) {
+            Category category = categoryRepository.save(new Category("Cat-" + sku + "-" + c, null));
+
+            Promotion promotion = new Promotion("Promo-" + c, null, today, today.plusDays(5), 10.0, status);
+            promotion.setCategory(category);
+            promotion = promotionRepository.save(promotion);
+
+            for (int p = 0; p < productsPerCategory; p++) {
+                Product product = new Product("Prod-" + sku, 9.99, sku++, category);
+                product.setPromotion(promotion);
+                productRepository.save(product);
+            }
+        }
+    }
+}
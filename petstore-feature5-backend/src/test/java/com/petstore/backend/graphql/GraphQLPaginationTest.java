@@ -0,0 +1,129 @@
+package com.petstore.backend.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+
+import graphql.schema.GraphQLSchema;
+
+/**
+ * Recorre productsPage con cursores Relay (first/after) sobre H2 y comprueba el
+ * máximo de elementos de las listas sin paginar
+ */
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class GraphQLPaginationTest {
+
+    private static final String PAGE_QUERY = """
+            query($first: Int, $after: String) {
+              productsPage(first: $first, after: $after) {
+                edges { cursor node { productId productName } }
+                pageInfo { hasNextPage endCursor }
+              }
+            }
+            """;
+
+    @Autowired private GraphQlTester graphQlTester;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private GraphQlSource graphQlSource;
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void productsPage_walksAllProductsWithCursors() {
+        Category category = categoryRepository.save(new Category("Paginación", null));
+        for (int i = 0; i < 5; i++) {
+            productRepository.save(new Product("Prod-" + i, 10.0 + i, 9000 + i, category));
+        }
+
+        GraphQlTester.Response first = graphQlTester.document(PAGE_QUERY).variable("first", 2).execute();
+        List<String> firstNames = first.path("productsPage.edges[*].node.productName").entityList(String.class).get();
+        assertThat(firstNames).containsExactly("Prod-0", "Prod-1");
+        first.path("productsPage.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true);
+        String cursor = first.path("productsPage.pageInfo.endCursor").entity(String.class).get();
+
+        GraphQlTester.Response second = graphQlTester.document(PAGE_QUERY)
+                .variable("first", 3).variable("after", cursor).execute();
+        List<String> secondNames = second.path("productsPage.edges[*].node.productName").entityList(String.class).get();
+        assertThat(secondNames).containsExactly("Prod-2", "Prod-3", "Prod-4");
+        second.path("productsPage.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(false);
+    }
+
+    @Test
+    void unpaginatedListsReturnAtMostTheirCap() {
+        Category dogs = categoryRepository.save(new Category("Perros", null));
+        Category cats = categoryRepository.save(new Category("Gatos", null));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < GraphQLResolver.MAX_PRODUCTS_PER_PARENT + 2; i++) {
+            products.add(new Product("Perro-" + i, 10.0, 9100 + i, dogs));
+            products.add(new Product("Gato-" + i, 10.0, 9200 + i, cats));
+        }
+        productRepository.saveAll(products);
+
+        graphQlTester.document("{ products { productId } }").execute()
+                .path("products").entityList(Object.class).hasSize(GraphQLResolver.MAX_PRODUCTS);
+
+        // El corte es por categoría: cada una recibe sus primeros productos por ID
+        GraphQlTester.Response nested = graphQlTester.document("{ categories { categoryName products { productName } } }")
+                .execute();
+        nested.path("categories[?(@.categoryName == 'Perros')].products[*].productName").entityList(String.class)
+                .hasSize(GraphQLResolver.MAX_PRODUCTS_PER_PARENT)
+                .contains("Perro-0")
+                .doesNotContain("Perro-" + GraphQLResolver.MAX_PRODUCTS_PER_PARENT);
+        nested.path("categories[?(@.categoryName == 'Gatos')].products[*].productName").entityList(String.class)
+                .hasSize(GraphQLResolver.MAX_PRODUCTS_PER_PARENT);
+
+        graphQlTester.document("query($id: ID!) { productsByCategory(categoryId: $id) { productId } }")
+                .variable("id", cats.getCategoryId())
+                .execute()
+                .path("productsByCategory").entityList(Object.class).hasSize(GraphQLResolver.MAX_PRODUCTS_PER_PARENT);
+    }
+
+    @Test
+    void capsMatchTheCostMultipliersOfTheSchema() {
+        // QueryCostInstrumentation usa el multiplicador como tamaño de la lista
+        Map<String, Integer> caps = Map.ofEntries(
+                Map.entry("Query.promotions", GraphQLResolver.MAX_PROMOTIONS),
+                Map.entry("Query.promotionsActive", GraphQLResolver.MAX_PROMOTIONS),
+                Map.entry("Query.promotionsExpired", GraphQLResolver.MAX_PROMOTIONS),
+                Map.entry("Query.promotionsScheduled", GraphQLResolver.MAX_PROMOTIONS),
+                Map.entry("Query.promotionsByStatus", GraphQLResolver.MAX_PROMOTIONS),
+                Map.entry("Query.promotionsByCategory", GraphQLResolver.MAX_PROMOTIONS_PER_CATEGORY),
+                Map.entry("Query.categories", GraphQLResolver.MAX_CATEGORIES),
+                Map.entry("Query.products", GraphQLResolver.MAX_PRODUCTS),
+                Map.entry("Query.productsByCategory", GraphQLResolver.MAX_PRODUCTS_PER_PARENT),
+                Map.entry("Category.promotions", GraphQLResolver.MAX_PROMOTIONS_PER_CATEGORY),
+                Map.entry("Category.products", GraphQLResolver.MAX_PRODUCTS_PER_PARENT),
+                Map.entry("Promotion.products", GraphQLResolver.MAX_PRODUCTS_PER_PARENT));
+
+        GraphQLSchema schema = graphQlSource.schema();
+        caps.forEach((field, cap) -> {
+            String[] parts = field.split("\\.");
+            Object multiplier = schema.getObjectType(parts[0]).getFieldDefinition(parts[1])
+                    .getAppliedDirective(QueryCostInstrumentation.COST_DIRECTIVE).getArgument("multiplier").getValue();
+            assertThat(multiplier).as(field).isEqualTo(cap);
+        });
+    }
+}
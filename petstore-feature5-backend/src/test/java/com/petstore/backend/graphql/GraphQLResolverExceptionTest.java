@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import com.petstore.backend.repository.CategoryRepository;
@@ -18,6 +20,8 @@ import com.petstore.backend.repository.ProductRepository;
 import com.petstore.backend.repository.PromotionRepository;
 import com.petstore.backend.repository.UserRepository;
 import com.petstore.backend.service.AuthService;
+import com.petstore.backend.service.CategoryService;
+import com.petstore.backend.service.ProductService;
 import com.petstore.backend.service.PromotionService;
 
 /**
@@ -31,6 +35,8 @@ class GraphQLResolverExceptionTest {
     @Mock private CategoryRepository categoryRepository;
     @Mock private ProductRepository productRepository;
     @Mock private PromotionRepository promotionRepository;
+    @Mock private ProductService productService;
+    @Mock private CategoryService categoryService;
 
     @InjectMocks private GraphQLResolver resolver;
 
@@ -48,8 +54,8 @@ class GraphQLResolverExceptionTest {
     }
 
     @Test
-    void promotions_whenRepositoryThrows_returnsEmptyList() {
-        when(promotionRepository.findAll()).thenThrow(new RuntimeException("DB error"));
+    void promotions_whenServiceThrows_returnsEmptyList() {
+        when(promotionService.getPromotionsPageEntities(ScrollPosition.keyset(), GraphQLResolver.MAX_PROMOTIONS)).thenThrow(new RuntimeException("DB error"));
         
         List<com.petstore.backend.entity.Promotion> result = resolver.promotions();
         
@@ -67,7 +73,7 @@ class GraphQLResolverExceptionTest {
 
     @Test
     void promotionsExpired_whenServiceThrows_returnsEmptyList() {
-        when(promotionService.getAllExpiredPromotionsEntities()).thenThrow(new RuntimeException("Service error"));
+        when(promotionService.getAllExpiredPromotionsEntities(GraphQLResolver.MAX_PROMOTIONS)).thenThrow(new RuntimeException("Service error"));
         
         List<com.petstore.backend.entity.Promotion> result = resolver.promotionsExpired();
         
@@ -76,7 +82,7 @@ class GraphQLResolverExceptionTest {
 
     @Test
     void promotionsScheduled_whenServiceThrows_returnsEmptyList() {
-        when(promotionService.getAllScheduledPromotionsEntities()).thenThrow(new RuntimeException("Service error"));
+        when(promotionService.getAllScheduledPromotionsEntities(GraphQLResolver.MAX_PROMOTIONS)).thenThrow(new RuntimeException("Service error"));
         
         List<com.petstore.backend.entity.Promotion> result = resolver.promotionsScheduled();
         
@@ -85,7 +91,7 @@ class GraphQLResolverExceptionTest {
 
     @Test
     void promotionsByStatus_whenServiceThrows_returnsEmptyList() {
-        when(promotionService.getPromotionsByStatusEntities("ACTIVE")).thenThrow(new RuntimeException("Service error"));
+        when(promotionService.getPromotionsByStatusEntities("ACTIVE", GraphQLResolver.MAX_PROMOTIONS)).thenThrow(new RuntimeException("Service error"));
         
         List<com.petstore.backend.entity.Promotion> result = resolver.promotionsByStatus("ACTIVE");
         
@@ -94,7 +100,7 @@ class GraphQLResolverExceptionTest {
 
     @Test
     void promotionsByCategory_whenServiceThrows_returnsEmptyList() {
-        when(promotionService.getPromotionsByCategoryEntities(1)).thenThrow(new RuntimeException("Service error"));
+        when(promotionService.getPromotionsByCategoryEntities(1, GraphQLResolver.MAX_PROMOTIONS_PER_CATEGORY)).thenThrow(new RuntimeException("Service error"));
         
         List<com.petstore.backend.entity.Promotion> result = resolver.promotionsByCategory(1);
         
@@ -111,8 +117,8 @@ class GraphQLResolverExceptionTest {
     }
 
     @Test
-    void categories_whenRepositoryThrows_returnsEmptyList() {
-        when(categoryRepository.findAll()).thenThrow(new RuntimeException("DB error"));
+    void categories_whenServiceThrows_returnsEmptyList() {
+        when(categoryService.findPage(ScrollPosition.keyset(), GraphQLResolver.MAX_CATEGORIES)).thenThrow(new RuntimeException("DB error"));
         
         List<com.petstore.backend.entity.Category> result = resolver.categories();
         
@@ -129,8 +135,8 @@ class GraphQLResolverExceptionTest {
     }
 
     @Test
-    void products_whenRepositoryThrows_returnsEmptyList() {
-        when(productRepository.findAll()).thenThrow(new RuntimeException("DB error"));
+    void products_whenServiceThrows_returnsEmptyList() {
+        when(productService.findPage(ScrollPosition.keyset(), GraphQLResolver.MAX_PRODUCTS)).thenThrow(new RuntimeException("DB error"));
         
         List<com.petstore.backend.entity.Product> result = resolver.products();
         
@@ -139,7 +145,7 @@ class GraphQLResolverExceptionTest {
 
     @Test
     void productsByCategory_whenRepositoryThrows_returnsEmptyList() {
-        when(productRepository.findByCategoryCategoryId(1)).thenThrow(new RuntimeException("DB error"));
+        when(productRepository.findFirstPerCategory(List.of(1), GraphQLResolver.MAX_PRODUCTS_PER_PARENT)).thenThrow(new RuntimeException("DB error"));
         
         List<com.petstore.backend.entity.Product> result = resolver.productsByCategory(1);
         
@@ -157,34 +163,37 @@ class GraphQLResolverExceptionTest {
 
     @Test
     void promotionProducts_whenRepositoryThrows_returnsEmptyList() {
-        com.petstore.backend.entity.Promotion promo = org.mockito.Mockito.mock(com.petstore.backend.entity.Promotion.class);
-        when(promo.getPromotionId()).thenReturn(1);
-        when(productRepository.findByPromotionPromotionId(1)).thenThrow(new RuntimeException("DB error"));
+        com.petstore.backend.entity.Promotion promo = new com.petstore.backend.entity.Promotion();
+        promo.setPromotionId(1);
+        when(productRepository.findFirstPerPromotion(List.of(1), GraphQLResolver.MAX_PRODUCTS_PER_PARENT)).thenThrow(new RuntimeException("DB error"));
         
-        List<com.petstore.backend.entity.Product> result = resolver.promotionProducts(promo);
+        Map<com.petstore.backend.entity.Promotion, List<com.petstore.backend.entity.Product>> result =
+                resolver.promotionProducts(List.of(promo));
         
-        assertThat(result).isEmpty();
+        assertThat(result.get(promo)).isEmpty();
     }
 
     @Test
     void categoryPromotions_whenServiceThrows_returnsEmptyList() {
-        com.petstore.backend.entity.Category cat = org.mockito.Mockito.mock(com.petstore.backend.entity.Category.class);
-        when(cat.getCategoryId()).thenReturn(1);
-        when(promotionService.getPromotionsByCategoryEntities(1)).thenThrow(new RuntimeException("Service error"));
+        com.petstore.backend.entity.Category cat = new com.petstore.backend.entity.Category();
+        cat.setCategoryId(1);
+        when(promotionService.getPromotionsByCategoryIdsEntities(List.of(1), GraphQLResolver.MAX_PROMOTIONS_PER_CATEGORY)).thenThrow(new RuntimeException("Service error"));
         
-        List<com.petstore.backend.entity.Promotion> result = resolver.categoryPromotions(cat);
+        Map<com.petstore.backend.entity.Category, List<com.petstore.backend.entity.Promotion>> result =
+                resolver.categoryPromotions(List.of(cat));
         
-        assertThat(result).isEmpty();
+        assertThat(result.get(cat)).isEmpty();
     }
 
     @Test
     void categoryProducts_whenRepositoryThrows_returnsEmptyList() {
-        com.petstore.backend.entity.Category cat = org.mockito.Mockito.mock(com.petstore.backend.entity.Category.class);
-        when(cat.getCategoryId()).thenReturn(1);
-        when(productRepository.findByCategoryCategoryId(1)).thenThrow(new RuntimeException("DB error"));
+        com.petstore.backend.entity.Category cat = new com.petstore.backend.entity.Category();
+        cat.setCategoryId(1);
+        when(productRepository.findFirstPerCategory(List.of(1), GraphQLResolver.MAX_PRODUCTS_PER_PARENT)).thenThrow(new RuntimeException("DB error"));
         
-        List<com.petstore.backend.entity.Product> result = resolver.categoryProducts(cat);
+        Map<com.petstore.backend.entity.Category, List<com.petstore.backend.entity.Product>> result =
+                resolver.categoryProducts(List.of(cat));
         
-        assertThat(result).isEmpty();
+        assertThat(result.get(cat)).isEmpty();
     }
 }
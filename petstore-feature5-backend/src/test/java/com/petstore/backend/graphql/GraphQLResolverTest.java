@@ -5,7 +5,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.dataloader.DataLoader;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +17,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,6 +30,10 @@ import com.petstore.backend.repository.ProductRepository;
 import com.petstore.backend.repository.PromotionRepository;
 import com.petstore.backend.repository.UserRepository;
 import com.petstore.backend.service.AuthService;
+import com.petstore.backend.service.CategoryService;
+import com.petstore.backend.service.PricingService;
+import com.petstore.backend.service.ProductSearchIndex;
+import com.petstore.backend.service.ProductService;
 import com.petstore.backend.service.PromotionService;
 
 class GraphQLResolverTest {
@@ -46,6 +56,15 @@ class GraphQLResolverTest {
     @Mock
     private PromotionRepository promotionRepository;
 
+    @Mock
+    private PricingService pricingService;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private CategoryService categoryService;
+
     @InjectMocks
     private GraphQLResolver resolver;
 
@@ -63,6 +82,10 @@ class GraphQLResolverTest {
         mocks.close();
     }
 
+    private static <T> Window<T> window(T item) {
+        return Window.from(List.of(item), index -> ScrollPosition.offset(index));
+    }
+
     @Test
     void health_returnsNonEmptyString() {
         String s = resolver.health();
@@ -70,24 +93,26 @@ class GraphQLResolverTest {
     }
 
     @Test
-    void promotions_returnsListFromRepository() {
+    void promotions_returnsFirstPageFromService() {
         Promotion p = org.mockito.Mockito.mock(Promotion.class);
-        when(promotionRepository.findAll()).thenReturn(List.of(p));
+        when(promotionService.getPromotionsPageEntities(ScrollPosition.keyset(), GraphQLResolver.MAX_PROMOTIONS))
+                .thenReturn(window(p));
 
         List<Promotion> result = resolver.promotions();
 
         assertThat(result).hasSize(1);
-        verify(promotionRepository).findAll();
+        verify(promotionService).getPromotionsPageEntities(ScrollPosition.keyset(), GraphQLResolver.MAX_PROMOTIONS);
     }
 
     @Test
     void promotionsActive_callsServiceAndReturnsList() {
         Promotion p = org.mockito.Mockito.mock(Promotion.class);
-        when(promotionService.getAllActivePromotionsEntities()).thenReturn(List.of(p));
+        when(promotionService.getAllActivePromotionsEntities()).thenReturn(
+                java.util.Collections.nCopies(GraphQLResolver.MAX_PROMOTIONS + 1, p));
 
         List<Promotion> result = resolver.promotionsActive();
 
-        assertThat(result).hasSize(1);
+        assertThat(result).hasSize(GraphQLResolver.MAX_PROMOTIONS);
         verify(promotionService).getAllActivePromotionsEntities();
     }
 
@@ -129,56 +154,56 @@ class GraphQLResolverTest {
     @Test
     void promotionsExpired_callsServiceAndReturnsList() {
         Promotion p = org.mockito.Mockito.mock(Promotion.class);
-        when(promotionService.getAllExpiredPromotionsEntities()).thenReturn(List.of(p));
+        when(promotionService.getAllExpiredPromotionsEntities(GraphQLResolver.MAX_PROMOTIONS)).thenReturn(List.of(p));
 
         List<Promotion> result = resolver.promotionsExpired();
 
         assertThat(result).hasSize(1);
-        verify(promotionService).getAllExpiredPromotionsEntities();
+        verify(promotionService).getAllExpiredPromotionsEntities(GraphQLResolver.MAX_PROMOTIONS);
     }
 
     @Test
     void promotionsScheduled_callsServiceAndReturnsList() {
         Promotion p = org.mockito.Mockito.mock(Promotion.class);
-        when(promotionService.getAllScheduledPromotionsEntities()).thenReturn(List.of(p));
+        when(promotionService.getAllScheduledPromotionsEntities(GraphQLResolver.MAX_PROMOTIONS)).thenReturn(List.of(p));
 
         List<Promotion> result = resolver.promotionsScheduled();
 
         assertThat(result).hasSize(1);
-        verify(promotionService).getAllScheduledPromotionsEntities();
+        verify(promotionService).getAllScheduledPromotionsEntities(GraphQLResolver.MAX_PROMOTIONS);
     }
 
     @Test
     void promotionsByStatus_callsServiceWithStatusName() {
         Promotion p = org.mockito.Mockito.mock(Promotion.class);
-        when(promotionService.getPromotionsByStatusEntities("ACTIVE")).thenReturn(List.of(p));
+        when(promotionService.getPromotionsByStatusEntities("ACTIVE", GraphQLResolver.MAX_PROMOTIONS)).thenReturn(List.of(p));
 
         List<Promotion> result = resolver.promotionsByStatus("ACTIVE");
 
         assertThat(result).hasSize(1);
-        verify(promotionService).getPromotionsByStatusEntities("ACTIVE");
+        verify(promotionService).getPromotionsByStatusEntities("ACTIVE", GraphQLResolver.MAX_PROMOTIONS);
     }
 
     @Test
     void promotionsByCategory_callsServiceWithCategoryId() {
         Promotion p = org.mockito.Mockito.mock(Promotion.class);
-        when(promotionService.getPromotionsByCategoryEntities(5)).thenReturn(List.of(p));
+        when(promotionService.getPromotionsByCategoryEntities(5, GraphQLResolver.MAX_PROMOTIONS_PER_CATEGORY)).thenReturn(List.of(p));
 
         List<Promotion> result = resolver.promotionsByCategory(5);
 
         assertThat(result).hasSize(1);
-        verify(promotionService).getPromotionsByCategoryEntities(5);
+        verify(promotionService).getPromotionsByCategoryEntities(5, GraphQLResolver.MAX_PROMOTIONS_PER_CATEGORY);
     }
 
     @Test
-    void categories_returnsListFromRepository() {
+    void categories_returnsFirstPageFromService() {
         com.petstore.backend.entity.Category cat = org.mockito.Mockito.mock(com.petstore.backend.entity.Category.class);
-        when(categoryRepository.findAll()).thenReturn(List.of(cat));
+        when(categoryService.findPage(ScrollPosition.keyset(), GraphQLResolver.MAX_CATEGORIES)).thenReturn(window(cat));
 
         List<com.petstore.backend.entity.Category> result = resolver.categories();
 
         assertThat(result).hasSize(1);
-        verify(categoryRepository).findAll();
+        verify(categoryService).findPage(ScrollPosition.keyset(), GraphQLResolver.MAX_CATEGORIES);
     }
 
     @Test
@@ -195,25 +220,36 @@ class GraphQLResolverTest {
     }
 
     @Test
-    void products_returnsListFromRepository() {
+    void products_returnsFirstPageFromService() {
         com.petstore.backend.entity.Product prod = org.mockito.Mockito.mock(com.petstore.backend.entity.Product.class);
-        when(productRepository.findAll()).thenReturn(List.of(prod));
+        when(productService.findPage(ScrollPosition.keyset(), GraphQLResolver.MAX_PRODUCTS)).thenReturn(window(prod));
 
         List<com.petstore.backend.entity.Product> result = resolver.products();
 
         assertThat(result).hasSize(1);
-        verify(productRepository).findAll();
+        verify(productService).findPage(ScrollPosition.keyset(), GraphQLResolver.MAX_PRODUCTS);
     }
 
     @Test
     void productsByCategory_callsRepositoryWithCategoryId() {
         com.petstore.backend.entity.Product prod = org.mockito.Mockito.mock(com.petstore.backend.entity.Product.class);
-        when(productRepository.findByCategoryCategoryId(3)).thenReturn(List.of(prod));
+        when(productRepository.findFirstPerCategory(List.of(3), GraphQLResolver.MAX_PRODUCTS_PER_PARENT)).thenReturn(List.of(prod));
 
         List<com.petstore.backend.entity.Product> result = resolver.productsByCategory(3);
 
         assertThat(result).hasSize(1);
-        verify(productRepository).findByCategoryCategoryId(3);
+        verify(productRepository).findFirstPerCategory(List.of(3), GraphQLResolver.MAX_PRODUCTS_PER_PARENT);
+    }
+
+    @Test
+    void searchProducts_delegatesToSearchWithPageSize() {
+        com.petstore.backend.entity.Product prod = org.mockito.Mockito.mock(com.petstore.backend.entity.Product.class);
+        when(productService.search(new ProductSearchIndex.Criteria("collar", 2, null, 30.0, 20))).thenReturn(List.of(prod));
+
+        List<com.petstore.backend.entity.Product> result = resolver.searchProducts("collar", 2, null, 30.0, null);
+
+        assertThat(result).containsExactly(prod);
+        verify(productService).search(new ProductSearchIndex.Criteria("collar", 2, null, 30.0, 20));
     }
 
     @Test
@@ -230,44 +266,104 @@ class GraphQLResolverTest {
     }
 
     @Test
-    void promotionProducts_resolvesProductsForPromotion() {
-        Promotion promo = org.mockito.Mockito.mock(Promotion.class);
-        when(promo.getPromotionId()).thenReturn(10);
-        
-        com.petstore.backend.entity.Product prod = org.mockito.Mockito.mock(com.petstore.backend.entity.Product.class);
-        when(productRepository.findByPromotionPromotionId(10)).thenReturn(List.of(prod));
+    void promotionProducts_resolvesProductsForPromotionsInOneQuery() {
+        Promotion promo = new Promotion();
+        promo.setPromotionId(10);
+        Promotion other = new Promotion();
+        other.setPromotionId(11);
 
-        List<com.petstore.backend.entity.Product> result = resolver.promotionProducts(promo);
+        com.petstore.backend.entity.Product prod = new com.petstore.backend.entity.Product();
+        prod.setPromotion(promo);
+        when(productRepository.findFirstPerPromotion(List.of(10, 11), GraphQLResolver.MAX_PRODUCTS_PER_PARENT)).thenReturn(List.of(prod));
 
-        assertThat(result).hasSize(1);
-        verify(productRepository).findByPromotionPromotionId(10);
+        Map<Promotion, List<com.petstore.backend.entity.Product>> result = resolver.promotionProducts(List.of(promo, other));
+
+        assertThat(result.get(promo)).containsExactly(prod);
+        assertThat(result.get(other)).isEmpty();
+        verify(productRepository).findFirstPerPromotion(List.of(10, 11), GraphQLResolver.MAX_PRODUCTS_PER_PARENT);
     }
 
     @Test
-    void categoryPromotions_resolvesPromotionsForCategory() {
-        com.petstore.backend.entity.Category cat = org.mockito.Mockito.mock(com.petstore.backend.entity.Category.class);
-        when(cat.getCategoryId()).thenReturn(7);
-        
-        Promotion promo = org.mockito.Mockito.mock(Promotion.class);
-        when(promotionService.getPromotionsByCategoryEntities(7)).thenReturn(List.of(promo));
+    void categoryPromotions_resolvesPromotionsForCategoriesInOneQuery() {
+        com.petstore.backend.entity.Category cat = new com.petstore.backend.entity.Category();
+        cat.setCategoryId(7);
 
-        List<Promotion> result = resolver.categoryPromotions(cat);
+        Promotion promo = new Promotion();
+        promo.setCategory(cat);
+        when(promotionService.getPromotionsByCategoryIdsEntities(List.of(7), GraphQLResolver.MAX_PROMOTIONS_PER_CATEGORY)).thenReturn(List.of(promo));
 
-        assertThat(result).hasSize(1);
-        verify(promotionService).getPromotionsByCategoryEntities(7);
+        Map<com.petstore.backend.entity.Category, List<Promotion>> result = resolver.categoryPromotions(List.of(cat));
+
+        assertThat(result.get(cat)).containsExactly(promo);
+        verify(promotionService).getPromotionsByCategoryIdsEntities(List.of(7), GraphQLResolver.MAX_PROMOTIONS_PER_CATEGORY);
     }
 
     @Test
-    void categoryProducts_resolvesProductsForCategory() {
-        com.petstore.backend.entity.Category cat = org.mockito.Mockito.mock(com.petstore.backend.entity.Category.class);
-        when(cat.getCategoryId()).thenReturn(8);
-        
-        com.petstore.backend.entity.Product prod = org.mockito.Mockito.mock(com.petstore.backend.entity.Product.class);
-        when(productRepository.findByCategoryCategoryId(8)).thenReturn(List.of(prod));
+    void categoryProducts_resolvesProductsForCategoriesInOneQuery() {
+        com.petstore.backend.entity.Category cat = new com.petstore.backend.entity.Category();
+        cat.setCategoryId(8);
+        com.petstore.backend.entity.Category empty = new com.petstore.backend.entity.Category();
+        empty.setCategoryId(9);
+
+        com.petstore.backend.entity.Product prod = new com.petstore.backend.entity.Product();
+        prod.setCategory(cat);
+        when(productRepository.findFirstPerCategory(List.of(8, 9), GraphQLResolver.MAX_PRODUCTS_PER_PARENT)).thenReturn(List.of(prod));
+
+        Map<com.petstore.backend.entity.Category, List<com.petstore.backend.entity.Product>> result =
+                resolver.categoryProducts(List.of(cat, empty));
+
+        assertThat(result.get(cat)).containsExactly(prod);
+        assertThat(result.get(empty)).isEmpty();
+        verify(productRepository).findFirstPerCategory(List.of(8, 9), GraphQLResolver.MAX_PRODUCTS_PER_PARENT);
+    }
 
-        List<com.petstore.backend.entity.Product> result = resolver.categoryProducts(cat);
+    @Test
+    void productPromotion_withoutPromotion_completesWithNullAndSkipsLoader() {
+        @SuppressWarnings("unchecked")
+        DataLoader<Integer, Promotion> loader = org.mockito.Mockito.mock(DataLoader.class);
 
-        assertThat(result).hasSize(1);
-        verify(productRepository).findByCategoryCategoryId(8);
+        CompletableFuture<Promotion> result = resolver.productPromotion(new com.petstore.backend.entity.Product(), loader);
+
+        assertThat(result.join()).isNull();
+        org.mockito.Mockito.verifyNoInteractions(loader);
+    }
+
+    @Test
+    void promotionCategory_alreadyLoaded_skipsLoader() {
+        @SuppressWarnings("unchecked")
+        DataLoader<Integer, com.petstore.backend.entity.Category> loader = org.mockito.Mockito.mock(DataLoader.class);
+        com.petstore.backend.entity.Category category = new com.petstore.backend.entity.Category("Perros", null);
+        category.setCategoryId(3);
+        Promotion promo = new Promotion();
+        promo.setCategory(category);
+
+        assertThat(resolver.promotionCategory(promo, loader).join()).isSameAs(category);
+        org.mockito.Mockito.verifyNoInteractions(loader);
+    }
+
+    @Test
+    void productPromotion_delegatesToLoaderById() {
+        @SuppressWarnings("unchecked")
+        DataLoader<Integer, Promotion> loader = org.mockito.Mockito.mock(DataLoader.class);
+        Promotion promo = new Promotion();
+        promo.setPromotionId(4);
+        com.petstore.backend.entity.Product prod = new com.petstore.backend.entity.Product();
+        prod.setPromotion(promo);
+        when(loader.load(4)).thenReturn(CompletableFuture.completedFuture(promo));
+
+        assertThat(resolver.productPromotion(prod, loader).join()).isSameAs(promo);
+        verify(loader).load(4);
+    }
+
+    @Test
+    void productEffectivePrice_computesWholeLevelInOneCall() {
+        com.petstore.backend.entity.Product a = new com.petstore.backend.entity.Product();
+        com.petstore.backend.entity.Product b = new com.petstore.backend.entity.Product();
+        when(pricingService.effectivePrices(List.of(a, b))).thenReturn(new double[] {9.0, 4.5});
+
+        List<Double> result = resolver.productEffectivePrice(List.of(a, b));
+
+        assertThat(result).containsExactly(9.0, 4.5);
+        verify(pricingService).effectivePrices(List.of(a, b));
     }
 }
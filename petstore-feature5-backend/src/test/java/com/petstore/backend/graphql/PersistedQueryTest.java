@@ -0,0 +1,138 @@
+package com.petstore.backend.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Verifica el protocolo de persisted queries automáticas sobre /graphql (POST y
+ * GET), la caché de documentos y las cabeceras de caché HTTP.
+ */
+@SpringBootTest(properties = "graphql.apq.max-age=120s")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PersistedQueryTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    private MockHttpServletRequestBuilder postGraphQl(Map<String, Object> body) throws Exception {
+        return post("/graphql").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+
+    private static Map<String, Object> persistedQuery(String hash) {
+        return Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+    }
+
+    private String extensionsJson(String hash) throws Exception {
+        return objectMapper.writeValueAsString(persistedQuery(hash));
+    }
+
+    @Test
+    void unknownHashAsksClientToRegisterQuery() throws Exception {
+        String hash = HashedDocumentProvider.sha256("{ categories { categoryId } }");
+
+        perform(postGraphQl(Map.of("extensions", persistedQuery(hash))))
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+    }
+
+    @Test
+    void registeredQueryIsServedByHashOverCacheableGet() throws Exception {
+        String query = "{ categories { categoryName } }";
+        String hash = HashedDocumentProvider.sha256(query);
+
+        perform(postGraphQl(Map.of("query", query, "extensions", persistedQuery(hash))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").doesNotExist());
+
+        perform(get("/graphql").param("extensions", extensionsJson(hash)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.categories").isArray())
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=120, public"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.AUTHORIZATION)));
+    }
+
+    @Test
+    void authenticatedHashGetIsOnlyPrivatelyCacheable() throws Exception {
+        String query = "{ categories { categoryId } }";
+        String hash = HashedDocumentProvider.sha256(query);
+        perform(postGraphQl(Map.of("query", query, "extensions", persistedQuery(hash))));
+
+        perform(get("/graphql").param("extensions", extensionsJson(hash))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer invalid"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=120, private"));
+    }
+
+    @Test
+    void hashThatDoesNotMatchQueryIsRejected() throws Exception {
+        String hash = HashedDocumentProvider.sha256("{ products { productId } }");
+
+        perform(postGraphQl(Map.of("query", "{ categories { categoryId } }", "extensions", persistedQuery(hash))))
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryIdInvalid"));
+    }
+
+    @Test
+    void repeatedPlainQueriesReuseParsedDocument() throws Exception {
+        String query = "{ products { productId productName } }";
+        double hitsBefore = documentCacheHits();
+
+        perform(postGraphQl(Map.of("query", query))).andExpect(jsonPath("$.errors").doesNotExist());
+        perform(postGraphQl(Map.of("query", query))).andExpect(jsonPath("$.errors").doesNotExist());
+
+        assertThat(documentCacheHits()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void getWithFullQueryTextIsNotCached() throws Exception {
+        perform(get("/graphql").param("query", "{ categories { categoryId } }"))
+                .andExpect(jsonPath("$.data.categories").isArray())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+    }
+
+    @Test
+    void mutationsAreRejectedOverGet() throws Exception {
+        perform(get("/graphql").param("query", "mutation { deletePromotion(id: \"1\") }"))
+                .andExpect(jsonPath("$.data").doesNotExist())
+                .andExpect(jsonPath("$.errors[0].message").value(
+                        "Solo se permiten consultas por GET; las mutaciones deben enviarse por POST"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+    }
+
+    private double documentCacheHits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", PersistedQueryConfig.DOCUMENT_CACHE_NAME)
+                .tag("result", "hit")
+                .functionCounter().count();
+    }
+}
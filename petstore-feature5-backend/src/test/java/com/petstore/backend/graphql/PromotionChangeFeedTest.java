@@ -0,0 +1,154 @@
+package com.petstore.backend.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Subscription;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.graphql.PromotionChangeFeed.ChangeType;
+import com.petstore.backend.graphql.PromotionChangeFeed.PromotionChange;
+import com.petstore.backend.service.ActivePromotionIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+class PromotionChangeFeedTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Mock private ActivePromotionIndex activePromotionIndex;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PromotionChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        feed = new PromotionChangeFeed(activePromotionIndex, meterRegistry);
+    }
+
+    private static Promotion promo(int id, double discount, int categoryId) {
+        Promotion promotion = new Promotion("P" + id, null, TODAY, TODAY.plusDays(5), discount, new Status("ACTIVE"));
+        promotion.setPromotionId(id);
+        Category category = new Category("C" + categoryId, null);
+        category.setCategoryId(categoryId);
+        promotion.setCategory(category);
+        return promotion;
+    }
+
+    @Test
+    void firstSubscriberSeedsFromIndexAndReceivesCurrentList() {
+        Promotion first = promo(1, 10.0, 5);
+        given(activePromotionIndex.getActivePromotions()).willReturn(List.of(first));
+
+        List<List<Promotion>> received = new CopyOnWriteArrayList<>();
+        feed.activePromotions().subscribe(received::add);
+        Promotion second = promo(2, 20.0, 5);
+        feed.apply(List.of(first, second));
+        // Reconstrucción sin diferencias: no se anuncia
+        feed.apply(List.of(promo(1, 10.0, 5), promo(2, 20.0, 5)));
+
+        assertThat(received).containsExactly(List.of(first), List.of(first, second));
+        verify(activePromotionIndex).getActivePromotions();
+    }
+
+    @Test
+    void diffsSnapshotsIntoChangesFilteredByCategory() {
+        given(activePromotionIndex.getActivePromotions()).willReturn(List.of(promo(1, 10.0, 5), promo(2, 10.0, 6)));
+
+        List<PromotionChange> all = new CopyOnWriteArrayList<>();
+        List<PromotionChange> dogs = new CopyOnWriteArrayList<>();
+        feed.changes(null).subscribe(all::add);
+        feed.changes(5).subscribe(dogs::add);
+
+        feed.apply(List.of(promo(1, 15.0, 5), promo(3, 10.0, 5)));
+
+        assertThat(all).extracting(PromotionChange::promotionId, PromotionChange::change)
+                .containsExactly(
+                        tuple(2, ChangeType.DEACTIVATED),
+                        tuple(1, ChangeType.UPDATED),
+                        tuple(3, ChangeType.ACTIVATED));
+        assertThat(dogs).extracting(PromotionChange::promotionId).containsExactly(1, 3);
+        assertThat(all.get(0).promotion().getDiscountValue()).isEqualTo(10.0);
+        assertThat(all.get(1).promotion().getDiscountValue()).isEqualTo(15.0);
+    }
+
+    @Test
+    void slowSubscriberGetsLatestChangePerPromotionWithoutHoldingBackOthers() {
+        given(activePromotionIndex.getActivePromotions()).willReturn(List.of());
+
+        List<PromotionChange> fast = new CopyOnWriteArrayList<>();
+        feed.changes(null).subscribe(fast::add);
+        ManualSubscriber slow = new ManualSubscriber();
+        feed.changes(null).subscribe(slow);
+
+        feed.apply(List.of(promo(1, 10.0, 5)));
+        feed.apply(List.of(promo(1, 20.0, 5)));
+        feed.apply(List.of(promo(1, 30.0, 5), promo(2, 10.0, 5)));
+
+        assertThat(fast).hasSize(4);
+        assertThat(slow.received).isEmpty();
+
+        slow.request(10);
+        assertThat(slow.received)
+                .extracting(PromotionChange::promotionId, PromotionChange::change, change -> change.promotion().getDiscountValue())
+                .containsExactly(
+                        tuple(1, ChangeType.UPDATED, 30.0),
+                        tuple(2, ChangeType.ACTIVATED, 10.0));
+        assertThat(meterRegistry.get("graphql.subscriptions.conflated").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void subscriberCountIsExposedPerSubscription() {
+        given(activePromotionIndex.getActivePromotions()).willReturn(List.of());
+
+        var first = feed.changes(null).subscribe();
+        var second = Flux.merge(feed.changes(5), feed.changes(6)).subscribe();
+        var active = feed.activePromotions().subscribe();
+
+        assertThat(meterRegistry.get("graphql.subscriptions").tag("subscription", "promotionChanged").gauge().value())
+                .isEqualTo(3.0);
+        assertThat(meterRegistry.get("graphql.subscriptions").tag("subscription", "activePromotionsUpdated").gauge().value())
+                .isEqualTo(1.0);
+
+        first.dispose();
+        second.dispose();
+        active.dispose();
+        assertThat(meterRegistry.get("graphql.subscriptions").tag("subscription", "promotionChanged").gauge().value())
+                .isZero();
+    }
+
+    /**
+     * Suscriptor que no pide nada hasta que el test lo indica
+     */
+    private static class ManualSubscriber extends BaseSubscriber<PromotionChange> {
+
+        final List<PromotionChange> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            // Sin demanda inicial
+        }
+
+        @Override
+        protected void hookOnNext(PromotionChange change) {
+            received.add(change);
+        }
+    }
+}
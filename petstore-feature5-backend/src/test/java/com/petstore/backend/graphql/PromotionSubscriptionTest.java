@@ -0,0 +1,133 @@
+package com.petstore.backend.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.StatusRepository;
+import com.petstore.backend.service.ActivePromotionIndex;
+import com.petstore.backend.service.PromotionService;
+
+import reactor.core.Disposable;
+
+/**
+ * Recorre las suscripciones de promociones de extremo a extremo: mutaciones del
+ * servicio, reconstrucción del índice y respuesta GraphQL de cada suscriptor.
+ */
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class PromotionSubscriptionTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired private GraphQlTester graphQlTester;
+    @Autowired private PromotionService promotionService;
+    @Autowired private PromotionRepository promotionRepository;
+    @Autowired private StatusRepository statusRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ActivePromotionIndex activePromotionIndex;
+
+    private Status active;
+    private Category dogs;
+    private Category cats;
+
+    @BeforeEach
+    void setUp() {
+        active = statusRepository.save(new Status("ACTIVE"));
+        dogs = categoryRepository.save(new Category("Perros", null));
+        cats = categoryRepository.save(new Category("Gatos", null));
+    }
+
+    @AfterEach
+    void cleanup() {
+        promotionRepository.deleteAll();
+        categoryRepository.deleteAll();
+        statusRepository.deleteAll();
+        activePromotionIndex.refresh();
+    }
+
+    private Promotion create(String name, Category category) {
+        return promotionService.createPromotion(name, null, TODAY.minusDays(1), TODAY.plusDays(1), 10.0,
+                active.getStatusId(), null, category.getCategoryId());
+    }
+
+    @Test
+    void activePromotionsUpdated_startsWithCurrentListAndFollowsChanges() {
+        create("Collares", dogs);
+
+        List<List<String>> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = graphQlTester.document("subscription { activePromotionsUpdated { promotionName } }")
+                .executeSubscription()
+                .toFlux()
+                .subscribe(response -> received.add(response.path("activePromotionsUpdated[*].promotionName")
+                        .entityList(String.class).get()));
+        try {
+            await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 1);
+            create("Rascadores", cats);
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 2);
+            assertThat(received.get(0)).containsExactly("Collares");
+            assertThat(received.get(1)).containsExactlyInAnyOrder("Collares", "Rascadores");
+        } finally {
+            subscription.dispose();
+        }
+    }
+
+    @Test
+    void promotionChanged_reportsTransitionsOfTheRequestedCategoryOnly() {
+        List<List<String>> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = graphQlTester.document("""
+                        subscription($categoryId: ID) {
+                          promotionChanged(categoryId: $categoryId) {
+                            change
+                            promotion { promotionName discountValue category { categoryName } }
+                          }
+                        }
+                        """)
+                .variable("categoryId", dogs.getCategoryId())
+                .executeSubscription()
+                .toFlux()
+                .subscribe(response -> received.add(List.of(
+                        response.path("promotionChanged.change").entity(String.class).get(),
+                        response.path("promotionChanged.promotion.promotionName").entity(String.class).get(),
+                        response.path("promotionChanged.promotion.discountValue").entity(String.class).get(),
+                        response.path("promotionChanged.promotion.category.categoryName").entity(String.class).get())));
+        try {
+            Promotion collars = create("Collares", dogs);
+            create("Rascadores", cats);
+            promotionService.updatePromotion(collars.getPromotionId(), null, null, null, null, 25.0, null, null, null);
+            promotionService.deletePromotion(collars.getPromotionId());
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 3);
+            assertThat(received)
+                    .extracting(change -> change.get(0), change -> change.get(1), change -> change.get(2),
+                            change -> change.get(3))
+                    .containsExactly(
+                            tuple("ACTIVATED", "Collares", "10.0", "Perros"),
+                            tuple("UPDATED", "Collares", "25.0", "Perros"),
+                            tuple("DEACTIVATED", "Collares", "25.0", "Perros"));
+        } finally {
+            subscription.dispose();
+        }
+    }
+}
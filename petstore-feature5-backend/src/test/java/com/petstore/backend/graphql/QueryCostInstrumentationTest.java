@@ -0,0 +1,100 @@
+package com.petstore.backend.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica el cálculo de costo de las operaciones GraphQL, el rechazo antes de
+ * ejecutar y el reporte en extensions y métricas.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "graphql.cost.max-cost=5000",
+        "graphql.cost.max-depth=6"
+})
+@ActiveProfiles("test")
+class QueryCostInstrumentationTest {
+
+    @Autowired private ExecutionGraphQlService graphQlService;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private ExecutionGraphQlResponse execute(String document) {
+        return graphQlService.execute(new DefaultExecutionGraphQlRequest(document, null, null, null, "test", null)).block();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> costOf(ExecutionGraphQlResponse response) {
+        return (Map<String, Object>) response.getExtensions().get("cost");
+    }
+
+    @Test
+    void reportsCostInExtensionsAndMetrics() {
+        long before = meterRegistry.get("graphql.query.cost").summary().count();
+
+        // products: 5 + 100 * (productId 0 + category (1 + categoryName 0))
+        ExecutionGraphQlResponse response = execute("{ products { productId category { categoryName } } }");
+
+        assertThat(response.getErrors()).isEmpty();
+        assertThat(costOf(response)).containsEntry("requested", 105L).containsEntry("depth", 3);
+        assertThat(meterRegistry.get("graphql.query.cost").summary().count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void pageQueriesMultiplyByFirst() {
+        // productsPage: 5 + 3 * edges (1 + node (1 + category 1))
+        ExecutionGraphQlResponse response = execute(
+                "{ productsPage(first: 3) { edges { node { productId category { categoryName } } } } }");
+
+        assertThat(costOf(response)).containsEntry("requested", 14L);
+    }
+
+    @Test
+    void rejectsCyclicQueryOverBudgetBeforeExecution() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExecutionGraphQlResponse response = execute("""
+                { categories { products { promotion { category { products { productId } } } } } }
+                """);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).contains("Costo de la consulta"));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(meterRegistry.get("graphql.query.cost.rejected").tag("reason", "cost").counter().count()).isPositive();
+    }
+
+    @Test
+    void rejectsQueriesDeeperThanLimit() {
+        ExecutionGraphQlResponse response = execute("""
+                { product(id: 1) { promotion { category { promotions { category { promotions { category { categoryId } } } } } } } }
+                """);
+
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).contains("Profundidad de la consulta"));
+    }
+
+    @Test
+    void introspectionIsFree() {
+        ExecutionGraphQlResponse response = execute(
+                "{ __schema { types { name fields { name type { name ofType { name ofType { name ofType { name } } } } } } } }");
+
+        assertThat(response.getErrors()).isEmpty();
+        assertThat(costOf(response)).containsEntry("requested", 0L);
+    }
+}
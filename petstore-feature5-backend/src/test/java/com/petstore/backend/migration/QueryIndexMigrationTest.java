@@ -0,0 +1,210 @@
+package com.petstore.backend.migration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.petstore.backend.config.SqlStatementCounter;
+import com.petstore.backend.repository.ProductRepository;
+import com.petstore.backend.repository.PromotionRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Aplica las migraciones de Flyway sobre un Postgres embebido, ejecuta las consultas
+ * de los repositorios y verifica con EXPLAIN que el SQL que genera Hibernate usa índices.
+ *
+ * El SQL se captura con el StatementInspector de la aplicación y se explica con los
+ * mismos parámetros de la llamada. Con {@code enable_seqscan=off} el planificador solo
+ * elige un Seq Scan cuando no existe un índice aplicable, así que el resultado no
+ * depende del volumen de datos.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.flyway.enabled=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.petstore.backend.migration.QueryIndexMigrationTest$CapturingInspector"
+})
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class QueryIndexMigrationTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PromotionRepository promotionRepository;
+
+    @BeforeAll
+    static void startDatabase() {
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (Exception | Error e) {
+            // initdb no puede ejecutarse en algunos entornos (p. ej. como root)
+            assumeTrue(false, "No se pudo iniciar Postgres embebido: " + e.getMessage());
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void run(ProductRepository products, PromotionRepository promotions);
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("ProductRepository.findByCategoryCategoryId",
+                        (products, promotions) -> products.findByCategoryCategoryId(1), 1),
+                query("ProductRepository.findFirstPerCategory",
+                        (products, promotions) -> products.findFirstPerCategory(List.of(1, 2, 3), 50), 1, 2, 3, 50),
+                query("ProductRepository.findByPromotionPromotionId",
+                        (products, promotions) -> products.findByPromotionPromotionId(1), 1),
+                query("ProductRepository.findFirstPerPromotion",
+                        (products, promotions) -> products.findFirstPerPromotion(List.of(1, 2, 3), 50), 1, 2, 3, 50),
+                query("ProductRepository.findByBasePriceBetween",
+                        (products, promotions) -> products.findByBasePriceBetween(10.0, 20.0), 10.0, 20.0),
+                query("ProductRepository.findByProductNameContainingIgnoreCase",
+                        (products, promotions) -> products.findByProductNameContainingIgnoreCase("dog"), "%dog%"),
+                query("PromotionRepository.findActivePromotionsWithRelations",
+                        (products, promotions) -> promotions.findActivePromotionsWithRelations(TODAY), TODAY, TODAY),
+                query("PromotionRepository.findActiveSummaries",
+                        (products, promotions) -> promotions.findActiveSummaries(TODAY, 1), TODAY, TODAY, 1, 1),
+                query("PromotionRepository.findByStatusName",
+                        (products, promotions) -> promotions.findByStatusName("EXPIRED", Limit.of(50)), "EXPIRED", 50),
+                query("PromotionRepository.findByCategoryCategoryId",
+                        (products, promotions) -> promotions.findByCategoryCategoryId(1), 1),
+                query("PromotionRepository.findFirstPerCategory",
+                        (products, promotions) -> promotions.findFirstPerCategory(List.of(1, 2, 3), 10), 1, 2, 3, 10),
+                query("PromotionRepository.findByUserUserId",
+                        (products, promotions) -> promotions.findByUserUserId(1), 1));
+    }
+
+    private static Arguments query(String name, RepositoryCall call, Object... parameters) {
+        return Arguments.of(Named.of(name, call), List.of(parameters));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Las consultas de los repositorios no recorren tablas completas")
+    @MethodSource("repositoryQueries")
+    void queryUsesIndex(RepositoryCall call, List<Object> parameters) throws Exception {
+        List<String> statements = CapturingInspector.capture(() -> call.run(productRepository, promotionRepository));
+        assertThat(statements).hasSize(1);
+
+        List<String> plan = explain(statements.get(0), parameters);
+
+        assertThat(plan).as(statements.get(0) + "\n" + String.join("\n", plan))
+                .noneMatch(line -> line.contains("Seq Scan"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Los índices de claves foráneas citan las consultas por lotes que los usan")
+    @MethodSource("indexComments")
+    void indexCommentNamesItsQueries(String index, String comment) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT obj_description(?::regclass, 'pg_class')")) {
+            statement.setString(1, "public." + index);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                assertThat(rs.getString(1)).isEqualTo(comment);
+            }
+        }
+    }
+
+    static Stream<Arguments> indexComments() {
+        return Stream.of(
+                Arguments.of("idx_products_category_id",
+                        "ProductRepository.findByCategoryCategoryId / findFirstPerCategory"),
+                Arguments.of("idx_products_promotion_id",
+                        "ProductRepository.findByPromotionPromotionId / findFirstPerPromotion"),
+                Arguments.of("idx_promotions_category_id",
+                        "PromotionRepository.findByCategoryCategoryId / findFirstPerCategory"));
+    }
+
+    private static List<String> explain(String sql, List<Object> parameters) throws Exception {
+        List<String> plan = new ArrayList<>();
+        // Conexión propia, fuera del pool de la aplicación, para no dejarle enable_seqscan=off
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        plan.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * SqlStatementCounter que además guarda el SQL preparado en el hilo del test
+     */
+    public static class CapturingInspector extends SqlStatementCounter {
+
+        private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+        static List<String> capture(Runnable action) {
+            List<String> statements = new ArrayList<>();
+            CAPTURED.set(statements);
+            try {
+                action.run();
+            } finally {
+                CAPTURED.remove();
+            }
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = CAPTURED.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return super.inspect(sql);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.petstore.backend.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica que las consultas de promociones activas filtran estado, fechas y
+ * categoría en la base de datos.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PromotionRepositoryQueryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Autowired private PromotionRepository promotionRepository;
+    @Autowired private StatusRepository statusRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Status active;
+    private Status expired;
+    private Category dogs;
+    private Category cats;
+    private Promotion validDogs;
+    private Promotion validCats;
+
+    @BeforeEach
+    void setUp() {
+        active = statusRepository.save(new Status("ACTIVE"));
+        expired = statusRepository.save(new Status("EXPIRED"));
+        dogs = categoryRepository.save(new Category("Perros", null));
+        cats = categoryRepository.save(new Category("Gatos", null));
+
+        validDogs = save("Vigente perros", TODAY.minusDays(3), TODAY, active, dogs);
+        validCats = save("Vigente gatos", TODAY, TODAY.plusDays(3), active, cats);
+        save("Futura", TODAY.plusDays(1), TODAY.plusDays(5), active, dogs);
+        save("Pasada", TODAY.minusDays(9), TODAY.minusDays(1), active, dogs);
+        save("Expirada", TODAY.minusDays(1), TODAY.plusDays(1), expired, dogs);
+    }
+
+    @AfterEach
+    void cleanup() {
+        promotionRepository.deleteAll();
+        categoryRepository.deleteAll();
+        statusRepository.deleteAll();
+    }
+
+    private Promotion save(String name, LocalDate start, LocalDate end, Status status, Category category) {
+        Promotion promotion = new Promotion(name, "Descripción larga " + name, start, end, 15.0, status);
+        promotion.setCategory(category);
+        return promotionRepository.save(promotion);
+    }
+
+    @Test
+    void findActiveSummaries_filtersStatusAndDatesInOneStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<PromotionSummary> summaries = promotionRepository.findActiveSummaries(TODAY, null);
+
+        assertThat(summaries).extracting(PromotionSummary::getPromotionId)
+                .containsExactly(validDogs.getPromotionId(), validCats.getPromotionId());
+        assertThat(summaries.get(0).getCategoryName()).isEqualTo("Perros");
+        assertThat(summaries.get(0).getDiscountValue()).isEqualTo(15.0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findActiveSummaries_filtersByCategory() {
+        assertThat(promotionRepository.findActiveSummaries(TODAY, cats.getCategoryId()))
+                .extracting(PromotionSummary::getPromotionName)
+                .containsExactly("Vigente gatos");
+    }
+
+    @Test
+    void findActivePromotionsWithRelations_returnsOnlyValidOnDate() {
+        assertThat(promotionRepository.findActivePromotionsWithRelations(TODAY))
+                .extracting(Promotion::getPromotionId)
+                .containsExactlyInAnyOrder(validDogs.getPromotionId(), validCats.getPromotionId());
+        assertThat(promotionRepository.findActivePromotionsWithRelations(TODAY.plusDays(20))).isEmpty();
+    }
+
+    @Test
+    void expireDue_updatesAllOverduePromotionsInOneStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        int updated = promotionRepository.expireDue(active, expired, TODAY);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(promotionRepository.findByStatusName("EXPIRED", Limit.unlimited()))
+                .extracting(Promotion::getPromotionName)
+                .containsExactlyInAnyOrder("Pasada", "Expirada");
+        assertThat(promotionRepository.findByStatusName("EXPIRED", Limit.of(1))).hasSize(1);
+        assertThat(promotionRepository.findNextEndDate(List.of(active), TODAY)).isEqualTo(TODAY);
+    }
+}
@@ -0,0 +1,88 @@
+package com.petstore.backend.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Status;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica la caché de segundo nivel y de consultas de los datos de referencia
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReferenceDataCacheTest {
+
+    @Autowired private StatusRepository statusRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanup() {
+        categoryRepository.deleteAll();
+        statusRepository.deleteAll();
+    }
+
+    @Test
+    void findById_isServedFromSecondLevelCache() {
+        Status saved = statusRepository.save(new Status("CACHED"));
+        entityManagerFactory.getCache().evictAll();
+
+        statusRepository.findById(saved.getStatusId());
+        statistics.clear();
+        statusRepository.findById(saved.getStatusId());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("reference-status").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByName_usesQueryCacheAndIsInvalidatedOnWrite() {
+        Category saved = categoryRepository.save(new Category("Query Cache", null));
+
+        categoryRepository.findByCategoryName("Query Cache");
+        statistics.clear();
+        assertThat(categoryRepository.findByCategoryName("Query Cache")).isPresent();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // Una escritura en la tabla invalida los resultados cacheados
+        saved.setDescription("modificada");
+        categoryRepository.save(saved);
+        statistics.clear();
+        assertThat(categoryRepository.findByCategoryName("Query Cache").get().getDescription()).isEqualTo("modificada");
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    @Test
+    void cacheStatistics_areExportedAsMetrics() {
+        Status saved = statusRepository.save(new Status("METRICS"));
+        statusRepository.findByStatusName("METRICS");
+        statusRepository.findByStatusName("METRICS");
+        statusRepository.findById(saved.getStatusId());
+
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", "reference-status").meters())
+                .isNotEmpty();
+        assertThat(meterRegistry.find("hibernate.cache.query.requests").tag("result", "hit").functionCounter())
+                .isNotNull();
+    }
+}
@@ -0,0 +1,163 @@
+package com.petstore.backend.service;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.repository.PromotionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ActivePromotionIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Mock private PromotionRepository promotionRepository;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private ActivePromotionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(TODAY.atTime(12, 0).toInstant(ZoneOffset.UTC));
+        meterRegistry = new SimpleMeterRegistry();
+        index = new ActivePromotionIndex(promotionRepository, meterRegistry, clock);
+    }
+
+    private Promotion promo(int id, LocalDate start, LocalDate end, Integer categoryId) {
+        Promotion p = new Promotion("P" + id, null, start, end, 10.0, new Status("ACTIVE"));
+        p.setPromotionId(id);
+        if (categoryId != null) {
+            Category c = new Category("C" + categoryId, null);
+            c.setCategoryId(categoryId);
+            p.setCategory(c);
+        }
+        return p;
+    }
+
+    @Test
+    @DisplayName("Consulta las promociones vigentes hoy, indexa por categoría y no vuelve a consultar en lecturas posteriores")
+    void buildsOnceAndServesFromMemory() {
+        Promotion first = promo(1, TODAY.minusDays(1), TODAY.plusDays(1), 5);
+        Promotion second = promo(2, TODAY, TODAY.plusDays(3), 6);
+        given(promotionRepository.findActivePromotionsWithRelations(TODAY)).willReturn(List.of(first, second));
+
+        assertThat(index.getActivePromotions()).containsExactly(first, second);
+        assertThat(index.getActivePromotionsByCategory(5)).containsExactly(first);
+        assertThat(index.getActivePromotionsByCategory(7)).isEmpty();
+        assertThat(index.findActive(1)).isSameAs(first);
+        assertThat(index.findActive(3)).isNull();
+
+        verify(promotionRepository, times(1)).findActivePromotionsWithRelations(TODAY);
+    }
+
+    @Test
+    @DisplayName("Se reconstruye cuando avanza la versión de promociones, también la escrita por otra instancia")
+    void rebuildsWhenPromotionsVersionAdvances() {
+        Promotion written = promo(4, TODAY, TODAY.plusDays(2), 5);
+        given(promotionRepository.findActivePromotionsWithRelations(TODAY)).willReturn(List.of(), List.of(written));
+        assertThat(index.getActivePromotions()).isEmpty();
+
+        index.onCatalogAdvanced(new CatalogVersions.Advanced(Map.of(CatalogVersions.Table.PRODUCTS, 8L)));
+        assertThat(index.getActivePromotions()).isEmpty();
+
+        index.onCatalogAdvanced(new CatalogVersions.Advanced(Map.of(CatalogVersions.Table.PROMOTIONS, 3L)));
+        assertThat(index.getActivePromotions()).containsExactly(written);
+        verify(promotionRepository, times(2)).findActivePromotionsWithRelations(TODAY);
+    }
+
+    @Test
+    @DisplayName("Al cambiar de día la siguiente lectura reconstruye el índice con la nueva fecha")
+    void rebuildsAtDateBoundary() {
+        Promotion startsTomorrow = promo(2, TODAY.plusDays(1), TODAY.plusDays(3), null);
+        given(promotionRepository.findActivePromotionsWithRelations(TODAY)).willReturn(List.of());
+        given(promotionRepository.findActivePromotionsWithRelations(TODAY.plusDays(1))).willReturn(List.of(startsTomorrow));
+
+        assertThat(index.getActivePromotions()).isEmpty();
+
+        clock.advance(Duration.ofDays(1));
+
+        assertThat(index.getActivePromotions()).containsExactly(startsTomorrow);
+        verify(promotionRepository).findActivePromotionsWithRelations(TODAY);
+        verify(promotionRepository).findActivePromotionsWithRelations(TODAY.plusDays(1));
+    }
+
+    @Test
+    @DisplayName("refresh() fuerza la reconstrucción y la métrica de antigüedad se reinicia")
+    void forcedRefreshResetsStaleness() {
+        given(promotionRepository.findActivePromotionsWithRelations(TODAY)).willReturn(List.of());
+
+        index.refresh();
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(meterRegistry.get("promotions.active.index.staleness").gauge().value()).isEqualTo(300.0);
+
+        index.refresh();
+        assertThat(index.staleness()).isZero();
+        verify(promotionRepository, times(2)).findActivePromotionsWithRelations(TODAY);
+    }
+
+    @Test
+    @DisplayName("Cada reconstrucción publica la nueva instantánea como evento")
+    void publishesRebuiltEvent() {
+        Promotion first = promo(1, TODAY, TODAY.plusDays(1), 5);
+        given(promotionRepository.findActivePromotionsWithRelations(TODAY)).willReturn(List.of(first));
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        index.setApplicationEventPublisher(eventPublisher);
+
+        index.refresh();
+
+        verify(eventPublisher).publishEvent(new ActivePromotionIndex.Rebuilt(TODAY, List.of(first)));
+    }
+
+    /**
+     * Reloj de prueba que se puede adelantar manualmente
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
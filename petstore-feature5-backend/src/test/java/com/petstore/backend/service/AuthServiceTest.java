@@ -146,6 +146,17 @@ class AuthServiceTest {
         assertThat(ud.getAuthorities()).hasSize(1);
     }
 
+    @Test
+    void loadPrincipal_keepsAuthoritiesWithoutPassword() {
+        String email = "alice@example.com";
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(buildMarketingAdmin(email, "password123")));
+
+        UserDetails principal = authService.loadPrincipal(email);
+        assertThat(principal.getUsername()).isEqualTo(email);
+        assertThat(principal.getPassword()).isEmpty();
+        assertThat(principal.getAuthorities()).extracting("authority").containsExactly("ROLE_Marketing_Admin");
+    }
+
     @Test
     void loadUserByUsername_notFound_throws() {
         when(userRepository.findByEmail("none@example.com")).thenReturn(Optional.empty());
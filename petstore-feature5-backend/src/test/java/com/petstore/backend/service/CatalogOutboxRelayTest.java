@@ -0,0 +1,154 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.petstore.backend.entity.CatalogOutboxEvent.Aggregate;
+import com.petstore.backend.entity.CatalogOutboxEvent.Change;
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.CatalogOutboxRepository;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+
+/**
+ * Verifica el outbox del catálogo: eventos escritos con el cambio, publicados en
+ * orden al bus interno y al destino externo, y reintentados si este falla.
+ */
+@SpringBootTest(properties = "catalog.outbox.enabled=true")
+@ActiveProfiles("test")
+@Import(CatalogOutboxRelayTest.Recorders.class)
+class CatalogOutboxRelayTest {
+
+    @TestConfiguration
+    static class Recorders {
+
+        final List<CatalogChangeEvent> bus = new CopyOnWriteArrayList<>();
+        final List<CatalogChangeEvent> sink = new CopyOnWriteArrayList<>();
+        final AtomicBoolean sinkDown = new AtomicBoolean();
+
+        @EventListener
+        void onBatch(CatalogChangeEvent.Batch batch) {
+            bus.addAll(batch.events());
+        }
+
+        @Bean
+        CatalogEventSink stubSink() {
+            return events -> {
+                if (sinkDown.get()) {
+                    throw new IllegalStateException("destino caído");
+                }
+                sink.addAll(events);
+            };
+        }
+    }
+
+    @Autowired private Recorders recorders;
+    @Autowired private CatalogOutboxRelay relay;
+    @Autowired private CatalogOutboxRepository outboxRepository;
+    @Autowired private ProductService productService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryService.save(new Category("Acuarios", null));
+        relay.relay();
+        recorders.bus.clear();
+        recorders.sink.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        recorders.sinkDown.set(false);
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        outboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void writesArePublishedInOrderPerEntity() {
+        Product product = productService.save(new Product("Filtro", 30.0, 7301, category));
+        product.setBasePrice(35.0);
+        product = productService.save(product);
+        productService.deleteById(product.getProductId());
+
+        assertThat(relay.relay()).isEqualTo(3);
+
+        assertThat(recorders.sink)
+                .extracting(CatalogChangeEvent::aggregate, CatalogChangeEvent::aggregateId, CatalogChangeEvent::change)
+                .containsExactly(
+                        tuple(Aggregate.PRODUCT, product.getProductId(), Change.CREATED),
+                        tuple(Aggregate.PRODUCT, product.getProductId(), Change.UPDATED),
+                        tuple(Aggregate.PRODUCT, product.getProductId(), Change.DELETED));
+        assertThat(recorders.bus).containsExactlyElementsOf(recorders.sink);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void rolledBackWritesEmitNothing() {
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.save(new Product("Descartado", 10.0, 7302, category));
+            assertThat(outboxRepository.count()).isEqualTo(1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(relay.relay()).isZero();
+    }
+
+    @Test
+    void failedSinkKeepsEventsForNextRun() {
+        recorders.sinkDown.set(true);
+        Category saved = categoryService.save(new Category("Terrarios", null));
+
+        assertThat(relay.relay()).isZero();
+        assertThat(outboxRepository.count()).isEqualTo(1);
+
+        recorders.sinkDown.set(false);
+        assertThat(relay.relay()).isEqualTo(1);
+        assertThat(recorders.sink)
+                .extracting(CatalogChangeEvent::aggregate, CatalogChangeEvent::aggregateId, CatalogChangeEvent::change)
+                .containsExactly(tuple(Aggregate.CATEGORY, saved.getCategoryId(), Change.CREATED));
+        // El bus interno ya lo había recibido en el intento fallido: al menos una vez
+        assertThat(recorders.bus).hasSize(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void disabledOutboxWritesNothing() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        CatalogOutbox disabled = new CatalogOutbox(jdbcTemplate, mock(ObjectProvider.class), false, Clock.systemUTC());
+
+        // Sin transacción: desactivado ni siquiera la exige
+        disabled.record(Aggregate.PRODUCT, 1, Change.CREATED);
+        disabled.recordAll(Aggregate.PRODUCT, List.of(1, 2), Change.UPDATED);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,116 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.StatusRepository;
+
+/**
+ * Verifica que las escrituras JPA incrementan la versión compartida de su tabla al
+ * confirmar, y que las de otra instancia llegan al índice de promociones con su versión
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogVersionListenerTest {
+
+    @Autowired private CatalogVersions catalogVersions;
+    @Autowired private CatalogVersionStore catalogVersionStore;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private PromotionRepository promotionRepository;
+    @Autowired private StatusRepository statusRepository;
+    @Autowired private ActivePromotionIndex activePromotionIndex;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        promotionRepository.deleteAll();
+        categoryRepository.deleteAll();
+        statusRepository.deleteAll();
+        activePromotionIndex.refresh();
+    }
+
+    @Test
+    void entityWritesBumpVersionAfterCommit() {
+        // Otros contextos de test escriben en la misma base de datos
+        catalogVersions.refresh();
+        long before = catalogVersions.version(CatalogVersions.Table.CATEGORIES);
+        long products = catalogVersions.version(CatalogVersions.Table.PRODUCTS);
+
+        Category saved = transactionTemplate.execute(status -> {
+            Category category = categoryRepository.saveAndFlush(new Category("Versionada", null));
+            assertThat(catalogVersions.version(CatalogVersions.Table.CATEGORIES)).isEqualTo(before);
+            return category;
+        });
+        assertThat(catalogVersions.version(CatalogVersions.Table.CATEGORIES)).isEqualTo(before + 1);
+
+        saved.setDescription("Actualizada");
+        categoryRepository.save(saved);
+        assertThat(catalogVersions.version(CatalogVersions.Table.CATEGORIES)).isEqualTo(before + 2);
+        assertThat(catalogVersions.version(CatalogVersions.Table.PRODUCTS)).isEqualTo(products);
+    }
+
+    @Test
+    void otherInstancesSeeCommittedVersions() {
+        CatalogVersions otherInstance = new CatalogVersions(catalogVersionStore);
+        otherInstance.refresh();
+        long before = otherInstance.version(CatalogVersions.Table.CATEGORIES);
+
+        categoryRepository.save(new Category("Compartida", null));
+
+        assertThat(otherInstance.version(CatalogVersions.Table.CATEGORIES)).isEqualTo(before);
+        otherInstance.refresh();
+        assertThat(otherInstance.version(CatalogVersions.Table.CATEGORIES)).isEqualTo(before + 1);
+        assertThat(otherInstance.snapshot(CatalogVersions.Table.CATEGORIES))
+                .isEqualTo(catalogVersions.snapshot(CatalogVersions.Table.CATEGORIES));
+    }
+
+    @Test
+    void rolledBackWritesDoNotBumpVersion() {
+        catalogVersions.refresh();
+        long before = catalogVersions.version(CatalogVersions.Table.CATEGORIES);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            categoryRepository.saveAndFlush(new Category("Descartada", null));
+            status.setRollbackOnly();
+        });
+
+        assertThat(catalogVersions.version(CatalogVersions.Table.CATEGORIES)).isEqualTo(before);
+    }
+
+    @Test
+    void promotionsWrittenByAnotherInstanceReachTheIndexWithTheirVersion() {
+        catalogVersions.refresh();
+        activePromotionIndex.refresh();
+        long before = catalogVersions.version(CatalogVersions.Table.PROMOTIONS);
+        Status active = statusRepository.save(new Status("ACTIVE"));
+
+        // Otra instancia guarda una promoción vigente e incrementa la versión compartida
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.update("INSERT INTO public.promotions (promotion_name, start_date, end_date, discount_value, "
+                + "status_id) VALUES ('De otra instancia', ?, ?, 15.0, ?)", today.minusDays(1), today.plusDays(1),
+                active.getStatusId());
+        catalogVersionStore.increment(CatalogVersions.Table.PROMOTIONS, versions -> { });
+        assertThat(activePromotionIndex.getActivePromotions()).isEmpty();
+
+        catalogVersions.refresh();
+
+        assertThat(catalogVersions.version(CatalogVersions.Table.PROMOTIONS)).isEqualTo(before + 1);
+        assertThat(activePromotionIndex.getActivePromotions())
+                .extracting(Promotion::getPromotionName).containsExactly("De otra instancia");
+    }
+}
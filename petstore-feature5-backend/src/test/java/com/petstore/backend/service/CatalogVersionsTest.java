@@ -0,0 +1,156 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.petstore.backend.service.CatalogVersionStore.StoredVersion;
+
+/**
+ * Verifica las versiones del catálogo y los ETag derivados
+ */
+class CatalogVersionsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+    private static final Instant NOW = TODAY.atTime(15, 30).toInstant(ZoneOffset.UTC);
+
+    private final CatalogVersionStore store = mock(CatalogVersionStore.class);
+    private final CatalogVersions versions = new CatalogVersions(store, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @SuppressWarnings("unchecked")
+    private void commitWith(CatalogVersions.Table table, long version) {
+        willAnswer(invocation -> {
+            ((Consumer<Map<CatalogVersions.Table, StoredVersion>>) invocation.getArgument(1))
+                    .accept(Map.of(table, new StoredVersion(version, NOW)));
+            return null;
+        }).given(store).increment(eq(table), any());
+    }
+
+    @Test
+    @DisplayName("Una escritura cambia el ETag de las tablas que la incluyen y no el de las demás")
+    void bumpChangesOnlyAffectedSnapshots() {
+        CatalogVersions.Snapshot categories = versions.snapshot(CatalogVersions.Table.CATEGORIES);
+        CatalogVersions.Snapshot catalog = versions.snapshot(CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.CATEGORIES);
+
+        commitWith(CatalogVersions.Table.PRODUCTS, 1);
+        versions.bump(CatalogVersions.Table.PRODUCTS);
+
+        assertThat(versions.version(CatalogVersions.Table.PRODUCTS)).isEqualTo(1);
+        assertThat(versions.snapshot(CatalogVersions.Table.CATEGORIES)).isEqualTo(categories);
+        assertThat(versions.snapshot(CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.CATEGORIES).etag())
+                .isNotEqualTo(catalog.etag())
+                .startsWith("\"")
+                .endsWith("\"");
+    }
+
+    @Test
+    @DisplayName("La versión solo cambia cuando el almacén confirma el incremento")
+    void bumpWaitsForStoreCommit() {
+        versions.bump(CatalogVersions.Table.CATEGORIES);
+
+        assertThat(versions.version(CatalogVersions.Table.CATEGORIES)).isZero();
+    }
+
+    @Test
+    @DisplayName("La primera consulta lee las versiones compartidas antes de publicar un ETag")
+    void firstSnapshotLoadsSharedVersions() {
+        given(store.loadAll()).willReturn(Map.of(CatalogVersions.Table.PRODUCTS, new StoredVersion(9, NOW)));
+
+        assertThat(versions.snapshot(CatalogVersions.Table.PRODUCTS).etag()).isEqualTo("\"p9\"");
+    }
+
+    @Test
+    @DisplayName("Los oyentes de Advanced terminan antes de que se publique la versión nueva")
+    void advancedIsPublishedBeforeTheNewVersion() {
+        given(store.loadAll()).willReturn(Map.of(CatalogVersions.Table.PRODUCTS, new StoredVersion(3, NOW)));
+        versions.refresh();
+        List<String> seen = new ArrayList<>();
+        versions.setApplicationEventPublisher(event -> seen.add(event + " con "
+                + versions.snapshot(CatalogVersions.Table.PRODUCTS).etag()));
+        given(store.loadAll()).willReturn(Map.of(
+                CatalogVersions.Table.PRODUCTS, new StoredVersion(4, NOW),
+                CatalogVersions.Table.CATEGORIES, new StoredVersion(0, NOW)));
+
+        versions.refresh();
+
+        assertThat(seen).containsExactly(
+                new CatalogVersions.Advanced(Map.of(CatalogVersions.Table.PRODUCTS, 4L)) + " con \"p3\"");
+        assertThat(versions.version(CatalogVersions.Table.PRODUCTS)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Si un oyente de Advanced falla la versión no se publica y se reintenta")
+    void failedListenerKeepsThePreviousVersion() {
+        versions.setApplicationEventPublisher(event -> {
+            throw new IllegalStateException("índice no disponible");
+        });
+        given(store.loadAll()).willReturn(Map.of(CatalogVersions.Table.PROMOTIONS, new StoredVersion(2, NOW)));
+
+        versions.refresh();
+        assertThat(versions.version(CatalogVersions.Table.PROMOTIONS)).isZero();
+
+        versions.setApplicationEventPublisher(event -> { });
+        versions.refresh();
+        assertThat(versions.version(CatalogVersions.Table.PROMOTIONS)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dos instancias con las mismas versiones guardadas generan el mismo ETag")
+    void instancesAgreeOnSharedVersions() {
+        CatalogVersions other = new CatalogVersions(store, Clock.fixed(NOW, ZoneOffset.UTC));
+        given(store.loadAll()).willReturn(Map.of(
+                CatalogVersions.Table.PRODUCTS, new StoredVersion(7, NOW),
+                CatalogVersions.Table.CATEGORIES, new StoredVersion(3, NOW.minusSeconds(60))));
+
+        commitWith(CatalogVersions.Table.PRODUCTS, 7);
+        versions.bump(CatalogVersions.Table.PRODUCTS);
+        other.refresh();
+
+        assertThat(other.snapshot(CatalogVersions.Table.PRODUCTS).etag())
+                .isEqualTo(versions.snapshot(CatalogVersions.Table.PRODUCTS).etag());
+        assertThat(other.snapshot(CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.CATEGORIES).lastModified())
+                .isEqualTo(NOW);
+    }
+
+    @Test
+    @DisplayName("Una lectura con versiones anteriores no deshace una escritura ya aplicada")
+    void refreshNeverMovesBackwards() {
+        commitWith(CatalogVersions.Table.PRODUCTS, 5);
+        versions.bump(CatalogVersions.Table.PRODUCTS);
+
+        given(store.loadAll()).willReturn(Map.of(CatalogVersions.Table.PRODUCTS, new StoredVersion(4, NOW)));
+        versions.refresh();
+
+        assertThat(versions.version(CatalogVersions.Table.PRODUCTS)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Las versiones con promociones dependen del día y no son anteriores a su inicio")
+    void promotionSnapshotsDependOnDate() {
+        given(store.loadAll()).willReturn(Map.of(CatalogVersions.Table.CATEGORIES, new StoredVersion(1, NOW)));
+        versions.refresh();
+
+        CatalogVersions.Snapshot promotions = versions.snapshot(CatalogVersions.Table.PROMOTIONS);
+        CatalogVersions.Snapshot categories = versions.snapshot(CatalogVersions.Table.CATEGORIES);
+
+        assertThat(promotions.etag()).contains(TODAY.toString());
+        assertThat(categories.etag()).doesNotContain(TODAY.toString());
+        assertThat(categories.lastModified()).isEqualTo(NOW);
+        assertThat(promotions.lastModified()).isEqualTo(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
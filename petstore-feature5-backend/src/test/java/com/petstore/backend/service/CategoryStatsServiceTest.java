@@ -0,0 +1,223 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.petstore.backend.dto.CategoryStatsDTO;
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.StatusRepository;
+
+/**
+ * Verifica que category_stats se mantiene en cada escritura de productos (JPA,
+ * cambio de categoría, importación masiva y escrituras concurrentes).
+ */
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+class CategoryStatsServiceTest {
+
+    @Autowired private CategoryStatsService categoryStatsService;
+    @Autowired private ProductService productService;
+    @Autowired private PromotionService promotionService;
+    @Autowired private ProductImportService productImportService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private PromotionRepository promotionRepository;
+    @Autowired private StatusRepository statusRepository;
+    @Autowired private ActivePromotionIndex activePromotionIndex;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private GraphQlTester graphQlTester;
+
+    private Category dogs;
+    private Category cats;
+
+    @BeforeEach
+    void setUp() {
+        dogs = categoryRepository.save(new Category("Perros", null));
+        cats = categoryRepository.save(new Category("Gatos", null));
+    }
+
+    @AfterEach
+    void cleanup() {
+        promotionRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        statusRepository.deleteAll();
+        activePromotionIndex.refresh();
+    }
+
+    private CategoryStatsDTO stats(Category category) {
+        return categoryStatsService.getStats(category.getCategoryId()).orElseThrow();
+    }
+
+    @Test
+    void newCategoryStartsEmpty() {
+        CategoryStatsDTO empty = stats(dogs);
+
+        assertThat(empty.getProductCount()).isZero();
+        assertThat(empty.getMinPrice()).isNull();
+        assertThat(empty.getAvgPrice()).isNull();
+        assertThat(empty.getActivePromotionCount()).isZero();
+    }
+
+    @Test
+    void productWritesUpdateTheirCategories() {
+        productService.save(new Product("Collar", 10.0, 8101, dogs));
+        Product bed = productService.save(new Product("Cama", 30.0, 8102, dogs));
+
+        assertThat(stats(dogs)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getMinPrice,
+                CategoryStatsDTO::getMaxPrice, CategoryStatsDTO::getAvgPrice).containsExactly(2L, 10.0, 30.0, 20.0);
+
+        // Un producto que cambia de categoría actualiza la anterior y la nueva
+        bed.setBasePrice(40.0);
+        bed.setCategory(cats);
+        productService.save(bed);
+
+        assertThat(stats(dogs)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getMaxPrice)
+                .containsExactly(1L, 10.0);
+        assertThat(stats(cats)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getMaxPrice)
+                .containsExactly(1L, 40.0);
+
+        productService.deleteById(bed.getProductId());
+        assertThat(stats(cats).getProductCount()).isZero();
+        assertThat(stats(cats).getMaxPrice()).isNull();
+    }
+
+    @Test
+    void importRecomputesPreviousAndNewCategories() throws Exception {
+        productService.save(new Product("Rascador", 12.0, 8201, cats));
+        String ndjson = """
+                {"sku":8201,"productName":"Rascador","basePrice":15.0,"categoryId":%d}
+                {"sku":8202,"productName":"Correa","basePrice":25.0,"categoryId":%d}
+                """.formatted(dogs.getCategoryId(), dogs.getCategoryId());
+
+        productImportService.importProducts(ProductExportService.Format.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(stats(cats).getProductCount()).isZero();
+        assertThat(stats(dogs)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getAvgPrice)
+                .containsExactly(2L, 20.0);
+    }
+
+    @Test
+    void concurrentWritersToTheSameCategoryAreSerialized() throws Exception {
+        CountDownLatch firstLocked = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            productRepository.save(new Product("Pienso", 20.0, 8301, dogs));
+            firstLocked.countDown();
+            try {
+                // La segunda escritura confirma mientras esta sigue abierta: al confirmar,
+                // esta bloquea la fila ya actualizada y le suma su cambio
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(firstLocked.await(5, TimeUnit.SECONDS)).isTrue();
+        transactionTemplate.executeWithoutResult(status ->
+                productRepository.save(new Product("Hueso", 4.0, 8302, dogs)));
+        first.get(5, TimeUnit.SECONDS);
+
+        assertThat(stats(dogs)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getMinPrice)
+                .containsExactly(2L, 4.0);
+    }
+
+    @Test
+    void priceChangesKeepBoundsAndAverageExact() {
+        productService.save(new Product("Collar", 10.0, 8501, dogs));
+        Product bowl = productService.save(new Product("Comedero", 20.0, 8502, dogs));
+        Product bed = productService.save(new Product("Cama", 30.0, 8503, dogs));
+
+        // Un precio intermedio no toca los límites
+        bowl.setBasePrice(26.0);
+        productService.save(bowl);
+        assertThat(stats(dogs)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getMinPrice,
+                CategoryStatsDTO::getMaxPrice, CategoryStatsDTO::getAvgPrice).containsExactly(3L, 10.0, 30.0, 22.0);
+
+        // El máximo baja por debajo del mínimo: se buscan los dos límites de nuevo
+        bed.setBasePrice(4.0);
+        productService.save(bed);
+        assertThat(stats(dogs)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getMinPrice,
+                CategoryStatsDTO::getMaxPrice, CategoryStatsDTO::getAvgPrice).containsExactly(3L, 4.0, 26.0, 40.0 / 3);
+
+        // Varias escrituras en una transacción se aplican juntas al confirmar
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.save(new Product("Hueso", 2.0, 8504, dogs));
+            productRepository.deleteById(bowl.getProductId());
+        });
+        assertThat(stats(dogs)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getMinPrice,
+                CategoryStatsDTO::getMaxPrice, CategoryStatsDTO::getAvgPrice).containsExactly(3L, 2.0, 10.0, 16.0 / 3);
+    }
+
+    @Test
+    void writersInOppositeCategoryOrderDoNotDeadlock() throws Exception {
+        CyclicBarrier bothWrote = new CyclicBarrier(2);
+        Runnable dogsThenCats = () -> transactionTemplate.executeWithoutResult(status -> {
+            productRepository.save(new Product("Pienso", 20.0, 8601, dogs));
+            await(bothWrote);
+            productRepository.save(new Product("Arena", 8.0, 8602, cats));
+        });
+        Runnable catsThenDogs = () -> transactionTemplate.executeWithoutResult(status -> {
+            productRepository.save(new Product("Ratón", 3.0, 8603, cats));
+            await(bothWrote);
+            productRepository.save(new Product("Pelota", 5.0, 8604, dogs));
+        });
+
+        CompletableFuture.allOf(CompletableFuture.runAsync(dogsThenCats), CompletableFuture.runAsync(catsThenDogs))
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(stats(dogs)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getAvgPrice)
+                .containsExactly(2L, 12.5);
+        assertThat(stats(cats)).extracting(CategoryStatsDTO::getProductCount, CategoryStatsDTO::getAvgPrice)
+                .containsExactly(2L, 5.5);
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void activePromotionsComeFromTheIndexAndStatsAreExposedInGraphQL() {
+        Status active = statusRepository.save(new Status("ACTIVE"));
+        LocalDate today = LocalDate.now();
+        promotionService.createPromotion("Semana canina", null, today.minusDays(1), today.plusDays(1), 10.0,
+                active.getStatusId(), null, dogs.getCategoryId());
+        productService.save(new Product("Collar", 10.0, 8401, dogs));
+
+        assertThat(stats(dogs).getActivePromotionCount()).isEqualTo(1);
+        assertThat(stats(cats).getActivePromotionCount()).isZero();
+
+        graphQlTester.document("query($id: ID!) { category(id: $id) { stats { productCount avgPrice activePromotionCount } } }")
+                .variable("id", dogs.getCategoryId())
+                .execute()
+                .path("category.stats.productCount").entity(Integer.class).isEqualTo(1)
+                .path("category.stats.avgPrice").entity(Double.class).isEqualTo(10.0)
+                .path("category.stats.activePromotionCount").entity(Integer.class).isEqualTo(1);
+    }
+}
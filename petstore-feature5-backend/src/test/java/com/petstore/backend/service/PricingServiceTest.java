@@ -0,0 +1,106 @@
+package com.petstore.backend.service;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.entity.Promotion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PricingServiceTest {
+
+    @Mock private ActivePromotionIndex activePromotionIndex;
+
+    @InjectMocks private PricingService pricingService;
+
+    private Category category(int id) {
+        Category c = new Category("C" + id, null);
+        c.setCategoryId(id);
+        return c;
+    }
+
+    private Promotion promotion(int id, double discount) {
+        Promotion p = new Promotion();
+        p.setPromotionId(id);
+        p.setDiscountValue(discount);
+        return p;
+    }
+
+    private Product product(double price, Category category, Promotion promotion) {
+        Product p = new Product("P", price, 1, category);
+        p.setPromotion(promotion);
+        return p;
+    }
+
+    @Test
+    @DisplayName("Sin promociones el precio efectivo es el precio base")
+    void noPromotions_keepsBasePrice() {
+        Category cat = category(1);
+        given(activePromotionIndex.getActivePromotionsByCategory(1)).willReturn(List.of());
+
+        assertThat(pricingService.effectivePrice(product(19.99, cat, null))).isEqualTo(19.99);
+    }
+
+    @Test
+    @DisplayName("Aplica el mayor descuento entre la promoción directa y las de la categoría")
+    void appliesBestOfDirectAndCategory() {
+        Category cat = category(1);
+        Promotion direct = promotion(10, 10.0);
+        given(activePromotionIndex.findActive(10)).willReturn(direct);
+        given(activePromotionIndex.getActivePromotionsByCategory(1))
+                .willReturn(List.of(promotion(11, 25.0), promotion(12, 5.0)));
+
+        double[] prices = pricingService.effectivePrices(List.of(
+                product(100.0, cat, direct),
+                product(80.0, cat, null)));
+
+        assertThat(prices).containsExactly(75.0, 60.0);
+    }
+
+    @Test
+    @DisplayName("Ignora la promoción directa si no está activa y vigente hoy")
+    void ignoresInactiveDirectPromotion() {
+        Category cat = category(2);
+        given(activePromotionIndex.findActive(20)).willReturn(null);
+        given(activePromotionIndex.getActivePromotionsByCategory(2)).willReturn(List.of());
+
+        assertThat(pricingService.effectivePrice(product(50.0, cat, promotion(20, 40.0)))).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("Consulta las promociones de cada categoría una sola vez por lote")
+    void resolvesCategoryDiscountOncePerBatch() {
+        Category cat = category(3);
+        given(activePromotionIndex.getActivePromotionsByCategory(3)).willReturn(List.of(promotion(30, 50.0)));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            products.add(product(10.0, cat, null));
+        }
+
+        double[] prices = pricingService.effectivePrices(products);
+
+        assertThat(prices).hasSize(1000).containsOnly(5.0);
+        verify(activePromotionIndex, times(1)).getActivePromotionsByCategory(3);
+    }
+
+    @Test
+    @DisplayName("Acota los descuentos a [0, 100] y redondea a centavos")
+    void applyDiscounts_clampsAndRounds() {
+        double[] out = new double[3];
+        PricingService.applyDiscounts(new double[] {10.0, 10.0, 9.99}, new double[] {150.0, -5.0, 33.0}, out);
+
+        assertThat(out).containsExactly(0.0, 10.0, 6.69);
+    }
+}
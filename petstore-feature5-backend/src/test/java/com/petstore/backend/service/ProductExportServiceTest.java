@@ -0,0 +1,119 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica la exportación en streaming del catálogo: varios lotes del cursor,
+ * una sola consulta y el formato NDJSON/CSV del endpoint.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class ProductExportServiceTest {
+
+    // Más de dos lotes del cursor, para recorrer los límites entre lotes
+    private static final int PRODUCTS = ProductRepository.EXPORT_FETCH_SIZE * 2 + 37;
+
+    @Autowired private ProductExportService productExportService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ActivePromotionIndex activePromotionIndex;
+    @Autowired private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        Category dogs = categoryRepository.save(new Category("Perros", null));
+        Category cats = categoryRepository.save(new Category("Gatos, \"felinos\"", null));
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product("Producto " + i, 10.0 + i, 50_000 + i, i % 2 == 0 ? dogs : cats));
+        }
+        productRepository.saveAll(products);
+    }
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void exportsEveryProductAsNdjsonWithASingleQuery() throws Exception {
+        // El índice de promociones se construye aparte; solo se cuenta el cursor de la exportación
+        activePromotionIndex.refresh();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = productExportService.export(ProductExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(PRODUCTS);
+        assertThat(lines).hasSize(PRODUCTS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode last = objectMapper.readTree(lines[PRODUCTS - 1]);
+        assertThat(first.get("productName").asText()).isEqualTo("Producto 0");
+        assertThat(first.get("effectivePrice").asDouble()).isEqualTo(10.0);
+        assertThat(first.get("categoryName").asText()).isEqualTo("Perros");
+        assertThat(first.get("promotionId").isNull()).isTrue();
+        assertThat(last.get("sku").asInt()).isEqualTo(50_000 + PRODUCTS - 1);
+        assertThat(last.get("productId").asInt()).isGreaterThan(first.get("productId").asInt());
+    }
+
+    @Test
+    void csvEndpointStreamsHeaderAndEscapedRows() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/products/export").param("format", "csv")).andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\r\n");
+        assertThat(lines).hasSize(PRODUCTS + 1);
+        assertThat(lines[0]).isEqualTo("productId,productName,sku,basePrice,effectivePrice,categoryId,categoryName,promotionId");
+        assertThat(lines[2]).contains(",\"Gatos, \"\"felinos\"\"\",");
+    }
+
+    @Test
+    void unknownFormatIsRejected() throws Exception {
+        mockMvc.perform(get("/api/products/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
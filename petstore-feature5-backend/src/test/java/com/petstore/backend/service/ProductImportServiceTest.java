@@ -0,0 +1,133 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+
+/**
+ * Verifica la importación masiva: upsert por SKU, lotes JDBC y el informe de errores por fila
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+
+    @Autowired private ProductImportService productImportService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CatalogVersions catalogVersions;
+    @Autowired private ProductSearchIndex productSearchIndex;
+    @Autowired private MockMvc mockMvc;
+
+    private Category dogs;
+
+    @BeforeEach
+    void setUp() {
+        dogs = categoryRepository.save(new Category("Perros", null));
+        productRepository.save(new Product("Collar viejo", 5.0, 1001, dogs));
+    }
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void csvUpsertsBySkuAndReportsInvalidRows() throws Exception {
+        String csv = String.join("\r\n",
+                "sku,productName,basePrice,categoryName",
+                "1001,Collar nuevo,7.5,Perros",
+                "1002,\"Cama grande, \"\"premium\"\"\",49.9,Perros",
+                "1003,Sin precio,,Perros",
+                "1004,Categoría inexistente,10,Reptiles",
+                "abc,SKU inválido,10,Perros",
+                "");
+        long version = catalogVersions.version(CatalogVersions.Table.PRODUCTS);
+
+        ProductImportService.ImportReport report = import_(ProductExportService.Format.CSV, csv);
+
+        assertThat(report.processed()).isEqualTo(5);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(3);
+        assertThat(report.errors()).extracting(ProductImportService.RowError::line).containsExactly(4L, 5L, 6L);
+        assertThat(report.errors().get(1).message()).contains("Reptiles");
+
+        assertThat(productRepository.count()).isEqualTo(2);
+        Product updated = bySku(1001);
+        assertThat(updated.getProductName()).isEqualTo("Collar nuevo");
+        assertThat(updated.getBasePrice()).isEqualTo(7.5);
+        assertThat(bySku(1002).getProductName()).isEqualTo("Cama grande, \"premium\"");
+        assertThat(catalogVersions.version(CatalogVersions.Table.PRODUCTS)).isGreaterThan(version);
+        // El upsert JDBC también actualiza el índice de búsqueda
+        assertThat(productSearchIndex.search(new ProductSearchIndex.Criteria("cama premium", dogs.getCategoryId(), null, null, 10)))
+                .containsExactly(bySku(1002).getProductId());
+        assertThat(productSearchIndex.search(new ProductSearchIndex.Criteria("collar nuevo", dogs.getCategoryId(), null, null, 10)))
+                .containsExactly(updated.getProductId());
+    }
+
+    @Test
+    void ndjsonIsWrittenInSeveralBatches() throws Exception {
+        int rows = ProductImportService.CHUNK_SIZE * 2 + 13;
+        String ndjson = IntStream.range(0, rows)
+                .mapToObj(i -> "{\"sku\":" + (20_000 + i) + ",\"productName\":\"Producto " + i
+                        + "\",\"basePrice\":" + (1.0 + i) + ",\"categoryId\":" + dogs.getCategoryId()
+                        + ",\"effectivePrice\":1.0}")
+                .collect(Collectors.joining("\n", "", "\n{no es json}\n"));
+
+        ProductImportService.ImportReport report = import_(ProductExportService.Format.NDJSON, ndjson);
+
+        assertThat(report.processed()).isEqualTo(rows + 1);
+        assertThat(report.imported()).isEqualTo(rows);
+        assertThat(report.errors()).singleElement()
+                .satisfies(error -> assertThat(error.line()).isEqualTo(rows + 1L));
+        assertThat(productRepository.count()).isEqualTo(rows + 1L);
+        assertThat(report.rowsPerSecond()).isPositive();
+    }
+
+    @Test
+    void endpointReturnsReportAndRejectsUnknownFormat() throws Exception {
+        mockMvc.perform(post("/api/products/import").param("format", "csv")
+                        .contentType(MediaType.valueOf("text/csv"))
+                        .content("sku,productName,basePrice,categoryId\n2001,Pelota,3.5," + dogs.getCategoryId() + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(1))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors").isEmpty());
+
+        mockMvc.perform(post("/api/products/import").param("format", "xml").content("x"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Product bySku(int sku) {
+        return productRepository.findAll().stream()
+                .filter(product -> product.getSku() == sku)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private ProductImportService.ImportReport import_(ProductExportService.Format format, String content) throws Exception {
+        return productImportService.importProducts(format, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
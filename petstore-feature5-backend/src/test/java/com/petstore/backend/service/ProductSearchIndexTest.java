@@ -0,0 +1,106 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Verifica las coincidencias, el orden por relevancia y los filtros del índice de búsqueda
+ */
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex(null, null, null, new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        Category dogs = category(1, "Perros");
+        Category fish = category(2, "Peces");
+        index.updateAll(List.of(
+                product(1, "Collar de cuero para perro", 25.0, dogs),
+                product(2, "Collar antipulgas", 12.0, dogs),
+                product(3, "Cama ortopédica para perro grande", 89.0, dogs),
+                product(4, "Pecera de cristal", 120.0, fish),
+                product(5, "Alimento para peces tropicales", 9.5, fish)));
+    }
+
+    @AfterEach
+    void close() {
+        index.close();
+    }
+
+    @Test
+    @DisplayName("Un prefijo autocompleta el término")
+    void prefixMatches() {
+        assertThat(search("colla")).containsExactlyInAnyOrder(1, 2);
+        assertThat(search("pece")).containsExactlyInAnyOrder(4, 5);
+    }
+
+    @Test
+    @DisplayName("Los errores de escritura y los acentos no impiden encontrar el producto")
+    void fuzzyAndAccentInsensitive() {
+        assertThat(search("colar antipulga")).containsExactly(2);
+        assertThat(search("ortopedica")).containsExactly(3);
+        assertThat(search("CRISTAL")).containsExactly(4);
+    }
+
+    @Test
+    @DisplayName("Todos los términos deben coincidir y la coincidencia exacta va primero")
+    void rankingAndConjunction() {
+        assertThat(search("collar perro")).containsExactly(1);
+        assertThat(search("pecera")).first().isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Los filtros de categoría y precio restringen los resultados")
+    void filters() {
+        assertThat(index.search(new ProductSearchIndex.Criteria("para", 1, null, null, 10))).containsExactlyInAnyOrder(1, 3);
+        assertThat(index.search(new ProductSearchIndex.Criteria("para", null, 20.0, 50.0, 10))).containsExactly(1);
+        assertThat(index.search(new ProductSearchIndex.Criteria("para", 2, null, 5.0, 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Actualizar o borrar un producto se refleja en la siguiente búsqueda")
+    void updatesAndRemovals() {
+        index.update(product(2, "Arnés antipulgas", 12.0, category(1, "Perros")));
+        index.remove(4);
+
+        assertThat(search("collar")).containsExactly(1);
+        assertThat(search("arnes")).containsExactly(2);
+        assertThat(search("pecera")).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Un texto vacío no devuelve resultados y el límite se acota")
+    void blankTextAndLimit() {
+        assertThat(search("  ")).isEmpty();
+        assertThat(index.search(new ProductSearchIndex.Criteria("para", null, null, null, 1))).hasSize(1);
+        assertThat(new ProductSearchIndex.Criteria("x", null, null, null, 10_000).limit()).isEqualTo(ProductSearchIndex.MAX_LIMIT);
+    }
+
+    private List<Integer> search(String text) {
+        return index.search(new ProductSearchIndex.Criteria(text, null, null, null, ProductSearchIndex.DEFAULT_LIMIT));
+    }
+
+    private static Category category(int id, String name) {
+        Category category = new Category(name, null);
+        category.setCategoryId(id);
+        return category;
+    }
+
+    private static Product product(int id, String name, double price, Category category) {
+        Product product = new Product(name, price, 1000 + id, category);
+        product.setProductId(id);
+        return product;
+    }
+}
@@ -0,0 +1,87 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.petstore.backend.entity.Category;
+import com.petstore.backend.entity.Product;
+import com.petstore.backend.repository.CategoryRepository;
+import com.petstore.backend.repository.ProductRepository;
+
+/**
+ * Verifica que el índice de búsqueda sigue las escrituras JPA al confirmar y que
+ * una reconstrucción completa refleja la base de datos
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchListenerTest {
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductSearchIndex productSearchIndex;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private Category birds;
+
+    @BeforeEach
+    void setUp() {
+        birds = categoryRepository.save(new Category("Aves", null));
+    }
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void jpaWritesAreSearchableAfterCommit() {
+        Product saved = transactionTemplate.execute(status -> {
+            Product product = productRepository.saveAndFlush(new Product("Comedero colgante", 15.0, 7001, birds));
+            assertThat(search("comedero")).isEmpty();
+            return product;
+        });
+        assertThat(search("comedro")).extracting(Product::getProductId).containsExactly(saved.getProductId());
+
+        saved.setProductName("Bebedero colgante");
+        productRepository.save(saved);
+        assertThat(search("comedero")).isEmpty();
+        assertThat(search("bebe")).extracting(Product::getProductName).containsExactly("Bebedero colgante");
+
+        productRepository.delete(saved);
+        assertThat(search("bebedero")).isEmpty();
+    }
+
+    @Test
+    void rolledBackWritesAreNotIndexed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.saveAndFlush(new Product("Jaula descartada", 80.0, 7002, birds));
+            status.setRollbackOnly();
+        });
+
+        assertThat(search("jaula")).isEmpty();
+    }
+
+    @Test
+    void rebuildIndexesExistingProducts() {
+        productRepository.save(new Product("Columpio para loros", 9.0, 7003, birds));
+        productSearchIndex.rebuild();
+
+        assertThat(search("columpio loro")).extracting(Product::getSku).containsExactly(7003);
+        assertThat(productSearchIndex.size()).isEqualTo((int) productRepository.count());
+    }
+
+    private List<Product> search(String text) {
+        return productService.search(new ProductSearchIndex.Criteria(text, birds.getCategoryId(), null, null, 10));
+    }
+}
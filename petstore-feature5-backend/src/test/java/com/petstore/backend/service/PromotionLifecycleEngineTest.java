@@ -0,0 +1,221 @@
+package com.petstore.backend.service;
+
+import com.petstore.backend.entity.Promotion;
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.StatusRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PromotionLifecycleEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Mock private PromotionRepository promotionRepository;
+    @Mock private StatusRepository statusRepository;
+    @Mock private ActivePromotionIndex activePromotionIndex;
+    @Mock private CatalogVersions catalogVersions;
+    @Mock private TaskScheduler taskScheduler;
+    @Mock private ScheduledFuture<?> future;
+
+    private final Status scheduled = status(1, "SCHEDULE");
+    private final Status active = status(2, "ACTIVE");
+    private final Status expired = status(3, "EXPIRED");
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private static Status status(int id, String name) {
+        Status s = new Status(name);
+        s.setStatusId(id);
+        return s;
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        given(statusRepository.findByStatusName("SCHEDULE")).willReturn(Optional.of(scheduled));
+        given(statusRepository.findByStatusName("ACTIVE")).willReturn(Optional.of(active));
+        given(statusRepository.findByStatusName("EXPIRED")).willReturn(Optional.of(expired));
+        doReturn(future).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    private PromotionLifecycleEngine engineAt(Instant now) {
+        return new PromotionLifecycleEngine(promotionRepository, statusRepository, activePromotionIndex,
+                catalogVersions, taskScheduler, meterRegistry, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Instant startOf(LocalDate date) {
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    @Test
+    @DisplayName("Expira antes de activar, cuenta las transiciones, refresca el índice y la versión del catálogo")
+    void appliesDueTransitionsInBatches() {
+        given(promotionRepository.expireDue(active, expired, TODAY)).willReturn(4);
+        given(promotionRepository.expireDue(scheduled, expired, TODAY)).willReturn(1);
+        given(promotionRepository.activateDue(scheduled, active, TODAY)).willReturn(2);
+
+        int transitioned = engineAt(startOf(TODAY)).advance();
+
+        assertThat(transitioned).isEqualTo(7);
+        InOrder order = inOrder(promotionRepository);
+        order.verify(promotionRepository).expireDue(active, expired, TODAY);
+        order.verify(promotionRepository).expireDue(scheduled, expired, TODAY);
+        order.verify(promotionRepository).activateDue(scheduled, active, TODAY);
+        verify(activePromotionIndex).refresh();
+        verify(catalogVersions).bump(CatalogVersions.Table.PROMOTIONS);
+        assertThat(meterRegistry.get("promotions.lifecycle.transitions")
+                .tags("from", "ACTIVE", "to", "EXPIRED").counter().count()).isEqualTo(4.0);
+        assertThat(meterRegistry.get("promotions.lifecycle.transitions")
+                .tags("from", "SCHEDULE", "to", "ACTIVE").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Programa la siguiente ejecución en el límite más cercano (inicio o día siguiente al fin)")
+    void schedulesAtNearestBoundary() {
+        given(promotionRepository.findNextStartDate(scheduled, TODAY)).willReturn(TODAY.plusDays(5));
+        given(promotionRepository.findNextEndDate(List.of(scheduled, active), TODAY)).willReturn(TODAY.plusDays(2));
+
+        PromotionLifecycleEngine engine = engineAt(startOf(TODAY).plusSeconds(3600));
+        assertThat(engine.advance()).isZero();
+
+        assertThat(engine.nextBoundary()).isEqualTo(startOf(TODAY.plusDays(3)));
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        verify(activePromotionIndex, never()).refresh();
+        verify(catalogVersions, never()).bump(any());
+    }
+
+    @Test
+    @DisplayName("Sin transiciones pendientes no programa nada y cancela la ejecución anterior")
+    void cancelsWhenNothingPending() {
+        given(promotionRepository.findNextStartDate(scheduled, TODAY)).willReturn(TODAY.plusDays(1));
+        PromotionLifecycleEngine engine = engineAt(startOf(TODAY));
+        engine.advance();
+
+        given(promotionRepository.findNextStartDate(scheduled, TODAY)).willReturn(null);
+        engine.advance();
+
+        verify(future).cancel(false);
+        assertThat(engine.nextBoundary()).isNull();
+    }
+
+    @Test
+    @DisplayName("Registra el retraso respecto al límite programado")
+    void recordsLagAfterBoundary() {
+        given(promotionRepository.findNextStartDate(scheduled, TODAY)).willReturn(TODAY.plusDays(1));
+        MutableClock clock = new MutableClock(startOf(TODAY));
+        PromotionLifecycleEngine engine = new PromotionLifecycleEngine(promotionRepository, statusRepository,
+                activePromotionIndex, catalogVersions, taskScheduler, meterRegistry, clock);
+        engine.advance();
+
+        clock.now = startOf(TODAY.plusDays(1)).plusMillis(250);
+        engine.advance();
+
+        assertThat(meterRegistry.get("promotions.lifecycle.lag").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(250.0);
+    }
+
+    @Test
+    @DisplayName("apply solo cambia el estado de la promoción guardada, sin UPDATE masivos ni refrescos")
+    void appliesOnlyTheSavedPromotionTransition() {
+        Promotion due = new Promotion();
+        due.setStatus(scheduled);
+        due.setStartDate(TODAY.minusDays(1));
+        due.setEndDate(TODAY.plusDays(4));
+
+        PromotionLifecycleEngine engine = engineAt(startOf(TODAY));
+        engine.apply(due);
+
+        assertThat(due.getStatus()).isSameAs(active);
+        assertThat(engine.nextBoundary()).isEqualTo(startOf(TODAY.plusDays(5)));
+        verify(promotionRepository, never()).expireDue(any(), any(), any());
+        verify(promotionRepository, never()).activateDue(any(), any(), any());
+        verify(activePromotionIndex, never()).refresh();
+        assertThat(meterRegistry.get("promotions.lifecycle.transitions")
+                .tags("from", "SCHEDULE", "to", "ACTIVE").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("apply expira una promoción vencida y solo adelanta la próxima ejecución")
+    void applyExpiresAndOnlyMovesBoundaryEarlier() {
+        given(promotionRepository.findNextStartDate(scheduled, TODAY)).willReturn(TODAY.plusDays(2));
+        PromotionLifecycleEngine engine = engineAt(startOf(TODAY));
+        engine.advance();
+
+        Promotion ended = new Promotion();
+        ended.setStatus(active);
+        ended.setStartDate(TODAY.minusDays(10));
+        ended.setEndDate(TODAY.minusDays(1));
+        engine.apply(ended);
+        assertThat(ended.getStatus()).isSameAs(expired);
+
+        Promotion later = new Promotion();
+        later.setStatus(scheduled);
+        later.setStartDate(TODAY.plusDays(7));
+        later.setEndDate(TODAY.plusDays(9));
+        engine.apply(later);
+        assertThat(engine.nextBoundary()).isEqualTo(startOf(TODAY.plusDays(2)));
+
+        Promotion sooner = new Promotion();
+        sooner.setStatus(scheduled);
+        sooner.setStartDate(TODAY.plusDays(1));
+        sooner.setEndDate(TODAY.plusDays(3));
+        engine.apply(sooner);
+        assertThat(sooner.getStatus()).isSameAs(scheduled);
+        assertThat(engine.nextBoundary()).isEqualTo(startOf(TODAY.plusDays(1)));
+    }
+
+    /**
+     * Reloj de prueba que se puede mover manualmente
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -27,6 +28,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class PromotionServiceTest {
@@ -35,6 +37,8 @@ class PromotionServiceTest {
     @Mock private StatusRepository statusRepository;
     @Mock private UserRepository userRepository;
     @Mock private CategoryRepository categoryRepository;
+    @Mock private ActivePromotionIndex activePromotionIndex;
+    @Mock private PromotionLifecycleEngine promotionLifecycleEngine;
 
     @InjectMocks
     private PromotionService promotionService;
@@ -79,16 +83,14 @@ class PromotionServiceTest {
     }
 
     @Test
-    @DisplayName("getAllActivePromotions filtra por fecha vigente y mapea a DTO")
-    void getAllActivePromotions_filtersAndMaps() {
+    @DisplayName("getAllActivePromotions lee del índice en memoria y mapea a DTO")
+    void getAllActivePromotions_readsIndexAndMaps() {
         LocalDate today = LocalDate.now();
         Status active = status(1, "ACTIVE");
         Category cat = category(10, "Perros", "Accesorios");
 
         Promotion valid = promo(1, "Promo OK", "desc", today.minusDays(1), today.plusDays(1), 10.0, active, null, cat);
-        Promotion future = promo(2, "Promo FUT", "desc", today.plusDays(1), today.plusDays(2), 15.0, active, null, cat);
-        Promotion past = promo(3, "Promo PAST", "desc", today.minusDays(3), today.minusDays(1), 5.0, active, null, cat);
-        given(promotionRepository.findActivePromotions()).willReturn(List.of(valid, future, past));
+        given(activePromotionIndex.getActivePromotions()).willReturn(List.of(valid));
 
         List<PromotionDTO> result = promotionService.getAllActivePromotions();
 
@@ -101,7 +103,8 @@ class PromotionServiceTest {
         assertThat(dto.getCategory().getCategoryId()).isEqualTo(10);
         assertThat(dto.getStartDate()).isEqualTo(valid.getStartDate().atStartOfDay());
         assertThat(dto.getEndDate()).isEqualTo(valid.getEndDate().atTime(23,59,59));
-        verify(promotionRepository).findActivePromotions();
+        verify(activePromotionIndex).getActivePromotions();
+        verifyNoInteractions(promotionRepository);
     }
 
     @Test
@@ -146,6 +149,27 @@ class PromotionServiceTest {
         verify(promotionRepository).findValidPromotions(any(LocalDate.class));
     }
 
+    @Test
+    @DisplayName("getActivePromotionSummaries delega en la consulta filtrada por la base de datos")
+    void getActivePromotionSummaries_delegates() {
+        given(promotionRepository.findActiveSummaries(LocalDate.now(), 4)).willReturn(List.of());
+
+        assertThat(promotionService.getActivePromotionSummaries(4)).isEmpty();
+        verify(promotionRepository).findActiveSummaries(LocalDate.now(), 4);
+    }
+
+    @Test
+    @DisplayName("getPromotionsByCategoryIdsEntities consulta una sola vez y omite la consulta sin IDs")
+    void getPromotionsByCategoryIdsEntities_batches() {
+        LocalDate today = LocalDate.now();
+        Promotion p = promo(1, "P", "d", today, today.plusDays(1), 5.0, status(1, "ACTIVE"), null, category(2, "Gatos", null));
+        given(promotionRepository.findFirstPerCategory(List.of(2, 3), 10)).willReturn(List.of(p));
+
+        assertThat(promotionService.getPromotionsByCategoryIdsEntities(List.of(2, 3), 10)).containsExactly(p);
+        assertThat(promotionService.getPromotionsByCategoryIdsEntities(List.of(), 10)).isEmpty();
+        verify(promotionRepository).findFirstPerCategory(List.of(2, 3), 10);
+    }
+
     @Test
     @DisplayName("createPromotion construye entidad con relaciones y guarda")
     void createPromotion_buildsAndSaves() {
@@ -172,6 +196,10 @@ class PromotionServiceTest {
         assertThat(saved.getUser()).isSameAs(us);
         assertThat(saved.getCategory()).isSameAs(cat);
         verify(promotionRepository).save(any(Promotion.class));
+        verify(promotionLifecycleEngine).apply(saved);
+        verify(promotionLifecycleEngine, never()).advance();
+        // El índice lo reconstruye el avance de la versión de promociones, no el servicio
+        verify(activePromotionIndex, never()).refresh();
     }
 
     @Test
@@ -216,6 +244,9 @@ class PromotionServiceTest {
         boolean ok = promotionService.deletePromotion(5);
         assertThat(ok).isTrue();
         verify(promotionRepository).deleteById(5);
+        verify(promotionRepository).flush();
+        verify(promotionLifecycleEngine, never()).advance();
+        verify(activePromotionIndex, never()).refresh();
 
         given(promotionRepository.existsById(6)).willReturn(false);
         boolean ko = promotionService.deletePromotion(6);
@@ -224,16 +255,16 @@ class PromotionServiceTest {
     }
 
     @Test
-    @DisplayName("getAllActivePromotionsEntities filtra por fecha vigente")
-    void getAllActivePromotionsEntities_filters() {
+    @DisplayName("getAllActivePromotionsEntities lee del índice en memoria")
+    void getAllActivePromotionsEntities_readsIndex() {
         LocalDate today = LocalDate.now();
         Status active = status(1, "ACTIVE");
         Promotion valid = promo(1, "V", "d", today.minusDays(1), today.plusDays(1), 10.0, active, null, null);
-        Promotion future = promo(2, "F", "d", today.plusDays(1), today.plusDays(2), 10.0, active, null, null);
-        given(promotionRepository.findActivePromotions()).willReturn(List.of(valid, future));
+        given(activePromotionIndex.getActivePromotions()).willReturn(List.of(valid));
 
         List<Promotion> entities = promotionService.getAllActivePromotionsEntities();
         assertThat(entities).extracting(Promotion::getPromotionId).containsExactly(1);
+        verifyNoInteractions(promotionRepository);
     }
 
     @Test
@@ -241,12 +272,12 @@ class PromotionServiceTest {
     void getAllExpiredPromotionsEntities_delegates() {
         LocalDate today = LocalDate.now();
         Promotion expired = promo(11, "E", "d", today.minusDays(5), today.minusDays(1), 10.0, status(2, "EXPIRED"), null, null);
-        given(promotionRepository.findExpiredPromotions()).willReturn(List.of(expired));
+        given(promotionRepository.findExpiredPromotions(Limit.of(50))).willReturn(List.of(expired));
 
-        List<Promotion> res = promotionService.getAllExpiredPromotionsEntities();
+        List<Promotion> res = promotionService.getAllExpiredPromotionsEntities(50);
         assertThat(res).hasSize(1);
         assertThat(res.get(0).getPromotionId()).isEqualTo(11);
-        verify(promotionRepository).findExpiredPromotions();
+        verify(promotionRepository).findExpiredPromotions(Limit.of(50));
     }
 
     @Test
@@ -254,35 +285,35 @@ class PromotionServiceTest {
     void getAllScheduledPromotionsEntities_delegates() {
         LocalDate today = LocalDate.now();
         Promotion scheduled = promo(12, "S", "d", today.plusDays(5), today.plusDays(10), 10.0, status(3, "SCHEDULED"), null, null);
-        given(promotionRepository.findScheduledPromotions()).willReturn(List.of(scheduled));
+        given(promotionRepository.findScheduledPromotions(Limit.of(50))).willReturn(List.of(scheduled));
 
-        List<Promotion> res = promotionService.getAllScheduledPromotionsEntities();
+        List<Promotion> res = promotionService.getAllScheduledPromotionsEntities(50);
         assertThat(res).hasSize(1);
-        verify(promotionRepository).findScheduledPromotions();
+        verify(promotionRepository).findScheduledPromotions(Limit.of(50));
     }
 
     @Test
     @DisplayName("getPromotionsByStatusEntities delega en repository.findByStatusName")
     void getPromotionsByStatusEntities_delegates() {
-        given(promotionRepository.findByStatusName("ACTIVE")).willReturn(List.of(
+        given(promotionRepository.findByStatusName("ACTIVE", Limit.of(50))).willReturn(List.of(
             promo(13, "AS", "d", LocalDate.now(), LocalDate.now().plusDays(1), 10.0, status(1, "ACTIVE"), null, null)
         ));
 
-        List<Promotion> res = promotionService.getPromotionsByStatusEntities("ACTIVE");
+        List<Promotion> res = promotionService.getPromotionsByStatusEntities("ACTIVE", 50);
         assertThat(res).hasSize(1);
-        verify(promotionRepository).findByStatusName("ACTIVE");
+        verify(promotionRepository).findByStatusName("ACTIVE", Limit.of(50));
     }
 
     @Test
-    @DisplayName("getPromotionsByCategoryEntities delega en repository.findByCategoryCategoryId")
+    @DisplayName("getPromotionsByCategoryEntities delega en repository.findFirstPerCategory")
     void getPromotionsByCategoryEntities_delegates() {
-        given(promotionRepository.findByCategoryCategoryId(7)).willReturn(List.of(
+        given(promotionRepository.findFirstPerCategory(List.of(7), 10)).willReturn(List.of(
             promo(14, "PC", "d", LocalDate.now(), LocalDate.now().plusDays(1), 10.0, status(1, "ACTIVE"), null, category(7, "Test", "d"))
         ));
 
-        List<Promotion> res = promotionService.getPromotionsByCategoryEntities(7);
+        List<Promotion> res = promotionService.getPromotionsByCategoryEntities(7, 10);
         assertThat(res).hasSize(1);
-        verify(promotionRepository).findByCategoryCategoryId(7);
+        verify(promotionRepository).findFirstPerCategory(List.of(7), 10);
     }
 
     @Test
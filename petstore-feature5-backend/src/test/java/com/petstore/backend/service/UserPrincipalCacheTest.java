@@ -0,0 +1,95 @@
+package com.petstore.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.petstore.backend.config.CacheConfig;
+import com.petstore.backend.entity.Role;
+import com.petstore.backend.entity.User;
+import com.petstore.backend.repository.RoleRepository;
+import com.petstore.backend.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica que el principal del filtro JWT se sirve desde caché y que se
+ * invalida al modificar usuarios o roles.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class UserPrincipalCacheTest {
+
+    private static final String EMAIL = "cache@petstore.com";
+
+    @Autowired private AuthService authService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private CacheManager cacheManager;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Role role;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USER_PRINCIPALS).clear();
+        role = roleRepository.save(new Role("Cache Admin"));
+        user = userRepository.save(new User("Cache", EMAIL, "secret", role));
+        cacheManager.getCache(CacheConfig.USER_PRINCIPALS).clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void loadPrincipal_secondCallDoesNoDatabaseIo() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        UserDetails first = authService.loadPrincipal(EMAIL);
+        statistics.clear();
+        UserDetails second = authService.loadPrincipal(EMAIL);
+
+        assertThat(second).isSameAs(first);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CacheConfig.USER_PRINCIPALS)
+                .tag("result", "hit").functionCounter().count()).isPositive();
+    }
+
+    @Test
+    void roleChange_invalidatesCachedPrincipal() {
+        assertThat(authService.loadPrincipal(EMAIL).getAuthorities())
+                .extracting("authority").containsExactly("ROLE_Cache_Admin");
+
+        role.setRoleName("Cache Viewer");
+        roleRepository.save(role);
+
+        assertThat(authService.loadPrincipal(EMAIL).getAuthorities())
+                .extracting("authority").containsExactly("ROLE_Cache_Viewer");
+    }
+
+    @Test
+    void userChange_invalidatesCachedPrincipal() {
+        authService.loadPrincipal(EMAIL);
+        assertThat(cacheManager.getCache(CacheConfig.USER_PRINCIPALS).get(EMAIL)).isNotNull();
+
+        user.setUserName("Renamed");
+        userRepository.save(user);
+
+        assertThat(cacheManager.getCache(CacheConfig.USER_PRINCIPALS).get(EMAIL)).isNull();
+    }
+}
@@ -0,0 +1,127 @@
+package com.petstore.backend.service;
+
+import com.petstore.backend.entity.Status;
+import com.petstore.backend.repository.PromotionRepository;
+import com.petstore.backend.repository.StatusRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Captura eventos JFR {@code jdk.VirtualThreadPinned} mientras muchos hilos
+ * virtuales usan los componentes que esperan a la base de datos bajo un lock.
+ * La latencia de la base de datos se simula con un sleep dentro del repositorio.
+ */
+class VirtualThreadPinningTest {
+
+    private static final Duration DB_LATENCY = Duration.ofMillis(20);
+
+    @TempDir Path tempDir;
+
+    @Test
+    @DisplayName("El detector de JFR registra el pinning de un bloqueo dentro de synchronized")
+    void detectsPinningInsideSynchronized() throws Exception {
+        Object monitor = new Object();
+
+        List<RecordedEvent> pinned = recordPinnedEvents(() -> {
+            synchronized (monitor) {
+                sleep(DB_LATENCY);
+            }
+        });
+
+        assertThat(pinned).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Reconstruir el índice de promociones desde hilos virtuales no los fija")
+    void activePromotionIndexDoesNotPin() throws Exception {
+        PromotionRepository promotionRepository = Mockito.mock(PromotionRepository.class);
+        given(promotionRepository.findActivePromotionsWithRelations(any(LocalDate.class))).willAnswer(inv -> {
+            sleep(DB_LATENCY);
+            return List.of();
+        });
+        ActivePromotionIndex index = new ActivePromotionIndex(promotionRepository, new SimpleMeterRegistry());
+
+        List<RecordedEvent> pinned = recordPinnedEvents(() -> {
+            index.refresh();
+            index.getActivePromotions();
+        });
+
+        assertThat(pinned).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Las transiciones del ciclo de vida desde hilos virtuales no los fijan")
+    void lifecycleEngineDoesNotPin() throws Exception {
+        PromotionRepository promotionRepository = Mockito.mock(PromotionRepository.class);
+        StatusRepository statusRepository = Mockito.mock(StatusRepository.class);
+        given(statusRepository.findByStatusName(any())).willAnswer(inv -> {
+            sleep(DB_LATENCY);
+            return Optional.of(new Status(inv.getArgument(0)));
+        });
+        PromotionLifecycleEngine engine = new PromotionLifecycleEngine(promotionRepository, statusRepository,
+                Mockito.mock(ActivePromotionIndex.class), new CatalogVersions(Mockito.mock(CatalogVersionStore.class)), Mockito.mock(TaskScheduler.class),
+                new SimpleMeterRegistry());
+
+        List<RecordedEvent> pinned = recordPinnedEvents(engine::advance);
+
+        assertThat(pinned).isEmpty();
+    }
+
+    /**
+     * Ejecuta la tarea desde varios hilos virtuales a la vez y devuelve los eventos de pinning
+     * cuya pila pasa por código de la aplicación
+     */
+    private List<RecordedEvent> recordPinnedEvents(Runnable task) throws Exception {
+        Path file = tempDir.resolve("pinning.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.start();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 16; i++) {
+                    executor.submit(task);
+                }
+            }
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> pinned = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                    .anyMatch(frame -> frame.getMethod().getType().getName().startsWith("com.petstore.backend"))) {
+                pinned.add(event);
+            }
+        }
+        return pinned;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
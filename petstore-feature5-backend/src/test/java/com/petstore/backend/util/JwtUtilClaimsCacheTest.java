@@ -0,0 +1,93 @@
+package com.petstore.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Pruebas unitarias (sin contexto de Spring) del parseo único y la caché de claims
+ */
+class JwtUtilClaimsCacheTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "TestSecretKeyForJWTMustBe32CharsMin");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        jwtUtil.init();
+    }
+
+    @Test
+    void parseClaims_returnsVerifiedClaimsAndCachesThem() {
+        String token = jwtUtil.generateToken("user@example.com");
+
+        Optional<Claims> first = jwtUtil.parseClaims(token);
+        Optional<Claims> second = jwtUtil.parseClaims(token);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getSubject()).isEqualTo("user@example.com");
+        // La segunda llamada se sirve desde caché: misma instancia, sin volver a verificar
+        assertThat(second.get()).isSameAs(first.get());
+        assertThat(jwtUtil.extractEmail(token)).isEqualTo("user@example.com");
+        assertThat(jwtUtil.validateToken(token)).isTrue();
+    }
+
+    @Test
+    void parseClaims_rejectsTamperedAndMalformedTokens() {
+        String token = jwtUtil.generateToken("user@example.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtUtil.parseClaims(tampered)).isEmpty();
+        assertThat(jwtUtil.parseClaims("this.is.not.a.jwt")).isEmpty();
+        assertThat(jwtUtil.parseClaims(null)).isEmpty();
+        assertThat(jwtUtil.validateToken("this.is.not.a.jwt")).isFalse();
+        assertThatThrownBy(() -> jwtUtil.extractEmail("this.is.not.a.jwt")).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void parseClaims_rejectsTokenSignedWithAnotherSecret() {
+        JwtUtil other = new JwtUtil();
+        ReflectionTestUtils.setField(other, "secret", "AnotherSecretKeyForJWTMustBe32Chars");
+        ReflectionTestUtils.setField(other, "expiration", 86_400_000L);
+        other.init();
+
+        assertThat(jwtUtil.parseClaims(other.generateToken("user@example.com"))).isEmpty();
+    }
+
+    @Test
+    void parseClaims_rejectsExpiredToken() {
+        ReflectionTestUtils.setField(jwtUtil, "expiration", -1_000L);
+
+        assertThat(jwtUtil.parseClaims(jwtUtil.generateToken("user@example.com"))).isEmpty();
+    }
+
+    @Test
+    void claimsExpiry_lastsUntilTokenExpiration() {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        JwtUtil.ClaimsExpiry expiry = new JwtUtil.ClaimsExpiry(Clock.fixed(now, ZoneOffset.UTC));
+
+        Claims inOneMinute = Jwts.claims().setExpiration(Date.from(now.plusSeconds(60)));
+        Claims alreadyExpired = Jwts.claims().setExpiration(Date.from(now.minusSeconds(1)));
+        Claims withoutExpiration = Jwts.claims();
+
+        assertThat(expiry.expireAfterCreate("k", inOneMinute, 0)).isEqualTo(TimeUnit.SECONDS.toNanos(60));
+        assertThat(expiry.expireAfterCreate("k", alreadyExpired, 0)).isZero();
+        assertThat(expiry.expireAfterCreate("k", withoutExpiration, 0)).isZero();
+    }
+}